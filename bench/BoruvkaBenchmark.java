@@ -0,0 +1,61 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import main.Islands;
+
+/**
+ * Scaling benchmark: the minimum spanning tree of a random connected graph with Kruskal, and with the
+ * parallel Boruvka on pools of 1, 2, 4 .. N threads, N being the number of cores.
+ *
+ * Usage: java bench.BoruvkaBenchmark [islands] [edges] [repetitions]
+ */
+public class BoruvkaBenchmark {
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int m = args.length > 1 ? Integer.parseInt(args[1]) : 8000000;
+		int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("islands=" + n + " edges=" + m + " cores=" + cores);
+		Islands islands = build(n, m);
+		long kruskal = Long.MAX_VALUE;
+		int cost = 0;
+		for(int i = 0; i < repetitions; i++) {
+			long start = System.nanoTime();
+			cost = islands.Kruskal();
+			kruskal = Math.min(kruskal, System.nanoTime() - start);
+		}
+		System.out.printf("%-8s %7s %10s %8s%n", "threads", "ms", "cost", "speedup");
+		System.out.printf("%-8s %7d %10d %8s%n", "Kruskal", kruskal / 1000000, cost, "-");
+		long single = 0;
+		for(int threads = 1; ; threads = Math.min(2 * threads, cores)) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			long best = Long.MAX_VALUE;
+			for(int i = 0; i < repetitions; i++) {
+				long start = System.nanoTime();
+				cost = islands.Boruvka(pool);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			pool.shutdown();
+			if(threads == 1) single = best;
+			System.out.printf("%-8d %7d %10d %8.2f%n", threads, best / 1000000, cost, (double)single / best);
+			if(threads == cores) break;
+		}
+	}
+
+	//a random spanning path plus random edges, so the graph is connected
+	private static Islands build(int n, int m) {
+		Random random = new Random(1);
+		int[] from = new int[m];
+		int[] to = new int[m];
+		int[] costs = new int[m];
+		for(int i = 0; i < m; i++) {
+			from[i] = i < n - 1 ? i : random.nextInt(n);
+			to[i] = i < n - 1 ? i + 1 : random.nextInt(n);
+			costs[i] = random.nextInt(1000000);
+		}
+		return new Islands(n, from, to, costs);
+	}
+}
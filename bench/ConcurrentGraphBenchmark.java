@@ -0,0 +1,110 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import main.AdjListGraph;
+import main.ConcurrentAdjListGraph;
+import net.datastructures.Edge;
+import net.datastructures.Graph;
+import net.datastructures.Vertex;
+
+/**
+ * Contention benchmark: reader threads scan the outgoing edges of random vertices while one writer keeps
+ * inserting and removing edges. Compares an AdjListGraph behind a global lock with ConcurrentAdjListGraph.
+ *
+ * Usage: java bench.ConcurrentGraphBenchmark [vertices] [edges] [seconds per run]
+ */
+public class ConcurrentGraphBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int m = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("vertices=" + n + " edges=" + m + " cores=" + cores);
+		System.out.println("readers  graph                  reads/s     writes/s");
+		for(int readers = 1; readers <= Math.max(1, cores - 1); readers *= 2) {
+			report(readers, "synchronized AdjList", run(new AdjListGraph<Integer,Integer>(), true, n, m, readers, seconds));
+			report(readers, "ConcurrentAdjList", run(new ConcurrentAdjListGraph<Integer,Integer>(), false, n, m, readers, seconds));
+		}
+	}
+
+	private static void report(int readers, String name, long[] result) {
+		System.out.printf("%7d  %-20s %11d %12d%n", readers, name, result[0], result[1]);
+	}
+
+	//returns the reads and the writes per second
+	private static long[] run(final Graph<Integer,Integer> graph, final boolean globalLock, int n, int m,
+			int readers, int seconds) throws Exception {
+		final List<Vertex<Integer>> vertices = new ArrayList<Vertex<Integer>>(n);
+		Random random = new Random(1);
+		for(int i = 0; i < n; i++) vertices.add(graph.insertVertex(i));
+		for(int i = 0; i < m; i++) graph.insertEdge(vertices.get(random.nextInt(n)), vertices.get(random.nextInt(n)), i);
+
+		final AtomicBoolean stop = new AtomicBoolean();
+		final LongAdder reads = new LongAdder();
+		final LongAdder writes = new LongAdder();
+		//the sum of the weights read is published so the scans cannot be optimized away
+		final LongAdder sink = new LongAdder();
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[readers + 1];
+		for(int t = 0; t < readers; t++) {
+			final int seed = t + 2;
+			threads[t] = new Thread(() -> {
+				Random r = new Random(seed);
+				long sum = 0;
+				await(start);
+				while(!stop.get()) {
+					Vertex<Integer> v = vertices.get(r.nextInt(n));
+					if(globalLock) {
+						synchronized(graph) {
+							for(Edge<Integer> e : graph.outgoingEdges(v)) sum += e.getElement();
+						}
+					}
+					else {
+						for(Edge<Integer> e : graph.outgoingEdges(v)) sum += e.getElement();
+					}
+					reads.increment();
+				}
+				sink.add(sum);
+			});
+		}
+		threads[readers] = new Thread(() -> {
+			Random r = new Random(1);
+			await(start);
+			while(!stop.get()) {
+				Vertex<Integer> u = vertices.get(r.nextInt(n));
+				Vertex<Integer> v = vertices.get(r.nextInt(n));
+				if(globalLock) {
+					synchronized(graph) {
+						graph.removeEdge(graph.insertEdge(u, v, 0));
+					}
+				}
+				else {
+					graph.removeEdge(graph.insertEdge(u, v, 0));
+				}
+				writes.increment();
+			}
+		});
+		for(Thread t : threads) t.start();
+		start.countDown();
+		Thread.sleep(seconds * 1000L);
+		stop.set(true);
+		for(Thread t : threads) t.join();
+		return new long[] {reads.sum() / seconds, writes.sum() / seconds};
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.Random;
+
+import main.Islands;
+
+/**
+ * Scaling benchmark: Kruskal on random connected graphs of doubling size, m = 4n. Sorting the edges once
+ * and merging with union-find takes O(m lg m), so every doubling should take a little over twice the time,
+ * against four times for a relabelling of the clouds in O(n m).
+ *
+ * Usage: java bench.KruskalScalingBenchmark [smallest islands] [largest islands] [repetitions]
+ */
+public class KruskalScalingBenchmark {
+
+	public static void main(String[] args) {
+		int smallest = args.length > 0 ? Integer.parseInt(args[0]) : 25000;
+		int largest = args.length > 1 ? Integer.parseInt(args[1]) : 1600000;
+		int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		//warms up the compiler
+		for(int i = 0; i < 5; i++) time(build(10000, 40000), 1);
+		System.out.printf("%-10s %-10s %7s %7s%n", "islands", "edges", "ms", "ratio");
+		long previous = 0;
+		for(int n = smallest; n <= largest; n *= 2) {
+			long best = time(build(n, 4 * n), repetitions);
+			String ratio = previous == 0 ? "-" : String.format("%.2f", (double)best / previous);
+			System.out.printf("%-10d %-10d %7d %7s%n", n, 4 * n, best / 1000000, ratio);
+			previous = best;
+		}
+	}
+
+	//the best of the timings of Kruskal, in nanoseconds
+	private static long time(Islands islands, int repetitions) {
+		long best = Long.MAX_VALUE;
+		for(int i = 0; i < repetitions; i++) {
+			long start = System.nanoTime();
+			islands.Kruskal();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	//a random spanning path plus random edges, so the graph is connected
+	private static Islands build(int n, int m) {
+		Random random = new Random(n);
+		int[] from = new int[m];
+		int[] to = new int[m];
+		int[] costs = new int[m];
+		for(int i = 0; i < m; i++) {
+			from[i] = i < n - 1 ? i : random.nextInt(n);
+			to[i] = i < n - 1 ? i + 1 : random.nextInt(n);
+			costs[i] = random.nextInt(1000);
+		}
+		return new Islands(n, from, to, costs);
+	}
+}
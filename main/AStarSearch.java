@@ -0,0 +1,105 @@
+package main;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Point to point A* search over the int ids of an IntWeightedGraph with non-negative weights. The queue is
+ * keyed by the distance from the source plus a lower bound of the distance to the target given by a
+ * Heuristic, so the search settles the vertices towards the target first. As long as the heuristic never
+ * overestimates, the distance found is the one of Dijkstra: a settled vertex that is reached again by a
+ * shorter path goes back in the queue, which only happens for heuristics that are not consistent.
+ * Like DijkstraSearch, the state is kept for the explored region only and an instance can be reused, but
+ * not by two threads at the same time.
+ */
+public class AStarSearch {
+
+	/**
+	 * A lower bound of the distance between two vertices, given by their ids.
+	 */
+	public interface Heuristic {
+		/**
+		 * @return a value that is not larger than the distance from v to target, 0 if v is target
+		 */
+		long estimate(int v, int target);
+	}
+
+	private final IntWeightedGraph<?> graph;
+	private final Heuristic heuristic;
+	//columns giving the order in which the outgoing slots are relaxed, null for the order of the graph
+	private final int[] slotTargets;
+	private final int[] slotEdges;
+	private final SearchSpace space = new SearchSpace();
+
+	private int source = -1;
+	private int target = -1;
+	private int settled;
+
+	/**
+	 * @param graph the graph to search, its outgoing slots are relaxed in order
+	 * @param heuristic an admissible lower bound of the distances of the graph
+	 */
+	public AStarSearch(IntWeightedGraph<?> graph, Heuristic heuristic) {
+		this(graph, heuristic, null, null);
+	}
+
+	AStarSearch(IntWeightedGraph<?> graph, Heuristic heuristic, int[] slotTargets, int[] slotEdges) {
+		this.graph = graph;
+		this.heuristic = heuristic;
+		this.slotTargets = slotTargets;
+		this.slotEdges = slotEdges;
+	}
+
+	/**
+	 * Finds the shortest distance from source to target.
+	 * @param source the id of the departure vertex
+	 * @param target the id of the destination vertex
+	 * @return the distance, or -1 if the target cannot be reached
+	 */
+	@TimeComplexity("O((n+m) lg n)")
+	public long run(int source, int target) {
+		space.reset();
+		this.source = source;
+		this.target = -1;
+		settled = 0;
+		IndexedHeapPQ queue = space.queue;
+		space.add(source, 0, -1, heuristic.estimate(source, target));
+		while(!queue.isEmpty()) {
+			int current = queue.removeMin();
+			settled++;
+			int v = space.vertex(current);
+			long d = space.dist(current);
+			if(v == target) {
+				this.target = target;
+				return d;
+			}
+			int end = graph.outEnd(v);
+			for(int slot = graph.outStart(v); slot < end; slot++) {
+				int w = slotTargets == null ? graph.outTarget(slot) : slotTargets[slot];
+				int e = slotEdges == null ? graph.outEdge(slot) : slotEdges[slot];
+				long newDistance = d + graph.weight(e);
+				int next = space.find(w);
+				if(next < 0) space.add(w, newDistance, e, newDistance + heuristic.estimate(w, target));
+				else if(newDistance < space.dist(next)) space.reopen(next, newDistance, e, newDistance + heuristic.estimate(w, target));
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the number of vertices removed from the queue by the last search
+	 */
+	@TimeComplexity("O(1)")
+	public int settled() {
+		return settled;
+	}
+
+	/**
+	 * @return the vertex ids of the shortest path found by the last search, from source to target,
+	 *         or an empty array if the target was not reached
+	 */
+	@TimeComplexity("O(n)")
+	public int[] path() {
+		if(target < 0) return new int[0];
+		return DijkstraSearch.walk(graph, space, target, source, true);
+	}
+}
@@ -1,5 +1,10 @@
 package main;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
 import net.datastructures.*;
 
 /*
@@ -10,9 +15,16 @@ import net.datastructures.*;
  */
 public class AdjListGraph<V, E> implements Graph<V, E> {
 
+	//out degree above which a vertex keeps a hash index of its neighbours, so that getEdge is O(1) expected
+	static final int INDEX_THRESHOLD = 16;
+
 	private boolean directed = false;
 	private DoublyLinkedList<AdjListEdge<E>> edges;
 	private DoublyLinkedList<AdjListVertex<V>> vertices;
+	//number of structural changes, checked by the live views to fail fast on concurrent modification
+	private int modCount = 0;
+	private Iterable<Edge<E>> edgeView;
+	private Iterable<Vertex<V>> vertexView;
 	
 	/**
 	 * calls the general constructor and sets the directed variable
@@ -26,20 +38,29 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 	public AdjListGraph() {
 		edges = new DoublyLinkedList<AdjListEdge<E>>();
 		vertices = new DoublyLinkedList<AdjListVertex<V>>();
+		edgeView = new ListView<Edge<E>>(edges);
+		vertexView = new ListView<Vertex<V>>(vertices);
 	}
 
 
-	@TimeComplexity("O(m)")
+	/**
+	 * Compiles the current state of the graph into an immutable compressed-sparse-row snapshot.
+	 * Later changes to this graph are not visible through the snapshot.
+	 * @return a read-only copy of the graph backed by int arrays
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public CSRGraph<V, E> freeze() {
+		return new CSRGraph<V, E>(this, directed);
+	}
+
+	@TimeComplexity("O(1)")
 	/* (non-Javadoc)
-	 * puts edges into comprenendable list then returns the iterator for that list
+	 * returns a read-only live view of the edge list
 	 * @see net.datastructures.Graph#edges()
 	 */
 	public Iterable<Edge<E>> edges() {
-		DoublyLinkedList<Edge<E>> output = new DoublyLinkedList<Edge<E>>();
-		for(Edge<E> e : edges.elements()) {
-			output.addFirst(e);
-		}
-		return output.elements();
+		return edgeView;
 	}
 
 	@TimeComplexity("O(1)")
@@ -61,13 +82,18 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 	public Edge<E> insertEdge(Vertex<V> u, Vertex<V> v, E o)
 			throws IllegalArgumentException {
 		//checks for type
-		if(!(u instanceof AdjListVertex || v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Vertex");
+		if(!(u instanceof AdjListVertex) || !(v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Vertex");
 		//casts input variables to the correct type
 		AdjListVertex<V> out = (AdjListVertex<V>)u;
 		AdjListVertex<V> in = (AdjListVertex<V>)v;
 		//creates the edge from the out vertex to the in vertex and creates the opposite edge if it is not directed
 		AdjListEdge<E> output = out.createOutgoingEdge(in, o);
-		if(!directed)in.createOutgoingInteriorEdge(out, o);
+		if(!directed) {
+			//the two halves of an undirected edge remember each other so either one can be removed in O(1)
+			output.twin = in.createOutgoingInteriorEdge(out, o);
+			output.twin.twin = output;
+		}
+		modCount++;
 
 		return output;
 	}
@@ -78,10 +104,147 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 	 */
 	public Vertex<V> insertVertex(V o) {
 		AdjListVertex<V> vertex = new AdjListVertex<V>(o);
-		vertices.addFirst(vertex);
+		vertex.position = vertices.addLast(vertex);
+		modCount++;
 		return vertex;
 	}
 
+	/**
+	 * Builds a graph in bulk, see insertAll.
+	 * @param directed whether the graph is directed or not
+	 * @return the new graph
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public static <V, E> AdjListGraph<V, E> load(boolean directed, V[] vertexElements, int[] sources, int[] targets,
+			E[] edgeElements, boolean parallel) throws IllegalArgumentException {
+		AdjListGraph<V, E> graph = new AdjListGraph<V, E>(directed);
+		graph.insertAll(vertexElements, sources, targets, edgeElements, parallel);
+		return graph;
+	}
+
+	/**
+	 * Builds a graph of Integer weights in bulk from a column of ints, see insertAll. Every weight is boxed
+	 * as its edge is created, so no array of boxed weights is held next to the graph.
+	 * @param directed whether the graph is directed or not
+	 * @return the new graph
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public static <V> AdjListGraph<V, Integer> load(boolean directed, V[] vertexElements, int[] sources, int[] targets,
+			int[] weights, boolean parallel) throws IllegalArgumentException {
+		AdjListGraph<V, Integer> graph = new AdjListGraph<V, Integer>(directed);
+		if(weights.length != sources.length) throw new IllegalArgumentException("Edge arrays differ in length");
+		graph.insertAll(vertexElements, sources, targets, i -> weights[i], parallel);
+		return graph;
+	}
+
+	/**
+	 * Inserts a batch of vertices and the edges between them. The edges are given as parallel arrays:
+	 * edge i goes from vertexElements[sources[i]] to vertexElements[targets[i]] and stores edgeElements[i].
+	 * The result is the same as inserting every vertex and then every edge in array order, but the
+	 * incidence lists are filled in two counting-sort passes grouped by vertex, the neighbour indexes are
+	 * built once at the end instead of incrementally, and no per-edge lookup or type check is needed.
+	 * With parallel set, the per-vertex passes run on the common ForkJoinPool.
+	 * @param vertexElements the elements of the new vertices
+	 * @param sources index of the origin of every edge in vertexElements
+	 * @param targets index of the destination of every edge in vertexElements
+	 * @param edgeElements the element of every edge
+	 * @param parallel whether to fill the incidence lists of different vertices on several threads
+	 * @return the new vertices, in the order of vertexElements
+	 * @throws IllegalArgumentException if the edge arrays differ in length or an index is out of range
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public Vertex<V>[] insertAll(V[] vertexElements, int[] sources, int[] targets, E[] edgeElements,
+			boolean parallel) throws IllegalArgumentException {
+		if(edgeElements.length != sources.length) throw new IllegalArgumentException("Edge arrays differ in length");
+		return insertAll(vertexElements, sources, targets, i -> edgeElements[i], parallel);
+	}
+
+	//insertAll with the element of edge i given by edgeElement, called once per edge in array order
+	private Vertex<V>[] insertAll(V[] vertexElements, int[] sources, int[] targets, java.util.function.IntFunction<E> edgeElement,
+			boolean parallel) throws IllegalArgumentException {
+		int n = vertexElements.length;
+		int m = sources.length;
+		if(targets.length != m) throw new IllegalArgumentException("Edge arrays differ in length");
+		for(int i = 0; i < m; i++) {
+			if(sources[i] < 0 || sources[i] >= n || targets[i] < 0 || targets[i] >= n) throw new IllegalArgumentException("Invalid Vertex");
+		}
+
+		//first pass: creates the vertices and both halves of every edge, in array order
+		AdjListVertex<V>[] created = new AdjListVertex[n];
+		for(int i = 0; i < n; i++) {
+			created[i] = new AdjListVertex<V>(vertexElements[i]);
+			created[i].position = vertices.addLast(created[i]);
+		}
+		int perEdge = directed ? 1 : 2;
+		AdjListEdge<E>[] halves = new AdjListEdge[perEdge * m];
+		int[] outOwner = new int[halves.length];
+		int[] inOwner = new int[halves.length];
+		for(int i = 0; i < m; i++) {
+			E element = edgeElement.apply(i);
+			AdjListEdge<E> edge = new AdjListEdge<E>(element, created[targets[i]], created[sources[i]]);
+			edge.edgesPosition = edges.addLast(edge);
+			halves[perEdge * i] = edge;
+			outOwner[perEdge * i] = sources[i];
+			inOwner[perEdge * i] = targets[i];
+			if(!directed) {
+				edge.twin = new AdjListEdge<E>(element, created[sources[i]], created[targets[i]]);
+				edge.twin.twin = edge;
+				halves[2 * i + 1] = edge.twin;
+				outOwner[2 * i + 1] = targets[i];
+				inOwner[2 * i + 1] = sources[i];
+			}
+		}
+
+		//second pass: groups the halves by vertex and appends every group to its incidence list
+		final int[] outOffsets = new int[n + 1];
+		final int[] byOut = groupBy(outOwner, outOffsets);
+		final int[] inOffsets = new int[n + 1];
+		final int[] byIn = groupBy(inOwner, inOffsets);
+		IntStream range = IntStream.range(0, n);
+		if(parallel) range = range.parallel();
+		range.forEach(v -> {
+			AdjListVertex<V> vertex = created[v];
+			for(int slot = outOffsets[v]; slot < outOffsets[v + 1]; slot++) {
+				AdjListEdge<E> half = halves[byOut[slot]];
+				half.outPosition = (Position)vertex.outgoingEdges.addLast(half);
+			}
+			for(int slot = inOffsets[v]; slot < inOffsets[v + 1]; slot++) {
+				AdjListEdge<E> half = halves[byIn[slot]];
+				half.inPosition = (Position)vertex.incomingEdges.addLast(half);
+			}
+			if(vertex.outgoingEdges.size() > INDEX_THRESHOLD) vertex.buildIndex();
+		});
+		modCount++;
+		return created;
+	}
+
+	/**
+	 * Stable counting sort of the indices 0 .. owner.length-1 by owner.
+	 * @param owner the group of every index
+	 * @param offsets filled with the first slot of every group, offsets.length is the number of groups plus one
+	 * @return the indices ordered by group
+	 */
+	@TimeComplexity("O(n+m)")
+	private static int[] groupBy(int[] owner, int[] offsets) {
+		int groups = offsets.length - 1;
+		for(int i = 0; i < owner.length; i++) {
+			offsets[owner[i] + 1]++;
+		}
+		for(int g = 0; g < groups; g++) {
+			offsets[g + 1] += offsets[g];
+		}
+		int[] fill = new int[groups];
+		System.arraycopy(offsets, 0, fill, 0, groups);
+		int[] output = new int[owner.length];
+		for(int i = 0; i < owner.length; i++) {
+			output[fill[owner[i]]++] = i;
+		}
+		return output;
+	}
+
 	@TimeComplexity("O(1)")
 	/* (non-Javadoc)
 	 * @see net.datastructures.Graph#numEdges()
@@ -116,36 +279,43 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		return null;
 	}
 
-	@TimeComplexity("O(m)")
+	@TimeComplexity("O(1)")
 	/* (non-Javadoc)
+	 * every half of the edge is unlinked through the positions it stored when it was inserted
 	 * @see net.datastructures.Graph#removeEdge(net.datastructures.Edge)
 	 */
 	public void removeEdge(Edge<E> e) throws IllegalArgumentException {
 		if(!(e instanceof AdjListEdge)) throw new IllegalArgumentException("Invalid Edge");
 		AdjListEdge<E> edge = (AdjListEdge<E>)e;
-		edges.remove(edge);
-		edge.incomingVertex.removeEdge(edge);
-		edge.outgoingVertex.removeEdge(edge);
-		if(!directed) {
-			edge = (AdjListEdge<E>)getEdge(edge.incomingVertex, edge.outgoingVertex);
-			edge.incomingVertex.removeEdge(edge);
-			edge.outgoingVertex.removeEdge(edge);
-		}
+		if(edge.outPosition == null) throw new IllegalArgumentException("Edge not in graph");
+		//only one half of an undirected edge is stored in the global edge list
+		if(edge.edgesPosition == null && edge.twin != null) edge = edge.twin;
+		edges.remove(edge.edgesPosition);
+		edge.edgesPosition = null;
+		edge.unlink();
+		if(edge.twin != null) edge.twin.unlink();
+		modCount++;
 	}
 
 	@TimeComplexity("O(m)")
 	/* (non-Javadoc)
+	 * O(1) for each incident edge, the vertex is unlinked through its stored position
 	 * @see net.datastructures.Graph#removeVertex(net.datastructures.Vertex)
 	 */
 	public void removeVertex(Vertex<V> v) throws IllegalArgumentException {
 		if(!(v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Vertex");
-		AdjListVertex<E> vertex = (AdjListVertex<E>) v;
-		for(AdjListEdge<E> e : vertex.incomingEdges) {
-			edges.remove(e);
+		AdjListVertex<V> vertex = (AdjListVertex<V>) v;
+		if(vertex.position == null) throw new IllegalArgumentException("Vertex not in graph");
+		//removing an edge unlinks it from both incidence lists, so the lists shrink on every iteration
+		while(!vertex.outgoingEdges.isEmpty()) {
+			removeEdge(vertex.outgoingEdges.first().getElement());
 		}
-		for(AdjListEdge<E> e : vertex.outgoingEdges) {
-			edges.remove(e);
+		while(!vertex.incomingEdges.isEmpty()) {
+			removeEdge(vertex.incomingEdges.first().getElement());
 		}
+		vertices.remove(vertex.position);
+		vertex.position = null;
+		modCount++;
 	}
 
 	@TimeComplexity("O(1)")
@@ -153,9 +323,12 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
      * replace the element in edge object, return the old element
      */
 	public E replace(Edge<E> e, E o) throws IllegalArgumentException {
-		E old = e.getElement();
 		if(!(e instanceof AdjListEdge)) throw new IllegalArgumentException("Invalid Edge");
-		((AdjListEdge<E>)e).element = o;
+		AdjListEdge<E> edge = (AdjListEdge<E>)e;
+		E old = edge.element;
+		edge.element = o;
+		//both halves of an undirected edge carry the same element
+		if(edge.twin != null) edge.twin.element = o;
 		return old;
 	}
 
@@ -170,16 +343,13 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		return old;
 	}
 
-	@TimeComplexity("O(n)")
+	@TimeComplexity("O(1)")
 	/* (non-Javadoc)
+	 * returns a read-only live view of the vertex list
 	 * @see net.datastructures.Graph#vertices()
 	 */
 	public Iterable<Vertex<V>> vertices() {
-		DoublyLinkedList<Vertex<V>> output = new DoublyLinkedList<Vertex<V>>();
-		for(Vertex<V> e : vertices.elements()) {
-			output.addFirst(e);
-		}
-		return output.elements();
+		return vertexView;
 	}
 
 	@TimeComplexity("O(1)")
@@ -198,38 +368,44 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		return vertex.incomingEdges.size();
 	}
 
-	@TimeComplexity("O(n)")
+	@TimeComplexity("O(1)")
+	/*
+	 * returns a read-only live view of the incidence list, created once per vertex
+	 */
 	@Override
 	public Iterable<Edge<E>> outgoingEdges(Vertex<V> v)
 			throws IllegalArgumentException {
 		if(!(v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Edge");
 		AdjListVertex<V> vertex = (AdjListVertex<V>)v;
-		DoublyLinkedList<Edge<E>> output = new DoublyLinkedList<Edge<E>>();
-		for(Edge<E> e : vertex.outgoingEdges.elements()) {
-			output.addFirst(e);
-		}
-		return output.elements();
+		if(vertex.outgoingView == null) vertex.outgoingView = new ListView<Edge<E>>(vertex.outgoingEdges);
+		return vertex.outgoingView;
 	}
 
-	@TimeComplexity("O(n)")
+	@TimeComplexity("O(1)")
+	/*
+	 * returns a read-only live view of the incidence list, created once per vertex
+	 */
 	@Override
 	public Iterable<Edge<E>> incomingEdges(Vertex<V> v)
 			throws IllegalArgumentException {
 		if(!(v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Edge");
 		AdjListVertex<V> vertex = (AdjListVertex<V>)v;
-		DoublyLinkedList<Edge<E>> output = new DoublyLinkedList<Edge<E>>();
-		for(Edge<E> e : vertex.incomingEdges.elements()) {
-			output.addFirst(e);
-		}
-		return output.elements();
+		if(vertex.incomingView == null) vertex.incomingView = new ListView<Edge<E>>(vertex.incomingEdges);
+		return vertex.incomingView;
 	}
 
 	@TimeComplexity("O(m)")
+	@TimeComplexityExpected("O(1)")
+	/*
+	 * The expected time is O(1) because high degree vertices look the neighbour up in their hash index,
+	 * and the others scan at most INDEX_THRESHOLD edges
+	 */
 	@Override
 	public Edge<E> getEdge(Vertex<V> u, Vertex<V> v)
 			throws IllegalArgumentException {
-		if(!(u instanceof AdjListVertex || v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Vertex");
+		if(!(u instanceof AdjListVertex) || !(v instanceof AdjListVertex)) throw new IllegalArgumentException("Invalid Vertex");
 		AdjListVertex<V> vertex = (AdjListVertex<V>)u;
+		if(vertex.neighbours != null) return vertex.neighbours.get(v);
 		for(AdjListEdge<E> e : vertex.outgoingEdges.elements()) {
 			if(e.incomingVertex.equals(v)) return e;
 		}
@@ -242,6 +418,14 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		AdjListVertex<V> incomingVertex;
 		AdjListVertex<V> outgoingVertex;
 		E element;
+		//the opposite half of an undirected edge, null for directed graphs
+		AdjListEdge<E> twin;
+		//positions of the edge in the global edge list (null for the interior half) and in both incidence lists
+		Position<AdjListEdge<E>> edgesPosition;
+		Position<AdjListEdge<E>> outPosition;
+		Position<AdjListEdge<E>> inPosition;
+		//next newer edge with the same end vertices in the neighbour index of the outgoing vertex
+		AdjListEdge<E> nextParallel;
 		
 		public AdjListEdge(E e, AdjListVertex in, AdjListVertex out){
 			incomingVertex = in;
@@ -249,6 +433,17 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 			element = e;
 		}
 		
+		/**
+		 * removes this half of the edge from the incidence lists of its end vertices in O(1)
+		 */
+		void unlink() {
+			outgoingVertex.unindex((AdjListEdge)this);
+			outgoingVertex.outgoingEdges.remove((Position)outPosition);
+			incomingVertex.incomingEdges.remove((Position)inPosition);
+			outPosition = null;
+			inPosition = null;
+		}
+		
 		@Override
 		public E getElement() {
 			return element;
@@ -260,6 +455,13 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		V element;
 		DoublyLinkedList<AdjListEdge<E>> outgoingEdges;
 		DoublyLinkedList<AdjListEdge<E>> incomingEdges;
+		//position of the vertex in the vertex list, null once the vertex is removed
+		Position<AdjListVertex<V>> position;
+		//maps every neighbour to the chain of outgoing edges towards it, null while the out degree is small
+		HashMap<Vertex, AdjListEdge<E>> neighbours;
+		//live views of the incidence lists, created on first use
+		Iterable<Edge<E>> outgoingView;
+		Iterable<Edge<E>> incomingView;
 		
 		
 		public AdjListVertex(V e) {
@@ -268,21 +470,80 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 			incomingEdges = new DoublyLinkedList<AdjListEdge<E>>();
 		}
 		public AdjListEdge<E> createOutgoingEdge(AdjListVertex<V> v, E element) {
-			AdjListEdge output = new AdjListEdge<E>(element,v,this);
-			edges.addFirst(output);
-			outgoingEdges.addFirst(output);
-			v.incomingEdges.addFirst(output);
+			AdjListEdge<E> output = createOutgoingInteriorEdge(v, element);
+			output.edgesPosition = edges.addLast(output);
 			return output;
 		}
 		public AdjListEdge<E> createOutgoingInteriorEdge(AdjListVertex<V> v,E element){
-			AdjListEdge output = new AdjListEdge<E>(element,v,this);
-			outgoingEdges.addFirst(output);
-			v.incomingEdges.addFirst(output);
+			AdjListEdge<E> output = new AdjListEdge<E>(element,v,this);
+			output.outPosition = outgoingEdges.addLast(output);
+			output.inPosition = v.incomingEdges.addLast(output);
+			index(output);
 			return output;
 		}
-		public void removeEdge(AdjListEdge<E> e) {
-			outgoingEdges.remove(e);
-			incomingEdges.remove(e);
+		
+		/**
+		 * adds a new outgoing edge to the neighbour index, building the index once the degree passes the threshold
+		 * @param e an edge already added to outgoingEdges
+		 */
+		@TimeComplexity("O(n)")
+		@TimeComplexityAmortized("O(1)")
+		void index(AdjListEdge<E> e) {
+			if(neighbours == null) {
+				if(outgoingEdges.size() > INDEX_THRESHOLD) buildIndex();
+				return;
+			}
+			link(e);
+		}
+		
+		/**
+		 * indexes every outgoing edge, sized for the current degree
+		 */
+		@TimeComplexity("O(n)")
+		@TimeComplexityExpected("O(n)")
+		void buildIndex() {
+			neighbours = new HashMap<Vertex, AdjListEdge<E>>(Math.max(4 * INDEX_THRESHOLD, 2 * outgoingEdges.size()));
+			for(AdjListEdge<E> edge : outgoingEdges.elements()) {
+				link(edge);
+			}
+		}
+		
+		/**
+		 * removes an outgoing edge from the neighbour index, dropping the index once the degree falls well below the threshold
+		 * @param e an edge still stored in outgoingEdges
+		 */
+		@TimeComplexity("O(1)")
+		@TimeComplexityExpected("O(1)")
+		void unindex(AdjListEdge<E> e) {
+			if(neighbours == null) return;
+			if(outgoingEdges.size() - 1 < INDEX_THRESHOLD / 2) {
+				neighbours = null;
+				return;
+			}
+			AdjListEdge<E> head = neighbours.get(e.incomingVertex);
+			if(head == e) {
+				if(e.nextParallel == null) neighbours.remove(e.incomingVertex);
+				else neighbours.put(e.incomingVertex, e.nextParallel);
+			}
+			else {
+				//parallel edges to the same neighbour form a short chain
+				while(head.nextParallel != e) head = head.nextParallel;
+				head.nextParallel = e.nextParallel;
+			}
+			e.nextParallel = null;
+		}
+		
+		//appends the edge to the chain of its neighbour, so the head is the oldest edge, the one a scan of
+		//outgoingEdges finds first
+		private void link(AdjListEdge<E> e) {
+			e.nextParallel = null;
+			AdjListEdge<E> head = neighbours.get(e.incomingVertex);
+			if(head == null) {
+				neighbours.put(e.incomingVertex, e);
+				return;
+			}
+			while(head.nextParallel != null) head = head.nextParallel;
+			head.nextParallel = e;
 		}
 		
 		
@@ -293,5 +554,55 @@ public class AdjListGraph<V, E> implements Graph<V, E> {
 		
 	}
 	
-	
+	/*
+	 * Read-only live view of one of the lists of the graph. Nothing is copied: the iterator walks the
+	 * nodes of the list and throws ConcurrentModificationException if the graph is structurally
+	 * modified while the iteration is in progress.
+	 */
+	private class ListView<T> implements Iterable<T> {
+		
+		private final DoublyLinkedList<? extends T> list;
+		
+		ListView(DoublyLinkedList<? extends T> list) {
+			this.list = list;
+		}
+		
+		@Override
+		public Iterator<T> iterator() {
+			return iterator(list);
+		}
+		
+		//names the element type of the list, so its positions can be passed back to it
+		private <S extends T> Iterator<T> iterator(DoublyLinkedList<S> list) {
+			return new ListViewIterator<S>(list);
+		}
+		
+		private class ListViewIterator<S extends T> implements Iterator<T> {
+			
+			private final DoublyLinkedList<S> list;
+			//the next node to return and the modification count the iteration started from
+			private Position<S> current;
+			private final int expectedModCount = modCount;
+			
+			ListViewIterator(DoublyLinkedList<S> list) {
+				this.list = list;
+				current = list.first();
+			}
+			
+			@Override
+			public boolean hasNext() {
+				if(modCount != expectedModCount) throw new ConcurrentModificationException();
+				return current != null;
+			}
+			
+			@Override
+			public T next() {
+				if(modCount != expectedModCount) throw new ConcurrentModificationException();
+				if(current == null) throw new NoSuchElementException();
+				T output = current.getElement();
+				current = list.after(current);
+				return output;
+			}
+		}
+	}
 }
@@ -0,0 +1,139 @@
+package main;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Point to point bidirectional Dijkstra search over the int ids of an IntWeightedGraph with non-negative
+ * weights. A forward search from the source over the outgoing slots and a backward search from the target
+ * over the incoming slots run in turns, the one whose smallest key is lower going first. Whenever a vertex
+ * gets a new distance on one side and has been reached on the other, the sum is a candidate for the best
+ * meeting point. The search stops once the two smallest keys add up to at least the best candidate, since
+ * no path through an unsettled vertex can be shorter.
+ * Like DijkstraSearch, the state is kept for the explored regions only and an instance can be reused, but
+ * not by two threads at the same time.
+ */
+public class BidirectionalDijkstra {
+
+	private final IntWeightedGraph<?> graph;
+	//relaxation order of the outgoing and incoming slots, null for the order of the graph
+	private final int[] outTargets;
+	private final int[] outEdges;
+	private final int[] inSources;
+	private final int[] inEdges;
+	private final SearchSpace forward = new SearchSpace();
+	private final SearchSpace backward = new SearchSpace();
+
+	private int source = -1;
+	private int target = -1;
+	private int meeting = -1;
+
+	/**
+	 * @param graph the graph to search, its slots are relaxed in order
+	 */
+	public BidirectionalDijkstra(IntWeightedGraph<?> graph) {
+		this(graph, null, null, null, null);
+	}
+
+	/**
+	 * @param graph the graph to search
+	 * @param outTargets the vertex at the other end of every outgoing slot, in relaxation order
+	 * @param outEdges the edge of every outgoing slot, in relaxation order
+	 * @param inSources the vertex at the other end of every incoming slot, in relaxation order
+	 * @param inEdges the edge of every incoming slot, in relaxation order
+	 */
+	BidirectionalDijkstra(IntWeightedGraph<?> graph, int[] outTargets, int[] outEdges, int[] inSources, int[] inEdges) {
+		this.graph = graph;
+		this.outTargets = outTargets;
+		this.outEdges = outEdges;
+		this.inSources = inSources;
+		this.inEdges = inEdges;
+	}
+
+	/**
+	 * Finds the shortest distance from source to target.
+	 * @param source the id of the departure vertex
+	 * @param target the id of the destination vertex
+	 * @return the distance, or -1 if the target cannot be reached
+	 */
+	@TimeComplexity("O((n+m) lg n)")
+	public long run(int source, int target) {
+		forward.reset();
+		backward.reset();
+		this.source = source;
+		this.target = target;
+		meeting = source == target ? source : -1;
+		long best = source == target ? 0 : Long.MAX_VALUE;
+		forward.add(source, 0, -1);
+		backward.add(target, 0, -1);
+		IndexedHeapPQ forwardQueue = forward.queue;
+		IndexedHeapPQ backwardQueue = backward.queue;
+		while(!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+			if(forwardQueue.minKey() + backwardQueue.minKey() >= best) break;
+			if(forwardQueue.minKey() <= backwardQueue.minKey()) best = step(forward, backward, true, best);
+			else best = step(backward, forward, false, best);
+		}
+		if(meeting < 0) return -1;
+		return best;
+	}
+
+	/**
+	 * @return the number of vertices reached by both sides of the last search
+	 */
+	@TimeComplexity("O(1)")
+	public int explored() {
+		return forward.size() + backward.size();
+	}
+
+	/**
+	 * @return the vertex ids of the shortest path found by the last search, from source to target,
+	 *         or an empty array if the target was not reached
+	 */
+	@TimeComplexity("O(n)")
+	public int[] path() {
+		if(meeting < 0) return new int[0];
+		int[] head = DijkstraSearch.walk(graph, forward, meeting, source, true);
+		int[] tail = DijkstraSearch.walk(graph, backward, meeting, target, false);
+		//the meeting vertex ends the first half and starts the second
+		int[] output = java.util.Arrays.copyOf(head, head.length + tail.length - 1);
+		System.arraycopy(tail, 1, output, head.length, tail.length - 1);
+		return output;
+	}
+
+	//settles the closest vertex of one side and relaxes its slots, returns the best meeting distance
+	private long step(SearchSpace space, SearchSpace other, boolean outgoing, long best) {
+		int current = space.queue.removeMin();
+		int v = space.vertex(current);
+		long d = space.dist(current);
+		int[] targets = outgoing ? outTargets : inSources;
+		int[] edges = outgoing ? outEdges : inEdges;
+		int start = outgoing ? graph.outStart(v) : graph.inStart(v);
+		int end = outgoing ? graph.outEnd(v) : graph.inEnd(v);
+		for(int slot = start; slot < end; slot++) {
+			int w;
+			int e;
+			if(targets != null) {
+				w = targets[slot];
+				e = edges[slot];
+			}
+			else if(outgoing) {
+				w = graph.outTarget(slot);
+				e = graph.outEdge(slot);
+			}
+			else {
+				w = graph.inSource(slot);
+				e = graph.inEdge(slot);
+			}
+			long newDistance = d + graph.weight(e);
+			int next = space.find(w);
+			if(next < 0) space.add(w, newDistance, e);
+			else if(newDistance < space.dist(next) && !space.settled(next)) space.decrease(next, newDistance, e);
+			else continue;
+			int meet = other.find(w);
+			if(meet >= 0 && newDistance + other.dist(meet) < best) {
+				best = newDistance + other.dist(meet);
+				meeting = w;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,224 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Direction-optimizing breadth first search (Beamer, Asanovic, Patterson) over the int ids of an
+ * IntWeightedGraph, for the route with the fewest edges from a source to a target.
+ *
+ * The levels are searched backwards from the target, with the frontier, the next frontier and the reached
+ * vertices kept as bitsets over the vertex ids. A top-down step follows the incoming slots of the frontier.
+ * Once the frontier has more slots to follow than a fraction of the unexplored vertices, bottom-up steps
+ * are used instead: every unreached vertex looks for one outgoing slot into the frontier and stops at the
+ * first one, which is much cheaper on the few large middle levels of a low diameter graph. The search
+ * returns to top-down steps when the frontier becomes small again. With the parallel option, every level
+ * is split into blocks of vertex ids searched on the common ForkJoinPool, top-down steps marking vertices
+ * with atomic bit operations and bottom-up steps only writing the words of their own block.
+ *
+ * The route is then walked forward from the source, at every step taking the first outgoing slot, in
+ * slot order, whose vertex is one level closer to the target. It is the smallest route among the shortest
+ * ones when comparing slot positions, which is the route a queue-based search visiting the slots in order
+ * finds, so a graph whose slots are sorted by name gives the lexicographically ordered route.
+ * The per vertex arrays are allocated once and reused, a search only clears the distances it set, but an
+ * instance must not be used by two threads at the same time.
+ */
+public class BreadthFirstSearch {
+
+	//top-down to bottom-up when the frontier slots exceed the unexplored slots / ALPHA,
+	//back to top-down when the frontier has fewer than n / BETA vertices
+	private static final int ALPHA = 14;
+	private static final int BETA = 24;
+	//the number of bitset words of one parallel block
+	private static final int BLOCK = 64;
+	private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final IntWeightedGraph<?> graph;
+	//the vertex at the other end of every outgoing slot in walking order, null for the order of the graph
+	private final int[] slotTargets;
+	private final boolean parallel;
+
+	//the number of edges from every vertex to the target, -1 if it has not been reached
+	private int[] dist;
+	private long[] reached;
+	private long[] frontier;
+	private long[] next;
+	private int explored;
+
+	private int source = -1;
+	private int hops = -1;
+
+	/**
+	 * @param graph the graph to search, the route follows its outgoing slots in order
+	 */
+	public BreadthFirstSearch(IntWeightedGraph<?> graph) {
+		this(graph, false);
+	}
+
+	/**
+	 * @param graph the graph to search, the route follows its outgoing slots in order
+	 * @param parallel whether every level is searched in parallel on the common ForkJoinPool
+	 */
+	public BreadthFirstSearch(IntWeightedGraph<?> graph, boolean parallel) {
+		this(graph, null, parallel);
+	}
+
+	/**
+	 * @param graph the graph to search
+	 * @param slotTargets the vertex at the other end of every outgoing slot, in walking order
+	 * @param parallel whether every level is searched in parallel on the common ForkJoinPool
+	 */
+	BreadthFirstSearch(IntWeightedGraph<?> graph, int[] slotTargets, boolean parallel) {
+		this.graph = graph;
+		this.slotTargets = slotTargets;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Finds the fewest edges of a route from source to target.
+	 * @param source the id of the departure vertex
+	 * @param target the id of the destination vertex
+	 * @return the number of edges of the route, or -1 if the target cannot be reached
+	 */
+	@TimeComplexity("O(d n + m)")
+	public int run(int source, int target) {
+		int n = graph.numVertices();
+		if(dist == null) {
+			dist = new int[n];
+			java.util.Arrays.fill(dist, -1);
+			reached = new long[(n + 63) >>> 6];
+			frontier = new long[reached.length];
+			next = new long[reached.length];
+		}
+		//only the vertices reached by the last search have a distance to clear
+		for(int i = 0; i < reached.length; i++) {
+			for(long word = reached[i]; word != 0; word &= word - 1) dist[(i << 6) + Long.numberOfTrailingZeros(word)] = -1;
+		}
+		java.util.Arrays.fill(reached, 0);
+		java.util.Arrays.fill(frontier, 0);
+		this.source = source;
+		dist[target] = 0;
+		reached[target >>> 6] |= 1L << target;
+		frontier[target >>> 6] |= 1L << target;
+		explored = 1;
+		hops = source == target ? 0 : -1;
+		long frontierSlots = graph.inEnd(target) - graph.inStart(target);
+		long unexploredSlots = (n == 0 ? 0 : graph.outEnd(n - 1)) - (graph.outEnd(target) - graph.outStart(target));
+		int frontierSize = 1;
+		boolean bottomUp = false;
+		int blocks = (reached.length + BLOCK - 1) / BLOCK;
+		for(int level = 1; hops < 0 && frontierSize > 0; level++) {
+			if(!bottomUp && frontierSlots > unexploredSlots / ALPHA) bottomUp = true;
+			else if(bottomUp && frontierSize < n / BETA) bottomUp = false;
+			java.util.Arrays.fill(next, 0);
+			int depth = level;
+			java.util.stream.IntStream range = java.util.stream.IntStream.range(0, blocks);
+			if(bottomUp) (parallel ? range.parallel() : range).forEach(block -> bottomUp(block, depth));
+			else (parallel ? range.parallel() : range).forEach(block -> topDown(block, depth));
+			long[] swap = frontier;
+			frontier = next;
+			next = swap;
+			//the size and the slots of the new frontier
+			frontierSize = 0;
+			frontierSlots = 0;
+			for(int i = 0; i < frontier.length; i++) {
+				for(long word = frontier[i]; word != 0; word &= word - 1) {
+					int v = (i << 6) + Long.numberOfTrailingZeros(word);
+					frontierSize++;
+					frontierSlots += graph.inEnd(v) - graph.inStart(v);
+					unexploredSlots -= graph.outEnd(v) - graph.outStart(v);
+				}
+			}
+			explored += frontierSize;
+			if(dist[source] >= 0) hops = dist[source];
+		}
+		return hops;
+	}
+
+	/**
+	 * @return the number of vertices reached by the last search
+	 */
+	@TimeComplexity("O(1)")
+	public int explored() {
+		return explored;
+	}
+
+	/**
+	 * @return the vertex ids of the route found by the last search, from source to target,
+	 *         or an empty array if the target was not reached
+	 */
+	@TimeComplexity("O(n+m)")
+	public int[] path() {
+		if(hops < 0) return new int[0];
+		int[] output = new int[hops + 1];
+		int v = source;
+		output[0] = v;
+		//every level closer to the target than the source is complete, so one of the slots leads to it
+		for(int i = 1; i <= hops; i++) {
+			int end = graph.outEnd(v);
+			for(int slot = graph.outStart(v); slot < end; slot++) {
+				int w = slotTargets == null ? graph.outTarget(slot) : slotTargets[slot];
+				if(dist[w] == hops - i) {
+					v = w;
+					break;
+				}
+			}
+			output[i] = v;
+		}
+		return output;
+	}
+
+	//follows the incoming slots of the frontier vertices of one block
+	private void topDown(int block, int level) {
+		int end = Math.min(frontier.length, (block + 1) * BLOCK);
+		for(int i = block * BLOCK; i < end; i++) {
+			for(long word = frontier[i]; word != 0; word &= word - 1) {
+				int v = (i << 6) + Long.numberOfTrailingZeros(word);
+				int slotEnd = graph.inEnd(v);
+				for(int slot = graph.inStart(v); slot < slotEnd; slot++) {
+					int u = graph.inSource(slot);
+					if((reached[u >>> 6] & (1L << u)) == 0 && mark(reached, u)) {
+						dist[u] = level;
+						mark(next, u);
+					}
+				}
+			}
+		}
+	}
+
+	//looks for a slot into the frontier from every unreached vertex of one block
+	private void bottomUp(int block, int level) {
+		int n = graph.numVertices();
+		int end = Math.min(reached.length, (block + 1) * BLOCK);
+		for(int i = block * BLOCK; i < end; i++) {
+			long unreached = ~reached[i];
+			if(i == reached.length - 1 && (n & 63) != 0) unreached &= (1L << n) - 1;
+			for(; unreached != 0; unreached &= unreached - 1) {
+				int u = (i << 6) + Long.numberOfTrailingZeros(unreached);
+				int slotEnd = graph.outEnd(u);
+				for(int slot = graph.outStart(u); slot < slotEnd; slot++) {
+					int v = graph.outTarget(slot);
+					if((frontier[v >>> 6] & (1L << v)) != 0) {
+						dist[u] = level;
+						reached[i] |= 1L << u;
+						next[i] |= 1L << u;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	//sets the bit of a vertex, atomically when the blocks run in parallel, and returns whether it was clear
+	private boolean mark(long[] bits, int v) {
+		long bit = 1L << v;
+		if(!parallel) {
+			long old = bits[v >>> 6];
+			bits[v >>> 6] = old | bit;
+			return (old & bit) == 0;
+		}
+		return ((long)BITS.getAndBitwiseOr(bits, v >>> 6, bit) & bit) == 0;
+	}
+}
@@ -0,0 +1,475 @@
+package main;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.*;
+
+/*
+ * Immutable compressed-sparse-row (CSR) snapshot of a graph.
+ * Vertices and edges are numbered with dense int ids. The outgoing edges of vertex v occupy the slots
+ * outOffsets[v] .. outOffsets[v+1]-1 of the parallel arrays outTargets/outEdges, and the incoming edges
+ * are stored the same way in inOffsets/inSources/inEdges. In the case of an undirected graph every edge is
+ * stored in the rows of both of its end vertices and the incoming arrays are the outgoing arrays.
+ *
+ * The snapshot answers all the read methods of the Graph interface, the mutating methods throw
+ * UnsupportedOperationException.
+ */
+public class CSRGraph<V, E> implements Graph<V, E> {
+
+	protected final boolean directed;
+
+	//per vertex and per edge columns
+	protected final CSRVertex[] vertexArray;
+	protected final CSREdge[] edgeArray;
+	protected final int[] edgeSources;
+	protected final int[] edgeTargets;
+	//the edge elements, null when a subclass keeps them in a column of its own
+	private final Object[] elements;
+
+	//adjacency rows
+	protected final int[] outOffsets;
+	protected final int[] outTargets;
+	protected final int[] outEdges;
+	protected final int[] inOffsets;
+	protected final int[] inSources;
+	protected final int[] inEdges;
+
+	/**
+	 * Compiles the given graph into CSR form. Vertex ids follow the order of source.vertices(),
+	 * edge ids follow the order of source.edges(), and the slots of every row keep that edge order.
+	 * @param source the graph to copy
+	 * @param directed whether the source graph is directed or not
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public CSRGraph(Graph<V, E> source, boolean directed) {
+		this(source, directed, true);
+	}
+
+	/**
+	 * Compiles the given graph, for subclasses that store the edge elements themselves.
+	 * @param source the graph to copy
+	 * @param directed whether the source graph is directed or not
+	 * @param keepElements whether the element column is filled, if not the subclass must override element
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	protected CSRGraph(Graph<V, E> source, boolean directed, boolean keepElements) {
+		this.directed = directed;
+		int n = source.numVertices();
+		int m = source.numEdges();
+
+		//numbers the vertices and remembers the id of every source vertex
+		vertexArray = newArray(CSRVertex.class, n);
+		HashMap<Vertex<V>, Integer> ids = new HashMap<Vertex<V>, Integer>(4 * n / 3 + 1);
+		int count = 0;
+		for(Vertex<V> v : source.vertices()) {
+			vertexArray[count] = new CSRVertex(count, v.getElement());
+			ids.put(v, count);
+			count++;
+		}
+
+		//first pass: copies the edge columns and counts the degree of every vertex
+		edgeArray = newArray(CSREdge.class, m);
+		edgeSources = new int[m];
+		edgeTargets = new int[m];
+		elements = keepElements ? new Object[m] : null;
+		outOffsets = new int[n + 1];
+		int[] incoming = directed ? new int[n + 1] : outOffsets;
+		count = 0;
+		for(Edge<E> e : source.edges()) {
+			Vertex<V>[] ends = source.endVertices(e);
+			int u = ids.get(ends[0]);
+			int v = ids.get(ends[1]);
+			edgeArray[count] = new CSREdge(count);
+			edgeSources[count] = u;
+			edgeTargets[count] = v;
+			if(keepElements) elements[count] = e.getElement();
+			outOffsets[u + 1]++;
+			incoming[v + 1]++;
+			count++;
+		}
+		for(int i = 0; i < n; i++) {
+			outOffsets[i + 1] += outOffsets[i];
+			if(directed) incoming[i + 1] += incoming[i];
+		}
+
+		//second pass: places every edge in the rows of its end vertices
+		outTargets = new int[outOffsets[n]];
+		outEdges = new int[outOffsets[n]];
+		int[] outFill = new int[n];
+		System.arraycopy(outOffsets, 0, outFill, 0, n);
+		if(directed) {
+			inOffsets = incoming;
+			inSources = new int[inOffsets[n]];
+			inEdges = new int[inOffsets[n]];
+			int[] inFill = new int[n];
+			System.arraycopy(inOffsets, 0, inFill, 0, n);
+			for(int e = 0; e < m; e++) {
+				int slot = outFill[edgeSources[e]]++;
+				outTargets[slot] = edgeTargets[e];
+				outEdges[slot] = e;
+				slot = inFill[edgeTargets[e]]++;
+				inSources[slot] = edgeSources[e];
+				inEdges[slot] = e;
+			}
+		}
+		else {
+			for(int e = 0; e < m; e++) {
+				int slot = outFill[edgeSources[e]]++;
+				outTargets[slot] = edgeTargets[e];
+				outEdges[slot] = e;
+				slot = outFill[edgeTargets[e]]++;
+				outTargets[slot] = edgeSources[e];
+				outEdges[slot] = e;
+			}
+			inOffsets = outOffsets;
+			inSources = outTargets;
+			inEdges = outEdges;
+		}
+	}
+
+	/**
+	 * @return whether the snapshot was compiled from a directed graph
+	 */
+	@TimeComplexity("O(1)")
+	public boolean isDirected() {
+		return directed;
+	}
+
+	/**
+	 * @param v a vertex of this snapshot
+	 * @return the dense id of the vertex, between 0 and numVertices()-1
+	 */
+	@TimeComplexity("O(1)")
+	public int vertexId(Vertex<V> v) throws IllegalArgumentException {
+		if(!(v instanceof CSRGraph<?, ?>.CSRVertex)) throw new IllegalArgumentException("Invalid Vertex");
+		CSRGraph<?, ?>.CSRVertex vertex = (CSRGraph<?, ?>.CSRVertex)v;
+		if(vertex.owner() != this) throw new IllegalArgumentException("Vertex not in graph");
+		return vertex.id;
+	}
+
+	/**
+	 * @param id a dense vertex id
+	 * @return the vertex with the given id
+	 */
+	@TimeComplexity("O(1)")
+	public Vertex<V> vertex(int id) {
+		return vertexArray[id];
+	}
+
+	/**
+	 * @param e an edge of this snapshot
+	 * @return the dense id of the edge, between 0 and numEdges()-1
+	 */
+	@TimeComplexity("O(1)")
+	public int edgeId(Edge<E> e) throws IllegalArgumentException {
+		if(!(e instanceof CSRGraph<?, ?>.CSREdge)) throw new IllegalArgumentException("Invalid Edge");
+		CSRGraph<?, ?>.CSREdge edge = (CSRGraph<?, ?>.CSREdge)e;
+		if(edge.owner() != this) throw new IllegalArgumentException("Edge not in graph");
+		return edge.id;
+	}
+
+	/**
+	 * @param id a dense edge id
+	 * @return the edge with the given id
+	 */
+	@TimeComplexity("O(1)")
+	public Edge<E> edge(int id) {
+		return edgeArray[id];
+	}
+
+	/** @return the id of the origin of edge e (an arbitrary end for undirected graphs) */
+	@TimeComplexity("O(1)")
+	public int edgeSource(int e) {
+		return edgeSources[e];
+	}
+
+	/** @return the id of the destination of edge e (the other end for undirected graphs) */
+	@TimeComplexity("O(1)")
+	public int edgeTarget(int e) {
+		return edgeTargets[e];
+	}
+
+	/** @return the first outgoing slot of vertex v */
+	@TimeComplexity("O(1)")
+	public int outStart(int v) {
+		return outOffsets[v];
+	}
+
+	/** @return one past the last outgoing slot of vertex v */
+	@TimeComplexity("O(1)")
+	public int outEnd(int v) {
+		return outOffsets[v + 1];
+	}
+
+	/** @return the id of the vertex opposite the owner of the outgoing slot */
+	@TimeComplexity("O(1)")
+	public int outTarget(int slot) {
+		return outTargets[slot];
+	}
+
+	/** @return the id of the edge stored in the outgoing slot */
+	@TimeComplexity("O(1)")
+	public int outEdge(int slot) {
+		return outEdges[slot];
+	}
+
+	/** @return the first incoming slot of vertex v */
+	@TimeComplexity("O(1)")
+	public int inStart(int v) {
+		return inOffsets[v];
+	}
+
+	/** @return one past the last incoming slot of vertex v */
+	@TimeComplexity("O(1)")
+	public int inEnd(int v) {
+		return inOffsets[v + 1];
+	}
+
+	/** @return the id of the vertex opposite the owner of the incoming slot */
+	@TimeComplexity("O(1)")
+	public int inSource(int slot) {
+		return inSources[slot];
+	}
+
+	/** @return the id of the edge stored in the incoming slot */
+	@TimeComplexity("O(1)")
+	public int inEdge(int slot) {
+		return inEdges[slot];
+	}
+
+	/**
+	 * Reads the element of an edge from the element column.
+	 * @param e a dense edge id
+	 * @return the element stored in the edge
+	 */
+	@TimeComplexity("O(1)")
+	@SuppressWarnings("unchecked")
+	protected E element(int e) {
+		//the column only holds elements copied from the edges of a Graph<V, E>
+		return (E)elements[e];
+	}
+
+	//the arrays of vertices and edges, whose element type cannot be written with its type parameters
+	@SuppressWarnings("unchecked")
+	private static <T> T[] newArray(Class<?> type, int length) {
+		return (T[])java.lang.reflect.Array.newInstance(type, length);
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#numVertices()
+	 */
+	public int numVertices() {
+		return vertexArray.length;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#numEdges()
+	 */
+	public int numEdges() {
+		return edgeArray.length;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a read-only view over the vertex array
+	 * @see net.datastructures.Graph#vertices()
+	 */
+	public Iterable<Vertex<V>> vertices() {
+		return new ArrayView<Vertex<V>>(vertexArray);
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a read-only view over the edge array
+	 * @see net.datastructures.Graph#edges()
+	 */
+	public Iterable<Edge<E>> edges() {
+		return new ArrayView<Edge<E>>(edgeArray);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outDegree(Vertex<V> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return outOffsets[id + 1] - outOffsets[id];
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inDegree(Vertex<V> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return inOffsets[id + 1] - inOffsets[id];
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterable<Edge<E>> outgoingEdges(Vertex<V> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return new RowView(outEdges, outOffsets[id], outOffsets[id + 1]);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterable<Edge<E>> incomingEdges(Vertex<V> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return new RowView(inEdges, inOffsets[id], inOffsets[id + 1]);
+	}
+
+	@TimeComplexity("O(m)")
+	@Override
+	public Edge<E> getEdge(Vertex<V> u, Vertex<V> v) throws IllegalArgumentException {
+		int from = vertexId(u);
+		int to = vertexId(v);
+		//scans the row of u for the slot pointing at v
+		for(int slot = outOffsets[from]; slot < outOffsets[from + 1]; slot++) {
+			if(outTargets[slot] == to) return edgeArray[outEdges[slot]];
+		}
+		return null;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#endVertices(net.datastructures.Edge)
+	 */
+	public Vertex<V>[] endVertices(Edge<E> e) throws IllegalArgumentException {
+		int id = edgeId(e);
+		Vertex<V>[] ends = newArray(Vertex.class, 2);
+		ends[0] = vertexArray[edgeSources[id]];
+		ends[1] = vertexArray[edgeTargets[id]];
+		return ends;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#opposite(net.datastructures.Vertex, net.datastructures.Edge)
+	 */
+	public Vertex<V> opposite(Vertex<V> v, Edge<E> e) throws IllegalArgumentException {
+		int id = edgeId(e);
+		int vertex = vertexId(v);
+		//check which side of the edge is the vertex and returns the other
+		if(edgeSources[id] == vertex) return vertexArray[edgeTargets[id]];
+		else if(edgeTargets[id] == vertex) return vertexArray[edgeSources[id]];
+		return null;
+	}
+
+	@Override
+	public Vertex<V> insertVertex(V element) {
+		throw new UnsupportedOperationException("Graph snapshot is read-only");
+	}
+
+	@Override
+	public Edge<E> insertEdge(Vertex<V> u, Vertex<V> v, E element) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Graph snapshot is read-only");
+	}
+
+	@Override
+	public void removeVertex(Vertex<V> v) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Graph snapshot is read-only");
+	}
+
+	@Override
+	public void removeEdge(Edge<E> e) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Graph snapshot is read-only");
+	}
+
+	//vertex of the snapshot, only the dense id and the element are stored
+	protected class CSRVertex implements Vertex<V> {
+		final int id;
+		final V element;
+
+		CSRVertex(int id, V element) {
+			this.id = id;
+			this.element = element;
+		}
+
+		CSRGraph<V, E> owner() {
+			return CSRGraph.this;
+		}
+
+		@Override
+		public V getElement() {
+			return element;
+		}
+	}
+
+	//edge of the snapshot, the element is read from the element column
+	protected class CSREdge implements Edge<E> {
+		final int id;
+
+		CSREdge(int id) {
+			this.id = id;
+		}
+
+		CSRGraph<V, E> owner() {
+			return CSRGraph.this;
+		}
+
+		@Override
+		public E getElement() {
+			return element(id);
+		}
+	}
+
+	//read-only iterable over a whole array of vertices or edges
+	private static class ArrayView<T> implements Iterable<T> {
+		private final T[] array;
+
+		ArrayView(T[] array) {
+			this.array = array;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < array.length;
+				}
+
+				@Override
+				public T next() {
+					if(index >= array.length) throw new NoSuchElementException();
+					return array[index++];
+				}
+			};
+		}
+	}
+
+	//read-only iterable over the edges stored in the slots start .. end-1 of a row
+	private class RowView implements Iterable<Edge<E>> {
+		private final int[] slots;
+		private final int start;
+		private final int end;
+
+		RowView(int[] slots, int start, int end) {
+			this.slots = slots;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public Iterator<Edge<E>> iterator() {
+			return new Iterator<Edge<E>>() {
+				private int slot = start;
+
+				@Override
+				public boolean hasNext() {
+					return slot < end;
+				}
+
+				@Override
+				public Edge<E> next() {
+					if(slot >= end) throw new NoSuchElementException();
+					return edgeArray[slots[slot++]];
+				}
+			};
+		}
+	}
+}
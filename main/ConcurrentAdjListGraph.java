@@ -0,0 +1,1001 @@
+package main;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.datastructures.*;
+
+/*
+ * Thread-safe adjacency list graph for workloads that mix many readers with occasional writers.
+ *
+ * Every vertex keeps its incidence lists as copy-on-write arrays published through volatile fields,
+ * so readers never take a lock: outgoingEdges, incomingEdges, getEdge and the degree methods read the
+ * array of the vertex as of the last committed write (see the versioned snapshots below) and iterate that
+ * array even if a writer replaces it in the meantime.
+ *
+ * Writers use striped locking. Every vertex is assigned to one of 64 lock stripes, and a write holds
+ * the stripes of every vertex whose incidence arrays it changes, taken in ascending stripe order:
+ *  - insertEdge, removeEdge and replace(Edge) lock the stripes of both end vertices,
+ *  - removeVertex locks the stripes of the vertex and of all its neighbours,
+ *  - replace(Vertex) locks the stripe of the vertex.
+ * The arrays a write publishes stay invisible to readers until the write commits: each write takes effect
+ * atomically, for every vertex it changes, at the CAS of its commit, and each read of a vertex takes effect
+ * when it reads the last committed version, so these operations are linearizable. vertices() and edges()
+ * are weakly consistent views: they never fail, and every element they return was in the graph at some
+ * point during the iteration.
+ *
+ * In the case of an undirected graph every edge is stored once in the array of each end vertex, and
+ * outgoingEdges and incomingEdges return the same collection. A self loop is stored twice in the array of
+ * its vertex, so it counts twice in the degree, as in AdjListGraph.
+ *
+ * Versioned snapshots (MVCC): instead of overwriting an incidence array or an element, a write pushes a new
+ * revision in front of the old ones, and removed vertices and edges are only stamped with their removal.
+ * The revisions of a write share one stamp, which stays pending until the write commits: the writer then
+ * swings the head of the committed versions to a new version with a CAS, so writers never wait for each
+ * other, and stamps the write with it. snapshot() registers on the head version in O(1), with a counter
+ * kept in the version, and returns a read-only Graph that reads, for every vertex and edge, the newest
+ * revision stamped at or before that version. The live graph is read the same way at the head version
+ * without registering, so readers of the graph and of its snapshots only ever see committed writes,
+ * and a live read whose revision is reclaimed by a writer is done again at the newer head. Snapshot readers
+ * never lock the stripes, so they never block writers. Revisions and removed vertices and edges are
+ * reclaimed once no registered snapshot can still read them, so every snapshot must be closed.
+ */
+public class ConcurrentAdjListGraph<V, E> implements Graph<V, E> {
+
+	//the number of lock stripes, one bit of a long per stripe
+	private static final int STRIPES = 64;
+	//the version at which the live graph is read, the last committed one when an iteration starts
+	private static final long LIVE = Long.MAX_VALUE;
+	//the stamp of a write that has not committed yet, later than every version
+	private static final long PENDING = Long.MAX_VALUE;
+	//the reader count of a version no snapshot can register on any more
+	private static final int SEALED = -1;
+
+	private final boolean directed;
+	private final ReentrantLock[] locks;
+	private final AtomicInteger nextVertexId = new AtomicInteger();
+	//removed vertices and edges stay in the sets until no snapshot can see them
+	private final Set<ConcurrentVertex> vertexSet = ConcurrentHashMap.newKeySet();
+	private final Set<ConcurrentEdge> edgeSet = ConcurrentHashMap.newKeySet();
+	private final Iterable<Vertex<V>> vertexView;
+	private final Iterable<Edge<E>> edgeView;
+	//the incidence array of a vertex without edges
+	private final ConcurrentEdge[] empty = own(new ConcurrentAdjListGraph<?, ?>.ConcurrentEdge[0]);
+
+	//the last committed version, and the oldest version a snapshot may still read, the versions in between
+	//are linked from the oldest to the newest
+	private final AtomicReference<Committed> head;
+	private final AtomicReference<Committed> oldest;
+	//items whose revision chains are longer than one, and removed items waiting to leave the sets
+	private final Set<Versioned> dirty = ConcurrentHashMap.newKeySet();
+	private final ConcurrentLinkedQueue<Versioned> retired = new ConcurrentLinkedQueue<Versioned>();
+
+	/**
+	 * @param directed whether the graph is directed or not
+	 */
+	public ConcurrentAdjListGraph(boolean directed) {
+		this.directed = directed;
+		locks = new ReentrantLock[STRIPES];
+		for(int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		vertexView = new SetView<ConcurrentVertex, Vertex<V>>(vertexSet, LIVE, v -> v);
+		edgeView = new SetView<ConcurrentEdge, Edge<E>>(edgeSet, LIVE, e -> e);
+		Committed initial = new Committed(0, 0, 0, new Write(0));
+		head = new AtomicReference<Committed>(initial);
+		oldest = new AtomicReference<Committed>(initial);
+	}
+
+	public ConcurrentAdjListGraph() {
+		this(false);
+	}
+
+	/**
+	 * @return whether the graph is directed
+	 */
+	@TimeComplexity("O(1)")
+	public boolean isDirected() {
+		return directed;
+	}
+
+	/**
+	 * Returns an immutable view of the graph as of the last committed write. The snapshot keeps the old
+	 * revisions it reads alive, so it must be closed once the reader is done with it.
+	 * @return a read-only graph that later writes do not change
+	 */
+	@TimeComplexity("O(1)")
+	public Snapshot snapshot() {
+		while(true) {
+			Committed current = head.get();
+			//a sealed version is no longer the head, the next try reads the new one
+			int count = current.readers.get();
+			if(count != SEALED && current.readers.compareAndSet(count, count + 1)) {
+				//the writer may not have stamped its write yet
+				current.write.version = current.version;
+				return new Snapshot(current);
+			}
+		}
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int numVertices() {
+		return head.get().vertices;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int numEdges() {
+		return head.get().edges;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a weakly consistent read-only view of the vertex set
+	 * @see net.datastructures.Graph#vertices()
+	 */
+	public Iterable<Vertex<V>> vertices() {
+		return vertexView;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a weakly consistent read-only view of the edge set
+	 * @see net.datastructures.Graph#edges()
+	 */
+	public Iterable<Edge<E>> edges() {
+		return edgeView;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outDegree(Vertex<V> v) throws IllegalArgumentException {
+		return live(validate(v), vertex -> vertex.outgoing).length;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inDegree(Vertex<V> v) throws IllegalArgumentException {
+		return liveIncoming(validate(v)).length;
+	}
+
+	@TimeComplexity("O(1)")
+	/*
+	 * returns a view of the incidence array the vertex has right now, later writes are not visible through it
+	 */
+	@Override
+	public Iterable<Edge<E>> outgoingEdges(Vertex<V> v) throws IllegalArgumentException {
+		return new ArrayView(live(validate(v), vertex -> vertex.outgoing), null);
+	}
+
+	@TimeComplexity("O(1)")
+	/*
+	 * returns a view of the incidence array the vertex has right now, later writes are not visible through it
+	 */
+	@Override
+	public Iterable<Edge<E>> incomingEdges(Vertex<V> v) throws IllegalArgumentException {
+		return new ArrayView(liveIncoming(validate(v)), null);
+	}
+
+	@TimeComplexity("O(m)")
+	@Override
+	public Edge<E> getEdge(Vertex<V> u, Vertex<V> v) throws IllegalArgumentException {
+		return find(live(validate(u), vertex -> vertex.outgoing), validate(v));
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#endVertices(net.datastructures.Edge)
+	 */
+	public Vertex<V>[] endVertices(Edge<E> e) throws IllegalArgumentException {
+		ConcurrentEdge edge = validate(e);
+		return ends(edge.origin, edge.destination);
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#opposite(net.datastructures.Vertex, net.datastructures.Edge)
+	 */
+	public Vertex<V> opposite(Vertex<V> v, Edge<E> e) throws IllegalArgumentException {
+		ConcurrentEdge edge = validate(e);
+		//check which side of the edge is the vertex and returns the other
+		if(edge.origin == v) return edge.destination;
+		else if(edge.destination == v) return edge.origin;
+		return null;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#insertVertex(java.lang.Object)
+	 */
+	public Vertex<V> insertVertex(V element) {
+		Write write = new Write();
+		ConcurrentVertex vertex = new ConcurrentVertex(element, write);
+		vertexSet.add(vertex);
+		commit(write, 1, 0);
+		return vertex;
+	}
+
+	@TimeComplexity("O(m)")
+	/* (non-Javadoc)
+	 * O(deg) to copy the incidence arrays of both end vertices
+	 * @see net.datastructures.Graph#insertEdge(net.datastructures.Vertex, net.datastructures.Vertex, java.lang.Object)
+	 */
+	public Edge<E> insertEdge(Vertex<V> u, Vertex<V> v, E element) throws IllegalArgumentException {
+		ConcurrentVertex from = validate(u);
+		ConcurrentVertex to = validate(v);
+		long mask = stripe(from) | stripe(to);
+		lockAll(mask);
+		try {
+			if(from.died != null || to.died != null) throw new IllegalArgumentException("Vertex not in graph");
+			Write write = new Write();
+			ConcurrentEdge edge = new ConcurrentEdge(from, to, element, write);
+			from.outgoing = new Revision<ConcurrentEdge[]>(write, with(from.outgoing.value, edge), from.outgoing);
+			if(directed) to.incoming = new Revision<ConcurrentEdge[]>(write, with(to.incoming.value, edge), to.incoming);
+			//a self loop is added to the array of its vertex a second time, like the two halves of AdjListGraph
+			else to.outgoing = new Revision<ConcurrentEdge[]>(write, with(to.outgoing.value, edge), to.outgoing);
+			edgeSet.add(edge);
+			commit(write, 0, 1, from, to);
+			return edge;
+		}
+		finally {
+			unlockAll(mask);
+		}
+	}
+
+	@TimeComplexity("O(m)")
+	/* (non-Javadoc)
+	 * O(deg) to copy the incidence arrays of both end vertices
+	 * @see net.datastructures.Graph#removeEdge(net.datastructures.Edge)
+	 */
+	public void removeEdge(Edge<E> e) throws IllegalArgumentException {
+		ConcurrentEdge edge = validate(e);
+		long mask = stripe(edge.origin) | stripe(edge.destination);
+		lockAll(mask);
+		try {
+			if(edge.died != null) throw new IllegalArgumentException("Edge not in graph");
+			Write write = new Write();
+			unlink(edge, write);
+			commit(write, 0, -1, edge.origin, edge.destination);
+		}
+		finally {
+			unlockAll(mask);
+		}
+	}
+
+	@TimeComplexity("O(m)")
+	/* (non-Javadoc)
+	 * locks the vertex and all its neighbours, retrying if a new neighbour appears before the locks are held
+	 * @see net.datastructures.Graph#removeVertex(net.datastructures.Vertex)
+	 */
+	public void removeVertex(Vertex<V> v) throws IllegalArgumentException {
+		ConcurrentVertex vertex = validate(v);
+		while(true) {
+			long mask = neighbourStripes(vertex);
+			lockAll(mask);
+			try {
+				if(vertex.died != null) throw new IllegalArgumentException("Vertex not in graph");
+				//an edge to a vertex in a stripe that is not held may have been inserted before the locks were taken
+				if((neighbourStripes(vertex) & ~mask) != 0) continue;
+				Write write = new Write();
+				ConcurrentEdge[] outgoing = vertex.outgoing.value;
+				ConcurrentEdge[] incoming = directed ? vertex.incoming.value : empty;
+				//the vertex and every neighbour get a new revision
+				Versioned[] touched = new Versioned[1 + outgoing.length + incoming.length];
+				touched[0] = vertex;
+				int removed = 0;
+				for(int i = 0; i < outgoing.length; i++) {
+					ConcurrentEdge edge = outgoing[i];
+					touched[1 + i] = edge.origin == vertex ? edge.destination : edge.origin;
+					if(unlink(edge, write)) removed++;
+				}
+				for(int i = 0; i < incoming.length; i++) {
+					ConcurrentEdge edge = incoming[i];
+					touched[1 + outgoing.length + i] = edge.origin;
+					if(unlink(edge, write)) removed++;
+				}
+				vertex.died = write;
+				retired.add(vertex);
+				commit(write, -1, -removed, touched);
+				return;
+			}
+			finally {
+				unlockAll(mask);
+			}
+		}
+	}
+
+	@TimeComplexity("O(1)")
+	/*
+	 * replace the element in edge object, return the old element
+	 */
+	public E replace(Edge<E> e, E o) throws IllegalArgumentException {
+		ConcurrentEdge edge = validate(e);
+		long mask = stripe(edge.origin) | stripe(edge.destination);
+		lockAll(mask);
+		try {
+			if(edge.died != null) throw new IllegalArgumentException("Edge not in graph");
+			Write write = new Write();
+			E old = edge.element.value;
+			edge.element = new Revision<E>(write, o, edge.element);
+			commit(write, 0, 0, edge);
+			return old;
+		}
+		finally {
+			unlockAll(mask);
+		}
+	}
+
+	@TimeComplexity("O(1)")
+	/*
+	 * replace the element in vertex object, return the old element
+	 */
+	public V replace(Vertex<V> v, V o) throws IllegalArgumentException {
+		ConcurrentVertex vertex = validate(v);
+		long mask = stripe(vertex);
+		lockAll(mask);
+		try {
+			if(vertex.died != null) throw new IllegalArgumentException("Vertex not in graph");
+			Write write = new Write();
+			V old = vertex.element.value;
+			vertex.element = new Revision<V>(write, o, vertex.element);
+			commit(write, 0, 0, vertex);
+			return old;
+		}
+		finally {
+			unlockAll(mask);
+		}
+	}
+
+	//removes an edge from the incidence arrays of its end vertices, the caller holds both stripes
+	private boolean unlink(ConcurrentEdge edge, Write write) {
+		if(edge.died != null) return false;
+		edge.died = write;
+		ConcurrentVertex origin = edge.origin;
+		ConcurrentVertex destination = edge.destination;
+		origin.outgoing = new Revision<ConcurrentEdge[]>(write, without(origin.outgoing.value, edge), origin.outgoing);
+		if(directed) destination.incoming = new Revision<ConcurrentEdge[]>(write, without(destination.incoming.value, edge), destination.incoming);
+		//both entries of a self loop went with the first copy
+		else if(destination != origin) destination.outgoing = new Revision<ConcurrentEdge[]>(write, without(destination.outgoing.value, edge), destination.outgoing);
+		retired.add(edge);
+		return true;
+	}
+
+	/*
+	 * Commits a write: the head of the committed versions is swung to the next version with a CAS, retried
+	 * only if another writer committed in the meantime, so no writer waits for another and nothing can fail
+	 * once the revisions are pushed. The write is stamped with its version after the CAS, and whoever finds a
+	 * version at the head stamps its write first, the next writer before moving the head on and a snapshot
+	 * before reading, so a snapshot at version t sees exactly the writes up to t. Then reclaims what the
+	 * snapshots no longer need.
+	 */
+	private void commit(Write write, int vertices, int edges, Versioned... touched) {
+		Committed next;
+		while(true) {
+			Committed previous = head.get();
+			previous.write.version = previous.version;
+			next = new Committed(previous.version + 1, previous.vertices + vertices, previous.edges + edges, write);
+			if(head.compareAndSet(previous, next)) {
+				previous.newer = next;
+				break;
+			}
+		}
+		write.version = next.version;
+		long boundary = boundary();
+		for(Versioned item : touched) {
+			if(item.prune(boundary)) dirty.add(item);
+		}
+		drainRetired(boundary);
+	}
+
+	/*
+	 * The oldest version a current or future snapshot can read. Versions without readers are sealed, so no
+	 * snapshot can register on them any more, and passed, each version once, so the cost is O(1) amortized.
+	 */
+	private long boundary() {
+		while(true) {
+			Committed node = oldest.get();
+			Committed newer = node.newer;
+			//the head, or a version whose successor is not linked yet
+			if(newer == null) return node.version;
+			if(node.readers.get() != SEALED && !node.readers.compareAndSet(0, SEALED)) return node.version;
+			oldest.compareAndSet(node, newer);
+		}
+	}
+
+	//called when a snapshot is closed: drops every revision and removed item no remaining snapshot can read
+	private void release(Committed version) {
+		version.readers.decrementAndGet();
+		long boundary = boundary();
+		drainRetired(boundary);
+		ArrayDeque<Versioned> pending = new ArrayDeque<Versioned>(dirty);
+		for(Versioned item : pending) {
+			//removed before pruning so that a writer adding the item again in the meantime is not lost
+			dirty.remove(item);
+			if(item.prune(boundary)) dirty.add(item);
+		}
+	}
+
+	private void drainRetired(long boundary) {
+		Versioned item;
+		while((item = retired.peek()) != null && item.died.version <= boundary) {
+			if(retired.remove(item)) item.retire();
+		}
+	}
+
+	private Revision<ConcurrentEdge[]> incoming(ConcurrentVertex vertex) {
+		return directed ? vertex.incoming : vertex.outgoing;
+	}
+
+	private ConcurrentEdge[] liveIncoming(ConcurrentVertex vertex) {
+		return directed ? live(vertex, v -> v.incoming) : live(vertex, v -> v.outgoing);
+	}
+
+	//the last committed version, stamped for the readers that read at it
+	private long committed() {
+		Committed current = head.get();
+		//the writer may not have stamped its write yet
+		current.write.version = current.version;
+		return current.version;
+	}
+
+	/*
+	 * The value of a revision chain as of the last committed version, read without registering like a
+	 * snapshot. Once the head has moved on, a writer may reclaim the revision of the version read, the read is
+	 * then done again at the new head. While the head has not moved no revision at or before it is reclaimed,
+	 * so a chain without one belongs to an item inserted by a write still pending, read at its first revision.
+	 */
+	private <I, T> T live(I item, java.util.function.Function<I, Revision<T>> field) {
+		while(true) {
+			long version = committed();
+			for(Revision<T> r = field.apply(item); r != null; ) {
+				if(r.write.version <= version) return r.value;
+				Revision<T> older = r.older;
+				if(older == null && head.get().version == version) return r.value;
+				r = older;
+			}
+		}
+	}
+
+	//the edge of the incidence array that leads to the given vertex, or null
+	private ConcurrentEdge find(ConcurrentEdge[] incidence, ConcurrentVertex to) {
+		for(ConcurrentEdge e : incidence) {
+			if(e.destination == to || (!directed && e.origin == to)) return e;
+		}
+		return null;
+	}
+
+	private long stripe(ConcurrentVertex vertex) {
+		return 1L << vertex.stripe;
+	}
+
+	//the stripes of the vertex and of every vertex it currently shares an edge with
+	private long neighbourStripes(ConcurrentVertex vertex) {
+		long mask = stripe(vertex);
+		for(ConcurrentEdge e : vertex.outgoing.value) {
+			mask |= stripe(e.origin) | stripe(e.destination);
+		}
+		for(ConcurrentEdge e : incoming(vertex).value) {
+			mask |= stripe(e.origin) | stripe(e.destination);
+		}
+		return mask;
+	}
+
+	//locks are always taken in ascending stripe order, so two writers can never deadlock
+	private void lockAll(long mask) {
+		for(int i = 0; i < STRIPES; i++) {
+			if((mask & (1L << i)) != 0) locks[i].lock();
+		}
+	}
+
+	private void unlockAll(long mask) {
+		for(int i = STRIPES - 1; i >= 0; i--) {
+			if((mask & (1L << i)) != 0) locks[i].unlock();
+		}
+	}
+
+	private static <T> T[] with(T[] array, T o) {
+		T[] output = java.util.Arrays.copyOf(array, array.length + 1);
+		output[array.length] = o;
+		return output;
+	}
+
+	//the array without any copy of o, a self loop is stored twice
+	private static <T> T[] without(T[] array, T o) {
+		int count = 0;
+		for(T item : array) {
+			if(item == o) count++;
+		}
+		if(count == 0) return array;
+		T[] output = java.util.Arrays.copyOf(array, array.length - count);
+		int size = 0;
+		for(T item : array) {
+			if(item != o) output[size++] = item;
+		}
+		return output;
+	}
+
+	//the end vertices of an edge, an array of Vertex<V> can only be created without its type parameter
+	private static <V> Vertex<V>[] ends(Vertex<V> origin, Vertex<V> destination) {
+		return own(new Vertex<?>[] {origin, destination});
+	}
+
+	private ConcurrentVertex validate(Vertex<V> v) throws IllegalArgumentException {
+		if(!(v instanceof ConcurrentAdjListGraph<?, ?>.ConcurrentVertex)) throw new IllegalArgumentException("Invalid Vertex");
+		ConcurrentAdjListGraph<?, ?>.ConcurrentVertex vertex = (ConcurrentAdjListGraph<?, ?>.ConcurrentVertex)v;
+		if(vertex.owner() != this) throw new IllegalArgumentException("Vertex not in graph");
+		return own(vertex);
+	}
+
+	private ConcurrentEdge validate(Edge<E> e) throws IllegalArgumentException {
+		if(!(e instanceof ConcurrentAdjListGraph<?, ?>.ConcurrentEdge)) throw new IllegalArgumentException("Invalid Edge");
+		ConcurrentAdjListGraph<?, ?>.ConcurrentEdge edge = (ConcurrentAdjListGraph<?, ?>.ConcurrentEdge)e;
+		if(edge.owner() != this) throw new IllegalArgumentException("Edge not in graph");
+		return own(edge);
+	}
+
+	/*
+	 * The one cast the compiler cannot check. It is only applied to vertices and edges whose owner was
+	 * checked to be this graph or snapshot, and to arrays created with the wildcard form of the element type
+	 * of the variable they are assigned to, so they have the type parameters of the graph.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T own(Object item) {
+		return (T)item;
+	}
+
+	//the stamp shared by the revisions of one write, PENDING until the write is committed
+	private static class Write {
+		volatile long version;
+
+		Write() {
+			this(PENDING);
+		}
+
+		Write(long version) {
+			this.version = version;
+		}
+	}
+
+	//a committed version, the write that made it and the sizes of the graph at that version
+	private static class Committed {
+		final long version;
+		final int vertices;
+		final int edges;
+		final Write write;
+		//the open snapshots of this version, SEALED once the version is passed by the boundary
+		final AtomicInteger readers = new AtomicInteger();
+		volatile Committed newer;
+
+		Committed(long version, int vertices, int edges, Write write) {
+			this.version = version;
+			this.vertices = vertices;
+			this.edges = edges;
+			this.write = write;
+		}
+	}
+
+	//one version of a value, linked to the older versions snapshots may still read
+	private static class Revision<T> {
+		final Write write;
+		final T value;
+		volatile Revision<T> older;
+
+		Revision(Write write, T value, Revision<T> older) {
+			this.write = write;
+			this.value = value;
+			this.older = older;
+		}
+
+		//the value of the newest revision written at or before the given version
+		static <T> T at(Revision<T> head, long version) {
+			for(Revision<T> r = head; r != null; r = r.older) {
+				if(r.write.version <= version) return r.value;
+			}
+			throw new IllegalStateException("Version reclaimed");
+		}
+
+		//drops the revisions older than the one a snapshot at the boundary reads, returns whether any older revision is left
+		static boolean prune(Revision<?> head, long boundary) {
+			for(Revision<?> r = head; r != null; r = r.older) {
+				if(r.write.version <= boundary) {
+					r.older = null;
+					break;
+				}
+			}
+			return head.older != null;
+		}
+	}
+
+	//a vertex or edge stamped with the writes of its insertion and removal, died is null while it is in the graph
+	private static abstract class Versioned {
+		final Write born;
+		volatile Write died;
+
+		Versioned(Write born) {
+			this.born = born;
+		}
+
+		boolean visibleAt(long version) {
+			Write removal = died;
+			return born.version <= version && (removal == null || version < removal.version);
+		}
+
+		//prunes the revision chains, returns whether older revisions are still needed
+		abstract boolean prune(long boundary);
+
+		//removes the item from its set once no snapshot can see it
+		abstract void retire();
+	}
+
+	private class ConcurrentVertex extends Versioned implements Vertex<V> {
+		final int stripe;
+		volatile Revision<V> element;
+		//copy-on-write incidence arrays, a new revision is pushed while the stripe of the vertex is held
+		volatile Revision<ConcurrentEdge[]> outgoing;
+		volatile Revision<ConcurrentEdge[]> incoming;
+
+		ConcurrentVertex(V element, Write write) {
+			super(write);
+			this.element = new Revision<V>(write, element, null);
+			this.outgoing = new Revision<ConcurrentEdge[]>(write, empty, null);
+			this.incoming = new Revision<ConcurrentEdge[]>(write, empty, null);
+			//consecutive vertices go to different stripes
+			this.stripe = nextVertexId.getAndIncrement() & (STRIPES - 1);
+		}
+
+		ConcurrentAdjListGraph<V, E> owner() {
+			return ConcurrentAdjListGraph.this;
+		}
+
+		@Override
+		boolean prune(long boundary) {
+			boolean older = Revision.prune(element, boundary);
+			older |= Revision.prune(outgoing, boundary);
+			older |= Revision.prune(incoming, boundary);
+			return older;
+		}
+
+		@Override
+		void retire() {
+			vertexSet.remove(this);
+		}
+
+		@Override
+		public V getElement() {
+			return live(this, vertex -> vertex.element);
+		}
+	}
+
+	private class ConcurrentEdge extends Versioned implements Edge<E> {
+		final ConcurrentVertex origin;
+		final ConcurrentVertex destination;
+		volatile Revision<E> element;
+
+		ConcurrentEdge(ConcurrentVertex origin, ConcurrentVertex destination, E element, Write write) {
+			super(write);
+			this.origin = origin;
+			this.destination = destination;
+			this.element = new Revision<E>(write, element, null);
+		}
+
+		ConcurrentAdjListGraph<V, E> owner() {
+			return ConcurrentAdjListGraph.this;
+		}
+
+		@Override
+		boolean prune(long boundary) {
+			return Revision.prune(element, boundary);
+		}
+
+		@Override
+		void retire() {
+			edgeSet.remove(this);
+		}
+
+		@Override
+		public E getElement() {
+			return live(this, edge -> edge.element);
+		}
+	}
+
+	/**
+	 * Immutable view of the graph at one committed version. All the read methods of Graph answer for that
+	 * version, whatever writes happen afterwards; the mutating methods throw UnsupportedOperationException.
+	 * The vertices and edges it returns belong to the snapshot, their elements are the ones they had at
+	 * that version.
+	 */
+	public class Snapshot implements Graph<V, E>, AutoCloseable {
+
+		private final Committed committed;
+		private final long version;
+		private final int numVertices;
+		private final int numEdges;
+		private volatile boolean closed;
+
+		Snapshot(Committed committed) {
+			this.committed = committed;
+			this.version = committed.version;
+			this.numVertices = committed.vertices;
+			this.numEdges = committed.edges;
+		}
+
+		/**
+		 * @return the version of the graph this snapshot reads
+		 */
+		@TimeComplexity("O(1)")
+		public long version() {
+			return version;
+		}
+
+		/**
+		 * Releases the snapshot so the revisions only it reads can be reclaimed, further reads throw IllegalStateException
+		 */
+		@TimeComplexity("O(n)")
+		@Override
+		public void close() {
+			if(closed) return;
+			closed = true;
+			release(committed);
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public int numVertices() {
+			check();
+			return numVertices;
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public int numEdges() {
+			check();
+			return numEdges;
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Iterable<Vertex<V>> vertices() {
+			check();
+			return new SetView<ConcurrentVertex, Vertex<V>>(vertexSet, version, v -> new SnapshotVertex(v));
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Iterable<Edge<E>> edges() {
+			check();
+			return new SetView<ConcurrentEdge, Edge<E>>(edgeSet, version, e -> new SnapshotEdge(e));
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public int outDegree(Vertex<V> v) throws IllegalArgumentException {
+			return Revision.at(unwrap(v).outgoing, version).length;
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public int inDegree(Vertex<V> v) throws IllegalArgumentException {
+			return Revision.at(incoming(unwrap(v)), version).length;
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Iterable<Edge<E>> outgoingEdges(Vertex<V> v) throws IllegalArgumentException {
+			return new ArrayView(Revision.at(unwrap(v).outgoing, version), this);
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Iterable<Edge<E>> incomingEdges(Vertex<V> v) throws IllegalArgumentException {
+			return new ArrayView(Revision.at(incoming(unwrap(v)), version), this);
+		}
+
+		@TimeComplexity("O(m)")
+		@Override
+		public Edge<E> getEdge(Vertex<V> u, Vertex<V> v) throws IllegalArgumentException {
+			ConcurrentEdge edge = find(Revision.at(unwrap(u).outgoing, version), unwrap(v));
+			return edge == null ? null : new SnapshotEdge(edge);
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Vertex<V>[] endVertices(Edge<E> e) throws IllegalArgumentException {
+			ConcurrentEdge edge = unwrap(e);
+			return ends(new SnapshotVertex(edge.origin), new SnapshotVertex(edge.destination));
+		}
+
+		@TimeComplexity("O(1)")
+		@Override
+		public Vertex<V> opposite(Vertex<V> v, Edge<E> e) throws IllegalArgumentException {
+			ConcurrentEdge edge = unwrap(e);
+			ConcurrentVertex vertex = unwrap(v);
+			//check which side of the edge is the vertex and returns the other
+			if(edge.origin == vertex) return new SnapshotVertex(edge.destination);
+			else if(edge.destination == vertex) return new SnapshotVertex(edge.origin);
+			return null;
+		}
+
+		@Override
+		public Vertex<V> insertVertex(V element) {
+			throw new UnsupportedOperationException("Graph snapshot is read-only");
+		}
+
+		@Override
+		public Edge<E> insertEdge(Vertex<V> u, Vertex<V> v, E element) throws IllegalArgumentException {
+			throw new UnsupportedOperationException("Graph snapshot is read-only");
+		}
+
+		@Override
+		public void removeVertex(Vertex<V> v) throws IllegalArgumentException {
+			throw new UnsupportedOperationException("Graph snapshot is read-only");
+		}
+
+		@Override
+		public void removeEdge(Edge<E> e) throws IllegalArgumentException {
+			throw new UnsupportedOperationException("Graph snapshot is read-only");
+		}
+
+		private void check() {
+			if(closed) throw new IllegalStateException("Snapshot closed");
+		}
+
+		private ConcurrentVertex unwrap(Vertex<V> v) throws IllegalArgumentException {
+			check();
+			if(!(v instanceof ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex)) throw new IllegalArgumentException("Invalid Vertex");
+			ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex vertex = (ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex)v;
+			if(vertex.owner() != this) throw new IllegalArgumentException("Vertex not in snapshot");
+			return own(vertex.vertex);
+		}
+
+		private ConcurrentEdge unwrap(Edge<E> e) throws IllegalArgumentException {
+			check();
+			if(!(e instanceof ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge)) throw new IllegalArgumentException("Invalid Edge");
+			ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge edge = (ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge)e;
+			if(edge.owner() != this) throw new IllegalArgumentException("Edge not in snapshot");
+			return own(edge.edge);
+		}
+
+		//a vertex as seen by the snapshot, equal to every other wrapper of the same vertex in the same snapshot
+		private class SnapshotVertex implements Vertex<V> {
+			final ConcurrentVertex vertex;
+
+			SnapshotVertex(ConcurrentVertex vertex) {
+				this.vertex = vertex;
+			}
+
+			Snapshot owner() {
+				return Snapshot.this;
+			}
+
+			@Override
+			public V getElement() {
+				return Revision.at(vertex.element, version);
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if(!(o instanceof ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex)) return false;
+				ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex other = (ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotVertex)o;
+				return other.vertex == vertex && other.owner() == Snapshot.this;
+			}
+
+			@Override
+			public int hashCode() {
+				return vertex.hashCode();
+			}
+		}
+
+		//an edge as seen by the snapshot, equal to every other wrapper of the same edge in the same snapshot
+		private class SnapshotEdge implements Edge<E> {
+			final ConcurrentEdge edge;
+
+			SnapshotEdge(ConcurrentEdge edge) {
+				this.edge = edge;
+			}
+
+			Snapshot owner() {
+				return Snapshot.this;
+			}
+
+			@Override
+			public E getElement() {
+				return Revision.at(edge.element, version);
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if(!(o instanceof ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge)) return false;
+				ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge other = (ConcurrentAdjListGraph<?, ?>.Snapshot.SnapshotEdge)o;
+				return other.edge == edge && other.owner() == Snapshot.this;
+			}
+
+			@Override
+			public int hashCode() {
+				return edge.hashCode();
+			}
+		}
+	}
+
+	//read-only iterable over one incidence array, wrapping the edges for a snapshot if one is given
+	private class ArrayView implements Iterable<Edge<E>> {
+		private final ConcurrentEdge[] array;
+		private final Snapshot snapshot;
+
+		ArrayView(ConcurrentEdge[] array, Snapshot snapshot) {
+			this.array = array;
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public Iterator<Edge<E>> iterator() {
+			return new Iterator<Edge<E>>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < array.length;
+				}
+
+				@Override
+				public Edge<E> next() {
+					if(index >= array.length) throw new NoSuchElementException();
+					ConcurrentEdge edge = array[index++];
+					return snapshot == null ? edge : snapshot.new SnapshotEdge(edge);
+				}
+			};
+		}
+	}
+
+	//read-only iterable over the vertices or edges of a set that are visible at a version
+	private class SetView<I extends Versioned, T> implements Iterable<T> {
+		private final Set<I> set;
+		private final long version;
+		//the item as it is returned, wrapped for a snapshot
+		private final java.util.function.Function<I, T> wrap;
+
+		SetView(Set<I> set, long version, java.util.function.Function<I, T> wrap) {
+			this.set = set;
+			this.version = version;
+			this.wrap = wrap;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				private final long at = version == LIVE ? committed() : version;
+				private final Iterator<I> items = set.iterator();
+				private I next = advance();
+
+				//finds the next visible item
+				private I advance() {
+					while(items.hasNext()) {
+						I item = items.next();
+						if(item.visibleAt(at)) return item;
+					}
+					return null;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next != null;
+				}
+
+				@Override
+				public T next() {
+					if(next == null) throw new NoSuchElementException();
+					I output = next;
+					next = advance();
+					return wrap.apply(output);
+				}
+			};
+		}
+	}
+}
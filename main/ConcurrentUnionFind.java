@@ -0,0 +1,74 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Disjoint sets over the dense ids 0 .. n-1 that many threads can find and merge at the same time, as a
+ * forest in an atomic parent array (Anderson and Woll). find halves the path it walks with a
+ * compare-and-set, which only ever points a vertex to an ancestor, so a failed or stale update is harmless.
+ * union links the root with the smaller id below the other root with a compare-and-set that fails if the
+ * root has been linked meanwhile, and then retries from the new roots. Linking by id keeps every path
+ * increasing, so no cycle can form, at the cost of the balance union by size gives UnionFind.
+ */
+public class ConcurrentUnionFind {
+
+	private final AtomicIntegerArray parents;
+
+	/**
+	 * Puts every id 0 .. n-1 in a set of its own.
+	 * @param n the number of ids
+	 */
+	@TimeComplexity("O(n)")
+	public ConcurrentUnionFind(int n) {
+		parents = new AtomicIntegerArray(n);
+		for(int i = 0; i < n; i++) parents.set(i, i);
+	}
+
+	/**
+	 * @return the root of the set holding id, which may change as soon as another thread merges it
+	 */
+	@TimeComplexityExpected("O(lg n)")
+	public int find(int id) {
+		while(true) {
+			int parent = parents.get(id);
+			if(parent == id) return id;
+			int grandparent = parents.get(parent);
+			if(grandparent != parent) parents.compareAndSet(id, parent, grandparent);
+			id = grandparent;
+		}
+	}
+
+	/**
+	 * Merges the sets holding a and b.
+	 * @return false if they were already the same set, exactly one of several threads merging the same two
+	 *         sets gets true
+	 */
+	@TimeComplexityExpected("O(lg n)")
+	public boolean union(int a, int b) {
+		while(true) {
+			a = find(a);
+			b = find(b);
+			if(a == b) return false;
+			if(a > b) {
+				int swap = a;
+				a = b;
+				b = swap;
+			}
+			if(parents.compareAndSet(a, a, b)) return true;
+		}
+	}
+
+	/**
+	 * @return whether a and b are in the same set, exact only when no thread is merging them
+	 */
+	@TimeComplexityExpected("O(lg n)")
+	public boolean connected(int a, int b) {
+		while(true) {
+			a = find(a);
+			b = find(b);
+			if(a == b) return true;
+			//a root that is still a root after b was found was not merged meanwhile
+			if(parents.get(a) == a) return false;
+		}
+	}
+}
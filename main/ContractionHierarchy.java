@@ -0,0 +1,499 @@
+package main;
+
+import java.util.stream.IntStream;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Contraction hierarchy over the int ids of an IntWeightedGraph with non-negative weights.
+ *
+ * Preprocessing contracts the vertices one by one in order of importance. Contracting v removes it from the
+ * remaining graph and, for every pair of arcs u->v->w whose length is not matched by a witness path from u
+ * to w that avoids v, inserts a shortcut arc u->w remembering the two arcs it replaces. The importance of a
+ * vertex is its edge difference (shortcuts it would add minus arcs it would remove) plus the number of its
+ * neighbours already contracted, which spreads the contraction evenly over the graph. Witness searches are
+ * local Dijkstra searches limited in the number of settled vertices; when a search gives up the shortcut is
+ * inserted, which is always correct.
+ *
+ * The contraction runs in rounds: every round contracts an independent set of vertices, the ones more
+ * important than none of their remaining neighbours. The shortcuts of the set are found in parallel, the
+ * witness searches of a round avoiding every vertex of the set, then they are inserted and the importance
+ * of the neighbours is updated, again in parallel.
+ *
+ * A query is a bidirectional Dijkstra search that only follows arcs towards more important vertices,
+ * forward from the source and backward from the target. The two searches meet at the most important
+ * vertex of a shortest path, and the shortcuts of the path are unpacked back into original edges.
+ */
+public class ContractionHierarchy {
+
+	//the number of vertices a witness search may settle before it gives up, while contracting and while
+	//estimating the importance of a vertex
+	private static final int WITNESS_LIMIT = 500;
+	private static final int ESTIMATE_LIMIT = 50;
+
+	final IntWeightedGraph<?> graph;
+	private final int n;
+
+	//every arc of the hierarchy, the original ones first, then the shortcuts
+	private int[] arcFrom;
+	private int[] arcTo;
+	private long[] arcWeight;
+	private int[] arcEdge;   //the original edge, -1 for a shortcut
+	private int[] arcFirst;  //the arcs a shortcut replaces, -1 for an original arc
+	private int[] arcSecond;
+	private int numArcs;
+	private final int originalArcs;
+	private final int[] rank;
+
+	//arcs leaving every vertex to more important ones, and arcs entering every vertex from more important ones
+	private final int[] upOffsets;
+	private final int[] upArcs;
+	private final int[] downOffsets;
+	private final int[] downArcs;
+
+	//state of the remaining graph while preprocessing
+	private int[][] outList;
+	private int[] outCount;
+	private int[][] inList;
+	private int[] inCount;
+	private boolean[] contracted;
+	private boolean[] inRound;
+	private int[] priority;
+	private int[] deletedNeighbours;
+	private ThreadLocal<Witness> witnesses;
+
+	/**
+	 * Preprocesses a graph. For an undirected graph every edge gives one arc in each direction.
+	 * @param graph a graph with non-negative weights
+	 * @param parallel whether the witness searches of a round run on the common ForkJoinPool
+	 */
+	@TimeComplexity("O(n (n+m) lg n)")
+	public ContractionHierarchy(IntWeightedGraph<?> graph, boolean parallel) {
+		this.graph = graph;
+		this.n = graph.numVertices();
+		int slots = n == 0 ? 0 : graph.outEnd(n - 1);
+		arcFrom = new int[Math.max(16, 2 * slots)];
+		arcTo = new int[arcFrom.length];
+		arcWeight = new long[arcFrom.length];
+		arcEdge = new int[arcFrom.length];
+		arcFirst = new int[arcFrom.length];
+		arcSecond = new int[arcFrom.length];
+		outList = new int[n][];
+		outCount = new int[n];
+		inList = new int[n][];
+		inCount = new int[n];
+		for(int v = 0; v < n; v++) {
+			outList[v] = new int[4];
+			inList[v] = new int[4];
+		}
+		//the outgoing slots of every vertex give its arcs, self loops are never part of a shortest path
+		for(int v = 0; v < n; v++) {
+			for(int slot = graph.outStart(v); slot < graph.outEnd(v); slot++) {
+				int w = graph.outTarget(slot);
+				if(w != v) addArc(v, w, graph.weight(graph.outEdge(slot)), graph.outEdge(slot), -1, -1);
+			}
+		}
+
+		originalArcs = numArcs;
+		rank = new int[n];
+		contract(parallel);
+
+		//splits the arcs into the upward and downward search graphs
+		upOffsets = new int[n + 1];
+		downOffsets = new int[n + 1];
+		for(int a = 0; a < numArcs; a++) {
+			if(rank[arcFrom[a]] < rank[arcTo[a]]) upOffsets[arcFrom[a] + 1]++;
+			else downOffsets[arcTo[a] + 1]++;
+		}
+		for(int v = 0; v < n; v++) {
+			upOffsets[v + 1] += upOffsets[v];
+			downOffsets[v + 1] += downOffsets[v];
+		}
+		upArcs = new int[upOffsets[n]];
+		downArcs = new int[downOffsets[n]];
+		int[] upFill = java.util.Arrays.copyOf(upOffsets, n);
+		int[] downFill = java.util.Arrays.copyOf(downOffsets, n);
+		for(int a = 0; a < numArcs; a++) {
+			if(rank[arcFrom[a]] < rank[arcTo[a]]) upArcs[upFill[arcFrom[a]]++] = a;
+			else downArcs[downFill[arcTo[a]]++] = a;
+		}
+		outList = null;
+		inList = null;
+		outCount = null;
+		inCount = null;
+		contracted = null;
+		inRound = null;
+		priority = null;
+		deletedNeighbours = null;
+		witnesses = null;
+	}
+
+	/**
+	 * @return the number of shortcut arcs inserted by the preprocessing
+	 */
+	@TimeComplexity("O(1)")
+	public int numShortcuts() {
+		return numArcs - originalArcs;
+	}
+
+	/**
+	 * @return the position of a vertex in the contraction order, 0 for the first contracted
+	 */
+	@TimeComplexity("O(1)")
+	public int rank(int v) {
+		return rank[v];
+	}
+
+	/**
+	 * @return a new query, a query can be reused for many searches but not by two threads at the same time
+	 */
+	@TimeComplexity("O(1)")
+	public Query query() {
+		return new Query();
+	}
+
+	//contracts every vertex in rounds of independent sets
+	private void contract(boolean parallel) {
+		contracted = new boolean[n];
+		inRound = new boolean[n];
+		priority = new int[n];
+		deletedNeighbours = new int[n];
+		witnesses = ThreadLocal.withInitial(() -> new Witness(n));
+		IntStream all = IntStream.range(0, n);
+		(parallel ? all.parallel() : all).forEach(v -> priority[v] = priority(v));
+		int nextRank = 0;
+		int remaining = n;
+		boolean[] touched = new boolean[n];
+		int[] seen = new int[n];
+		while(remaining > 0) {
+			IntStream candidates = IntStream.range(0, n);
+			int[] round = (parallel ? candidates.parallel() : candidates).filter(this::independent).toArray();
+			for(int v : round) inRound[v] = true;
+			IntStream rounds = IntStream.range(0, round.length);
+			ShortcutList[] shortcuts = new ShortcutList[round.length];
+			(parallel ? rounds.parallel() : rounds).forEach(i -> {
+				shortcuts[i] = new ShortcutList();
+				findShortcuts(round[i], witnesses.get(), shortcuts[i], WITNESS_LIMIT);
+			});
+			//inserts the shortcuts and removes the contracted vertices, one vertex at a time
+			int count = 0;
+			int[] neighbours = new int[16];
+			for(int i = 0; i < round.length; i++) {
+				int v = round[i];
+				rank[v] = nextRank++;
+				contracted[v] = true;
+				inRound[v] = false;
+				ShortcutList list = shortcuts[i];
+				for(int s = 0; s < list.size; s++) {
+					int first = list.first[s];
+					int second = list.second[s];
+					int u = arcFrom[first];
+					int w = arcTo[second];
+					long weight = arcWeight[first] + arcWeight[second];
+					if(!hasArc(u, w, weight)) addArc(u, w, weight, -1, first, second);
+				}
+				//every remaining neighbour loses its arcs to v and counts one more contracted neighbour
+				for(int j = 0; j < inCount[v] + outCount[v]; j++) {
+					boolean in = j < inCount[v];
+					int x = in ? arcFrom[inList[v][j]] : arcTo[outList[v][j - inCount[v]]];
+					if(contracted[x] || seen[x] == v + 1) continue;
+					seen[x] = v + 1;
+					outCount[x] = removeArcs(outList[x], outCount[x], v, true);
+					inCount[x] = removeArcs(inList[x], inCount[x], v, false);
+					deletedNeighbours[x]++;
+					if(!touched[x]) {
+						touched[x] = true;
+						if(count == neighbours.length) neighbours = java.util.Arrays.copyOf(neighbours, 2 * count);
+						neighbours[count++] = x;
+					}
+				}
+			}
+			//the importance of the neighbours of the round changed
+			for(int j = 0; j < count; j++) touched[neighbours[j]] = false;
+			IntStream update = IntStream.of(java.util.Arrays.copyOf(neighbours, count));
+			(parallel ? update.parallel() : update).forEach(x -> priority[x] = priority(x));
+			remaining -= round.length;
+		}
+	}
+
+	//whether v is more important than none of its remaining neighbours, ties are broken by id
+	private boolean independent(int v) {
+		if(contracted[v]) return false;
+		long key = ((long)priority[v] << 32) | v;
+		for(int j = 0; j < outCount[v]; j++) {
+			int w = arcTo[outList[v][j]];
+			if((((long)priority[w] << 32) | w) < key) return false;
+		}
+		for(int j = 0; j < inCount[v]; j++) {
+			int u = arcFrom[inList[v][j]];
+			if((((long)priority[u] << 32) | u) < key) return false;
+		}
+		return true;
+	}
+
+	//edge difference plus contracted neighbours
+	private int priority(int v) {
+		int shortcuts = findShortcuts(v, witnesses.get(), null, ESTIMATE_LIMIT);
+		return shortcuts - outCount[v] - inCount[v] + deletedNeighbours[v];
+	}
+
+	/*
+	 * Finds the pairs of arcs u->v->w that need a shortcut when v is contracted, the arcs are added to the
+	 * list if one is given. Returns the number of shortcuts, which may be too high when the witness searches
+	 * settle few vertices.
+	 */
+	private int findShortcuts(int v, Witness witness, ShortcutList list, int settleLimit) {
+		SearchSpace space = witness.space;
+		int shortcuts = 0;
+		for(int i = 0; i < inCount[v]; i++) {
+			int in = inList[v][i];
+			int u = arcFrom[in];
+			if(inRound[u]) continue;
+			//the targets of the witness search are the other ends of the outgoing arcs
+			int stamp = ++witness.stamp;
+			int targets = 0;
+			long limit = -1;
+			for(int j = 0; j < outCount[v]; j++) {
+				int w = arcTo[outList[v][j]];
+				if(w == u || inRound[w]) continue;
+				limit = Math.max(limit, arcWeight[in] + arcWeight[outList[v][j]]);
+				if(witness.marks[w] != stamp) {
+					witness.marks[w] = stamp;
+					targets++;
+				}
+			}
+			if(limit < 0) continue;
+			witnessSearch(u, v, limit, targets, settleLimit, witness);
+			for(int j = 0; j < outCount[v]; j++) {
+				int out = outList[v][j];
+				int w = arcTo[out];
+				if(w == u || inRound[w]) continue;
+				int local = space.find(w);
+				if(local >= 0 && space.dist(local) <= arcWeight[in] + arcWeight[out]) continue;
+				shortcuts++;
+				if(list != null) list.add(in, out);
+			}
+		}
+		return shortcuts;
+	}
+
+	/*
+	 * Dijkstra search from u that avoids v and the vertices of the round. It stops once all the marked
+	 * targets are settled, past the distance limit, or after settling settleLimit vertices.
+	 */
+	private void witnessSearch(int u, int v, long limit, int targets, int settleLimit, Witness witness) {
+		SearchSpace space = witness.space;
+		space.reset();
+		space.add(u, 0, -1);
+		IndexedHeapPQ queue = space.queue;
+		int settled = 0;
+		while(!queue.isEmpty() && settled++ < settleLimit) {
+			int current = queue.removeMin();
+			long d = space.dist(current);
+			if(d > limit) break;
+			int x = space.vertex(current);
+			if(witness.marks[x] == witness.stamp && --targets == 0) break;
+			for(int j = 0; j < outCount[x]; j++) {
+				int arc = outList[x][j];
+				int y = arcTo[arc];
+				if(y == v || inRound[y]) continue;
+				long newDistance = d + arcWeight[arc];
+				int next = space.find(y);
+				if(next < 0) space.add(y, newDistance, arc);
+				else if(newDistance < space.dist(next) && !space.settled(next)) space.decrease(next, newDistance, arc);
+			}
+		}
+	}
+
+	//whether u already has an arc to w that is not longer than weight
+	private boolean hasArc(int u, int w, long weight) {
+		for(int j = 0; j < outCount[u]; j++) {
+			int arc = outList[u][j];
+			if(arcTo[arc] == w && arcWeight[arc] <= weight) return true;
+		}
+		return false;
+	}
+
+	private void addArc(int u, int w, long weight, int edge, int first, int second) {
+		if(numArcs == arcFrom.length) {
+			int capacity = 2 * numArcs;
+			arcFrom = java.util.Arrays.copyOf(arcFrom, capacity);
+			arcTo = java.util.Arrays.copyOf(arcTo, capacity);
+			arcWeight = java.util.Arrays.copyOf(arcWeight, capacity);
+			arcEdge = java.util.Arrays.copyOf(arcEdge, capacity);
+			arcFirst = java.util.Arrays.copyOf(arcFirst, capacity);
+			arcSecond = java.util.Arrays.copyOf(arcSecond, capacity);
+		}
+		int a = numArcs++;
+		arcFrom[a] = u;
+		arcTo[a] = w;
+		arcWeight[a] = weight;
+		arcEdge[a] = edge;
+		arcFirst[a] = first;
+		arcSecond[a] = second;
+		if(outCount[u] == outList[u].length) outList[u] = java.util.Arrays.copyOf(outList[u], 2 * outCount[u]);
+		outList[u][outCount[u]++] = a;
+		if(inCount[w] == inList[w].length) inList[w] = java.util.Arrays.copyOf(inList[w], 2 * inCount[w]);
+		inList[w][inCount[w]++] = a;
+	}
+
+	//removes from a list of arcs the ones to (or from) vertex v, returns the new count
+	private int removeArcs(int[] list, int count, int v, boolean to) {
+		int kept = 0;
+		for(int j = 0; j < count; j++) {
+			int arc = list[j];
+			if((to ? arcTo[arc] : arcFrom[arc]) != v) list[kept++] = arc;
+		}
+		return kept;
+	}
+
+	//the state of the witness searches of one thread, marks[w] == stamp for the targets of the current search
+	private static final class Witness {
+		final SearchSpace space = new SearchSpace();
+		final int[] marks;
+		int stamp;
+
+		Witness(int n) {
+			marks = new int[n];
+		}
+	}
+
+	//the pairs of arcs replaced by the shortcuts of one vertex
+	private static final class ShortcutList {
+		int[] first = new int[4];
+		int[] second = new int[4];
+		int size;
+
+		void add(int in, int out) {
+			if(size == first.length) {
+				first = java.util.Arrays.copyOf(first, 2 * size);
+				second = java.util.Arrays.copyOf(second, 2 * size);
+			}
+			first[size] = in;
+			second[size] = out;
+			size++;
+		}
+	}
+
+	/**
+	 * A point to point query on the hierarchy, with the state of its two searches.
+	 */
+	public class Query {
+		private final SearchSpace forward = new SearchSpace();
+		private final SearchSpace backward = new SearchSpace();
+		private int source = -1;
+		private int target = -1;
+		private int meeting = -1;
+
+		Query() {
+		}
+
+		/**
+		 * Finds the shortest distance from source to target.
+		 * @param source the id of the departure vertex
+		 * @param target the id of the destination vertex
+		 * @return the distance, or -1 if the target cannot be reached
+		 */
+		@TimeComplexity("O((n+m) lg n)")
+		public long run(int source, int target) {
+			forward.reset();
+			backward.reset();
+			this.source = source;
+			this.target = target;
+			meeting = -1;
+			long best = Long.MAX_VALUE;
+			forward.add(source, 0, -1);
+			backward.add(target, 0, -1);
+			IndexedHeapPQ forwardQueue = forward.queue;
+			IndexedHeapPQ backwardQueue = backward.queue;
+			while(true) {
+				//a side stops once its closest vertex is not closer than the best meeting
+				boolean forwardOpen = !forwardQueue.isEmpty() && forwardQueue.minKey() < best;
+				boolean backwardOpen = !backwardQueue.isEmpty() && backwardQueue.minKey() < best;
+				if(!forwardOpen && !backwardOpen) break;
+				boolean forwardStep = forwardOpen && (!backwardOpen || forwardQueue.minKey() <= backwardQueue.minKey());
+				SearchSpace space = forwardStep ? forward : backward;
+				SearchSpace other = forwardStep ? backward : forward;
+				int current = space.queue.removeMin();
+				int v = space.vertex(current);
+				long d = space.dist(current);
+				int meet = other.find(v);
+				if(meet >= 0 && d + other.dist(meet) < best) {
+					best = d + other.dist(meet);
+					meeting = v;
+				}
+				int[] offsets = forwardStep ? upOffsets : downOffsets;
+				int[] arcs = forwardStep ? upArcs : downArcs;
+				for(int i = offsets[v]; i < offsets[v + 1]; i++) {
+					int arc = arcs[i];
+					int w = forwardStep ? arcTo[arc] : arcFrom[arc];
+					long newDistance = d + arcWeight[arc];
+					int next = space.find(w);
+					if(next < 0) space.add(w, newDistance, arc);
+					else if(newDistance < space.dist(next) && !space.settled(next)) space.decrease(next, newDistance, arc);
+				}
+			}
+			return meeting < 0 ? -1 : best;
+		}
+
+		/**
+		 * @return the number of vertices reached by both sides of the last search
+		 */
+		@TimeComplexity("O(1)")
+		public int explored() {
+			return forward.size() + backward.size();
+		}
+
+		/**
+		 * @return the vertex ids of the shortest path found by the last search in the original graph, from
+		 *         source to target, or an empty array if the target was not reached
+		 */
+		@TimeComplexity("O(n)")
+		public int[] path() {
+			if(meeting < 0) return new int[0];
+			//the arcs of the path in the hierarchy, the forward half is collected backwards
+			int[] stack = new int[16];
+			int size = 0;
+			for(int v = meeting; v != source; ) {
+				int arc = forward.parent(forward.find(v));
+				if(size == stack.length) stack = java.util.Arrays.copyOf(stack, 2 * size);
+				stack[size++] = arc;
+				v = arcFrom[arc];
+			}
+			int[] hierarchyArcs = new int[size];
+			for(int i = 0; i < size; i++) hierarchyArcs[i] = stack[size - 1 - i];
+			size = 0;
+			for(int v = meeting; v != target; ) {
+				int arc = backward.parent(backward.find(v));
+				if(size == stack.length) stack = java.util.Arrays.copyOf(stack, 2 * size);
+				stack[size++] = arc;
+				v = arcTo[arc];
+			}
+			int[] all = java.util.Arrays.copyOf(hierarchyArcs, hierarchyArcs.length + size);
+			System.arraycopy(stack, 0, all, hierarchyArcs.length, size);
+
+			//unpacks every shortcut into the two arcs it replaces until only original arcs are left
+			int[] output = new int[all.length + 1];
+			int length = 0;
+			output[length++] = source;
+			size = 0;
+			for(int i = all.length - 1; i >= 0; i--) {
+				if(size == stack.length) stack = java.util.Arrays.copyOf(stack, 2 * size);
+				stack[size++] = all[i];
+			}
+			while(size > 0) {
+				int arc = stack[--size];
+				if(arcEdge[arc] >= 0) {
+					if(length == output.length) output = java.util.Arrays.copyOf(output, 2 * length);
+					output[length++] = arcTo[arc];
+				}
+				else {
+					if(size + 2 > stack.length) stack = java.util.Arrays.copyOf(stack, 2 * stack.length + 2);
+					stack[size++] = arcSecond[arc];
+					stack[size++] = arcFirst[arc];
+				}
+			}
+			return java.util.Arrays.copyOf(output, length);
+		}
+	}
+}
@@ -5,7 +5,7 @@ import net.datastructures.Vertex;
 
 
 public class Course {
-	private AdjListGraph<String, Integer> graph;
+	private CSRGraph<String, Integer> graph;
 	private HashMap<String, Vertex<String>> map;
 
 	/**
@@ -15,21 +15,42 @@ public class Course {
 	 * 
 	 */
 	public Course(String courses[][]) {
-		graph = new AdjListGraph<String, Integer>(true);
-		map = new HashMap<String, Vertex<String>>();
-
+		// numbers the courses in order of appearance and collects the prerequisite edges in parallel arrays
+		int total = 0;
+		for (int i = 0; i < courses.length; i++) {
+			total += courses[i].length;
+		}
+		HashMap<String, Integer> ids = new HashMap<String, Integer>(4 * total / 3 + 1);
+		String[] names = new String[total];
+		int[] from = new int[total];
+		int[] to = new int[total];
+		Integer[] counts = new Integer[total];
+		int numCourses = 0;
+		int numEdges = 0;
 		for (int i = 0; i < courses.length; i++) {
 			for (int j = 0; j < courses[i].length; j++) {
-				if (map.get(courses[i][j]) == null) {
-					map.put(courses[i][j], graph.insertVertex(courses[i][j]));
+				if (ids.get(courses[i][j]) == null) {
+					ids.put(courses[i][j], numCourses);
+					names[numCourses++] = courses[i][j];
 				}
 			}
 			if (courses[i].length > 1) {
 				for (int j = 1; j < courses[i].length; j++) {
-					graph.insertEdge(map.get(courses[i][0]), map.get(courses[i][j]), (courses[i].length - 1));
+					from[numEdges] = ids.get(courses[i][0]);
+					to[numEdges] = ids.get(courses[i][j]);
+					counts[numEdges++] = courses[i].length - 1;
 				}
 			}
 		}
+		AdjListGraph<String, Integer> builder = AdjListGraph.load(true, java.util.Arrays.copyOf(names, numCourses),
+				java.util.Arrays.copyOf(from, numEdges), java.util.Arrays.copyOf(to, numEdges),
+				java.util.Arrays.copyOf(counts, numEdges), false);
+		map = new HashMap<String, Vertex<String>>(4 * numCourses / 3 + 1);
+		// the prerequisites never change after construction, so the queries run on a CSR snapshot
+		graph = builder.freeze();
+		for (Vertex<String> v : graph.vertices()) {
+			map.put(v.getElement(), v);
+		}
 	}
 
 	/**
@@ -0,0 +1,307 @@
+package main;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Delta-stepping single source shortest paths (Meyer and Sanders) over the int ids and weights of an
+ * IntWeightedGraph with non-negative weights, for full distance tables rather than point to point routes.
+ *
+ * The reached vertices are kept in buckets of width delta by tentative distance. The smallest non-empty
+ * bucket is emptied by relaxing the light slots (weight at most delta) of its vertices, which may put
+ * vertices back in the same bucket, until it stays empty; the heavy slots of all the vertices it held are
+ * then relaxed once. A small delta does little more work than Dijkstra, a large one gives every phase more
+ * vertices to work on, Bellman-Ford being the limit.
+ *
+ * For the parallel version the vertices are split into parts by id, every part owning the buckets, the
+ * distances and the predecessors of its vertices. Every phase runs the parts on the common ForkJoinPool
+ * twice: first each part relaxes the slots of its own vertices into one request list per destination part,
+ * then each part applies the requests sent to it. No state is written by two parts, so no locks or atomics
+ * are needed, and the requests are applied in a fixed order, so the predecessors chosen among paths of
+ * equal length are the same from run to run. The buckets are a cyclic array, since all the tentative
+ * distances lie within the largest weight of the current bucket. Vertices whose distance has dropped are
+ * left in their old bucket and skipped when it comes up.
+ */
+public class DeltaStepping {
+
+	private static final long UNREACHED = Long.MAX_VALUE;
+	private static final int MAX_PARTS = 64;
+
+	private final IntWeightedGraph<?> graph;
+	private final long delta;
+	private final int parts;
+	private final int mask;
+	private final int numBuckets;
+
+	private long[] dist;
+	private int[] previous;
+	//the phase in which a vertex was last taken from a bucket, and the bucket in which its heavy slots were
+	private int[] taken;
+	private long[] heavyDone;
+	//buckets[part][b] holds vertices of the part whose tentative distance was in bucket b, modulo numBuckets
+	private IntList[][] buckets;
+	//the vertices each part took from the current bucket, for the heavy slots
+	private IntList[] settled;
+	//requests[from][to] are the relaxations part from sends to part to
+	private Requests[][] requests;
+	private int phase;
+	private int source = -1;
+
+	/**
+	 * Searches sequentially with the delta of defaultDelta.
+	 * @param graph the graph to search
+	 */
+	public DeltaStepping(IntWeightedGraph<?> graph) {
+		this(graph, defaultDelta(graph), false);
+	}
+
+	/**
+	 * @param graph the graph to search
+	 * @param delta the width of a bucket, at least 1, there are largest weight / delta buckets
+	 * @param parallel whether the phases run in parallel on the common ForkJoinPool
+	 */
+	public DeltaStepping(IntWeightedGraph<?> graph, long delta, boolean parallel) {
+		if(delta < 1) throw new IllegalArgumentException("Invalid delta");
+		this.graph = graph;
+		this.delta = delta;
+		int p = 1;
+		if(parallel) {
+			while(p < Math.min(MAX_PARTS, java.util.concurrent.ForkJoinPool.getCommonPoolParallelism())) p <<= 1;
+		}
+		parts = p;
+		mask = p - 1;
+		long maxWeight = 0;
+		for(int e = 0; e < graph.numEdges(); e++) maxWeight = Math.max(maxWeight, graph.weight(e));
+		numBuckets = (int)Math.min(Integer.MAX_VALUE - 8, maxWeight / delta + 2);
+	}
+
+	/**
+	 * @return the largest weight divided by the average degree, at least 1, which keeps the number of
+	 *         relaxations close to Dijkstra on graphs with random weights
+	 */
+	@TimeComplexity("O(m)")
+	public static long defaultDelta(IntWeightedGraph<?> graph) {
+		int n = graph.numVertices();
+		long slots = n == 0 ? 0 : graph.outEnd(n - 1);
+		long maxWeight = 0;
+		for(int e = 0; e < graph.numEdges(); e++) maxWeight = Math.max(maxWeight, graph.weight(e));
+		if(slots == 0) return 1;
+		return Math.max(1, maxWeight * n / slots);
+	}
+
+	/**
+	 * Computes the distances from source to every vertex.
+	 * @param source the id of the departure vertex
+	 */
+	@TimeComplexityExpected("O(n + m + L/delta)")
+	public void run(int source) {
+		int n = graph.numVertices();
+		if(dist == null) {
+			dist = new long[n];
+			previous = new int[n];
+			taken = new int[n];
+			heavyDone = new long[n];
+			buckets = new IntList[parts][];
+			settled = new IntList[parts];
+			requests = new Requests[parts][parts];
+			for(int part = 0; part < parts; part++) {
+				buckets[part] = new IntList[Math.min(numBuckets, 1 << 16)];
+				settled[part] = new IntList();
+				for(int to = 0; to < parts; to++) requests[part][to] = new Requests();
+			}
+		}
+		java.util.Arrays.fill(dist, UNREACHED);
+		java.util.Arrays.fill(previous, -1);
+		java.util.Arrays.fill(taken, 0);
+		java.util.Arrays.fill(heavyDone, -1);
+		for(IntList[] row : buckets) {
+			for(IntList bucket : row) if(bucket != null) bucket.size = 0;
+		}
+		phase = 0;
+		this.source = source;
+		dist[source] = 0;
+		bucket(source & mask, 0).add(source);
+		long current = 0;
+		while(true) {
+			//the next bucket holding a vertex, at most numBuckets ahead
+			long next = -1;
+			for(long b = current; b < current + numBuckets && next < 0; b++) {
+				for(int part = 0; part < parts; part++) {
+					if(size(part, b) > 0) {
+						next = b;
+						break;
+					}
+				}
+			}
+			if(next < 0) break;
+			current = next;
+			for(IntList list : settled) list.size = 0;
+			long index = current;
+			while(pending(index)) {
+				int stamp = ++phase;
+				forEachPart(part -> relaxBucket(part, index, stamp));
+				forEachPart(part -> apply(part));
+			}
+			forEachPart(part -> relaxHeavy(part, index));
+			forEachPart(part -> apply(part));
+			current++;
+		}
+	}
+
+	/**
+	 * @return the distance from the source of every vertex id, -1 for the vertices it cannot reach
+	 */
+	@TimeComplexity("O(n)")
+	public long[] distances() {
+		long[] output = new long[dist.length];
+		for(int v = 0; v < output.length; v++) output[v] = dist[v] == UNREACHED ? -1 : dist[v];
+		return output;
+	}
+
+	/**
+	 * @return the vertex before every vertex id on its shortest path, -1 for the source and the vertices
+	 *         it cannot reach
+	 */
+	@TimeComplexity("O(n)")
+	public int[] predecessors() {
+		return previous.clone();
+	}
+
+	/**
+	 * @return the vertex ids of the shortest path from the source of the last search to the target,
+	 *         or an empty array if it cannot be reached
+	 */
+	@TimeComplexity("O(n)")
+	public int[] path(int target) {
+		if(dist[target] == UNREACHED) return new int[0];
+		int length = 1;
+		for(int v = target; v != source; v = previous[v]) length++;
+		int[] output = new int[length];
+		for(int v = target; length > 0; v = previous[v]) output[--length] = v;
+		return output;
+	}
+
+	private void forEachPart(java.util.function.IntConsumer task) {
+		if(parts == 1) task.accept(0);
+		else java.util.stream.IntStream.range(0, parts).parallel().forEach(task);
+	}
+
+	//whether a part still holds a vertex in the bucket
+	private boolean pending(long index) {
+		for(int part = 0; part < parts; part++) {
+			if(size(part, index) > 0) return true;
+		}
+		return false;
+	}
+
+	private int size(int part, long index) {
+		int slot = (int)(index % numBuckets);
+		IntList bucket = slot < buckets[part].length ? buckets[part][slot] : null;
+		return bucket == null ? 0 : bucket.size;
+	}
+
+	//empties the bucket of a part, relaxing the light slots of the vertices that still belong to it
+	private void relaxBucket(int part, long index, int stamp) {
+		IntList bucket = buckets[part][slot(index, part)];
+		if(bucket == null) return;
+		Requests[] out = requests[part];
+		int size = bucket.size;
+		bucket.size = 0;
+		for(int i = 0; i < size; i++) {
+			int v = bucket.items[i];
+			if(dist[v] / delta != index || taken[v] == stamp) continue;
+			taken[v] = stamp;
+			if(heavyDone[v] != index) {
+				heavyDone[v] = index;
+				settled[part].add(v);
+			}
+			relax(v, true, out);
+		}
+	}
+
+	//relaxes the heavy slots of the vertices a part took from the bucket
+	private void relaxHeavy(int part, long index) {
+		IntList list = settled[part];
+		Requests[] out = requests[part];
+		for(int i = 0; i < list.size; i++) relax(list.items[i], false, out);
+	}
+
+	private void relax(int v, boolean light, Requests[] out) {
+		long d = dist[v];
+		int end = graph.outEnd(v);
+		for(int slot = graph.outStart(v); slot < end; slot++) {
+			int weight = graph.weight(graph.outEdge(slot));
+			if((weight <= delta) != light) continue;
+			int w = graph.outTarget(slot);
+			long newDistance = d + weight;
+			//reading the distance of another part is a hint only, the owner decides
+			if(newDistance < dist[w]) out[w & mask].add(w, newDistance, v);
+		}
+	}
+
+	//applies the requests sent to a part, in the order of the sending parts
+	private void apply(int part) {
+		for(int from = 0; from < parts; from++) {
+			Requests in = requests[from][part];
+			for(int i = 0; i < in.size; i++) {
+				int w = in.targets[i];
+				long d = in.dists[i];
+				if(d < dist[w]) {
+					dist[w] = d;
+					previous[w] = in.sources[i];
+					bucket(part, d / delta).add(w);
+				}
+			}
+			in.size = 0;
+		}
+	}
+
+	private IntList bucket(int part, long index) {
+		int slot = slot(index, part);
+		IntList bucket = buckets[part][slot];
+		if(bucket == null) {
+			bucket = new IntList();
+			buckets[part][slot] = bucket;
+		}
+		return bucket;
+	}
+
+	//the cyclic slot of a bucket index, growing the bucket array of the part when needed
+	private int slot(long index, int part) {
+		int slot = (int)(index % numBuckets);
+		if(slot >= buckets[part].length) {
+			buckets[part] = java.util.Arrays.copyOf(buckets[part], (int)Math.min(numBuckets, Math.max(slot + 1L, 2L * buckets[part].length)));
+		}
+		return slot;
+	}
+
+	//growable list of vertex ids
+	private static final class IntList {
+		int[] items = new int[16];
+		int size;
+
+		void add(int v) {
+			if(size == items.length) items = java.util.Arrays.copyOf(items, 2 * size);
+			items[size++] = v;
+		}
+	}
+
+	//growable columns of relaxation requests: the vertex, its new distance and the vertex it comes from
+	private static final class Requests {
+		int[] targets = new int[16];
+		long[] dists = new long[16];
+		int[] sources = new int[16];
+		int size;
+
+		void add(int target, long distance, int source) {
+			if(size == targets.length) {
+				targets = java.util.Arrays.copyOf(targets, 2 * size);
+				dists = java.util.Arrays.copyOf(dists, 2 * size);
+				sources = java.util.Arrays.copyOf(sources, 2 * size);
+			}
+			targets[size] = target;
+			dists[size] = distance;
+			sources[size] = source;
+			size++;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package main;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Depth first search from a source to a target over the int ids of an IntWeightedGraph, visiting the
+ * outgoing slots of every vertex in order. The recursion is replaced by an explicit stack holding, for every
+ * vertex on the current branch, the next slot to try, so the depth of the graph is only bounded by memory.
+ * A vertex is marked when it is first reached and remembers the vertex it was reached from, and the route
+ * is the branch of the search tree that reaches the target, rebuilt once from the parent array.
+ * The per vertex arrays are allocated once and reused, a search only clears what it marked, but an instance
+ * must not be used by two threads at the same time.
+ */
+public class DepthFirstSearch {
+
+	private final IntWeightedGraph<?> graph;
+	//the vertex at the other end of every outgoing slot in visiting order, null for the order of the graph
+	private final int[] slotTargets;
+
+	//per vertex id: the vertex it was reached from, -1 for the source, and whether it has been reached
+	private int[] parents;
+	private boolean[] reached;
+	//the vertices of the current branch and the next slot of each
+	private int[] stack;
+	private int[] next;
+	//the vertices reached by the last search, in order
+	private int[] order;
+	private int explored;
+
+	private int source = -1;
+	private int target = -1;
+
+	/**
+	 * @param graph the graph to search, its outgoing slots are visited in order
+	 */
+	public DepthFirstSearch(IntWeightedGraph<?> graph) {
+		this(graph, null);
+	}
+
+	/**
+	 * @param graph the graph to search
+	 * @param slotTargets the vertex at the other end of every outgoing slot, in visiting order
+	 */
+	DepthFirstSearch(IntWeightedGraph<?> graph, int[] slotTargets) {
+		this.graph = graph;
+		this.slotTargets = slotTargets;
+	}
+
+	/**
+	 * Searches from source until the target is reached.
+	 * @param source the id of the departure vertex
+	 * @param target the id of the destination vertex
+	 * @return whether the target was reached
+	 */
+	@TimeComplexity("O(n+m)")
+	public boolean run(int source, int target) {
+		if(parents == null) {
+			int n = graph.numVertices();
+			parents = new int[n];
+			reached = new boolean[n];
+			stack = new int[n];
+			next = new int[n];
+			order = new int[n];
+		}
+		for(int i = 0; i < explored; i++) reached[order[i]] = false;
+		explored = 0;
+		this.source = source;
+		this.target = -1;
+		int top = 0;
+		visit(source, -1);
+		stack[0] = source;
+		next[0] = graph.outStart(source);
+		if(source == target) {
+			this.target = target;
+			return true;
+		}
+		while(top >= 0) {
+			int v = stack[top];
+			int slot = next[top];
+			if(slot == graph.outEnd(v)) {
+				top--;
+				continue;
+			}
+			next[top] = slot + 1;
+			int w = slotTargets == null ? graph.outTarget(slot) : slotTargets[slot];
+			if(reached[w]) continue;
+			visit(w, v);
+			if(w == target) {
+				this.target = target;
+				return true;
+			}
+			top++;
+			stack[top] = w;
+			next[top] = graph.outStart(w);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of vertices reached by the last search
+	 */
+	@TimeComplexity("O(1)")
+	public int explored() {
+		return explored;
+	}
+
+	/**
+	 * @return the vertex ids of the route found by the last search, from source to target,
+	 *         or an empty array if the target was not reached
+	 */
+	@TimeComplexity("O(n)")
+	public int[] path() {
+		if(target < 0) return new int[0];
+		int length = 1;
+		for(int v = target; v != source; v = parents[v]) length++;
+		int[] output = new int[length];
+		for(int v = target; length > 0; v = parents[v]) output[--length] = v;
+		return output;
+	}
+
+	private void visit(int v, int parent) {
+		reached[v] = true;
+		parents[v] = parent;
+		order[explored++] = v;
+	}
+}
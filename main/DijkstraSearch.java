@@ -0,0 +1,179 @@
+package main;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * Point to point Dijkstra search over the int ids of an IntWeightedGraph with non-negative weights.
+ * Vertices enter the priority queue only when they are first reached, and the search stops as soon as the
+ * target is removed from the queue. All the state of a search is kept for the explored region only, see
+ * SearchSpace, so one instance can be reused for many queries, but not by two threads at the same time.
+ */
+public class DijkstraSearch {
+
+	private final IntWeightedGraph<?> graph;
+	//columns giving the order in which the outgoing slots are relaxed, null for the order of the graph
+	private final int[] slotTargets;
+	private final int[] slotEdges;
+	private final SearchSpace space = new SearchSpace();
+
+	private int source = -1;
+	private int target = -1;
+
+	/**
+	 * @param graph the graph to search, its outgoing slots are relaxed in order
+	 */
+	public DijkstraSearch(IntWeightedGraph<?> graph) {
+		this(graph, null, null);
+	}
+
+	/**
+	 * @param graph the graph to search
+	 * @param slotTargets the vertex at the other end of every outgoing slot, in relaxation order
+	 * @param slotEdges the edge of every outgoing slot, in relaxation order
+	 */
+	DijkstraSearch(IntWeightedGraph<?> graph, int[] slotTargets, int[] slotEdges) {
+		this.graph = graph;
+		this.slotTargets = slotTargets;
+		this.slotEdges = slotEdges;
+	}
+
+	/**
+	 * Finds the shortest distance from source to target.
+	 * @param source the id of the departure vertex
+	 * @param target the id of the destination vertex
+	 * @return the distance, or -1 if the target cannot be reached
+	 */
+	@TimeComplexity("O((n+m) lg n)")
+	public long run(int source, int target) {
+		space.reset();
+		this.source = source;
+		this.target = -1;
+		IndexedHeapPQ queue = space.queue;
+		space.add(source, 0, -1);
+		while(!queue.isEmpty()) {
+			int current = queue.removeMin();
+			int v = space.vertex(current);
+			long d = space.dist(current);
+			if(v == target) {
+				this.target = target;
+				return d;
+			}
+			relax(v, d);
+		}
+		return -1;
+	}
+
+	/**
+	 * Searches from source until all the given targets are settled, so one search answers many queries
+	 * from the same source. The answers are then read with dist(v) and path(v) for the targets only.
+	 * @param source the id of the departure vertex
+	 * @param marks the targets are the vertices v with marks[v] == stamp
+	 * @param stamp the mark of the targets
+	 * @param count the number of targets
+	 */
+	@TimeComplexity("O((n+m) lg n)")
+	void run(int source, int[] marks, int stamp, int count) {
+		space.reset();
+		this.source = source;
+		this.target = -1;
+		IndexedHeapPQ queue = space.queue;
+		space.add(source, 0, -1);
+		while(!queue.isEmpty()) {
+			int current = queue.removeMin();
+			int v = space.vertex(current);
+			if(marks[v] == stamp && --count == 0) return;
+			relax(v, space.dist(current));
+		}
+	}
+
+	/**
+	 * @return the distance of a target of the last search from many targets, -1 if it was not reached
+	 */
+	@TimeComplexityExpected("O(1)")
+	long dist(int v) {
+		int local = space.find(v);
+		return local < 0 ? -1 : space.dist(local);
+	}
+
+	/**
+	 * @return the vertex ids of the shortest path to a target of the last search from many targets,
+	 *         or an empty array if it was not reached
+	 */
+	@TimeComplexity("O(n)")
+	int[] path(int v) {
+		if(space.find(v) < 0) return new int[0];
+		return walk(graph, space, v, source, true);
+	}
+
+	//relaxes the outgoing slots of a vertex that has just been settled at distance d
+	private void relax(int v, long d) {
+		int end = graph.outEnd(v);
+		for(int slot = graph.outStart(v); slot < end; slot++) {
+			int w = slotTargets == null ? graph.outTarget(slot) : slotTargets[slot];
+			int e = slotEdges == null ? graph.outEdge(slot) : slotEdges[slot];
+			long newDistance = d + graph.weight(e);
+			int next = space.find(w);
+			if(next < 0) space.add(w, newDistance, e);
+			else if(newDistance < space.dist(next) && !space.settled(next)) space.decrease(next, newDistance, e);
+		}
+	}
+
+	/**
+	 * @return the number of vertices reached by the last search
+	 */
+	@TimeComplexity("O(1)")
+	public int explored() {
+		return space.size();
+	}
+
+	/**
+	 * @return the vertex ids of the shortest path found by the last search, from source to target,
+	 *         or an empty array if the target was not reached
+	 */
+	@TimeComplexity("O(n)")
+	public int[] path() {
+		if(target < 0) return new int[0];
+		return walk(graph, space, target, source, true);
+	}
+
+	/**
+	 * Copies the shortest path tree of the last search, which must have run to the end, for example with
+	 * -1 as target.
+	 * @param dist the distance of every vertex id, -1 if it was not reached
+	 * @param previous the vertex before every vertex id on its shortest path, -1 for the source and the
+	 *        vertices that were not reached
+	 */
+	@TimeComplexity("O(n)")
+	void tree(long[] dist, int[] previous) {
+		java.util.Arrays.fill(dist, -1);
+		java.util.Arrays.fill(previous, -1);
+		for(int local = 0; local < space.size(); local++) {
+			int v = space.vertex(local);
+			dist[v] = space.dist(local);
+			if(v != source) previous[v] = previous(graph, space, v);
+		}
+	}
+
+	/*
+	 * Follows the tree edges of a search space from a vertex back to the root of the space, and returns the
+	 * vertices of the walk, from the root to the vertex if rootFirst, else from the vertex to the root.
+	 */
+	static int[] walk(IntWeightedGraph<?> graph, SearchSpace space, int from, int root, boolean rootFirst) {
+		int length = 1;
+		for(int v = from; v != root; v = previous(graph, space, v)) length++;
+		int[] output = new int[length];
+		int i = 0;
+		for(int v = from; ; v = previous(graph, space, v)) {
+			output[rootFirst ? length - 1 - i : i] = v;
+			i++;
+			if(v == root) break;
+		}
+		return output;
+	}
+
+	//the vertex before v on the tree of the search space
+	private static int previous(IntWeightedGraph<?> graph, SearchSpace space, int v) {
+		int e = space.parent(space.find(v));
+		return graph.edgeSource(e) == v ? graph.edgeTarget(e) : graph.edgeSource(e);
+	}
+}
@@ -203,6 +203,9 @@ public class DoublyLinkedList<E> implements PositionalList<E> {
 		if(pos.previous != null) pos.previous.next = pos.next;
 		else first = pos.next;
 		
+		//detaches the position so that removing it a second time is rejected
+		pos.list = null;
+		
 		//returns the removed element
 		return pos.getElement();
 	}
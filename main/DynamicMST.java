@@ -0,0 +1,372 @@
+package main;
+
+/*
+ * Minimum spanning forest of islands kept up to date while islands and edges are added and edge costs are
+ * lowered, instead of running Kruskal again after every change.
+ *
+ * The forest is stored in a link-cut tree (Sleator and Tarjan), in which every edge is a node of its own
+ * between the nodes of its two islands, so the heaviest edge of a tree path is the heaviest node of the
+ * path. A new edge between two trees links them. A new edge inside a tree closes a cycle with the tree path
+ * between its islands: if it is cheaper than the heaviest edge of that path, that edge is cut and the new
+ * one linked in its place, otherwise the new edge stays out of the forest. Lowering the cost of an edge
+ * out of the forest is handled the same way, and lowering the cost of an edge of the forest keeps the
+ * forest minimal. Every change takes O(lg n) amortized time and the cost of the forest is kept in a field.
+ *
+ * The link-cut tree is kept in arrays indexed by node: the splay trees of the preferred paths, with a
+ * reversal flag for rerooting and the heaviest node of every splay subtree. Raising a cost could need an
+ * edge out of the forest to replace the one raised, which would mean keeping every such edge sorted by
+ * cycle, so costs can only be lowered.
+ */
+public class DynamicMST {
+
+	//the cost of the island nodes, lighter than every edge
+	private static final int ISLAND = Integer.MIN_VALUE;
+
+	//the splay trees: children and parent of every node, -1 for none. The parent of the root of a splay
+	//tree is the path-parent of its preferred path
+	private int[] left;
+	private int[] right;
+	private int[] parent;
+	private boolean[] reversed;
+	private int[] costs;
+	//the heaviest node of the splay subtree of every node
+	private int[] heaviest;
+	//the edge of every node, -1 for islands
+	private int[] edges;
+	private int numNodes;
+	//the ancestors of a node being splayed, whose reversal flags are pushed down first
+	private int[] stack;
+
+	//the node of every island, the islands and the node of every edge, and whether it is in the forest
+	private int[] islandNodes;
+	private int numIslands;
+	private int[] from;
+	private int[] to;
+	private int[] edgeNodes;
+	private boolean[] inForest;
+	private int numEdges;
+
+	private long cost;
+	private int components;
+
+	/**
+	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
+	 */
+	public DynamicMST(int numOfIslands) {
+		left = new int[16];
+		right = new int[16];
+		parent = new int[16];
+		reversed = new boolean[16];
+		costs = new int[16];
+		heaviest = new int[16];
+		edges = new int[16];
+		stack = new int[16];
+		islandNodes = new int[16];
+		from = new int[16];
+		to = new int[16];
+		edgeNodes = new int[16];
+		inForest = new boolean[16];
+		for(int i = 0; i < numOfIslands; i++) addIsland();
+	}
+
+	/**
+	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
+	 * @param from: from[i] and to[i] are the islands at both ends of edge i
+	 * @param to: see from
+	 * @param costs: costs[i] is the distance between island[from[i]] and island[to[i]]
+	 */
+	@TimeComplexityAmortized("O(n + m lg n)")
+	public DynamicMST(int numOfIslands, int[] from, int[] to, int[] costs) {
+		this(numOfIslands);
+		for(int i = 0; i < costs.length; i++) addEdge(from[i], to[i], costs[i]);
+	}
+
+	/**
+	 * Adds an island without edges.
+	 * @return the number of the new island
+	 */
+	@TimeComplexityAmortized("O(1)")
+	public int addIsland() {
+		if(numIslands == islandNodes.length) islandNodes = java.util.Arrays.copyOf(islandNodes, 2 * numIslands);
+		islandNodes[numIslands] = newNode(ISLAND, -1);
+		components++;
+		return numIslands++;
+	}
+
+	/**
+	 * Adds an edge, which replaces the heaviest edge of the cycle it closes if it is cheaper.
+	 * @param from: the island at one end
+	 * @param to: the island at the other end
+	 * @param cost: the distance between the islands
+	 * @return the number of the new edge, numbered as 0,1,2,... in order of addition
+	 * @throws IllegalArgumentException if an island does not exist
+	 */
+	@TimeComplexityAmortized("O(lg n)")
+	public int addEdge(int from, int to, int cost) {
+		if(from < 0 || from >= numIslands || to < 0 || to >= numIslands) throw new IllegalArgumentException("Invalid Vertex");
+		if(numEdges == edgeNodes.length) {
+			this.from = java.util.Arrays.copyOf(this.from, 2 * numEdges);
+			this.to = java.util.Arrays.copyOf(this.to, 2 * numEdges);
+			edgeNodes = java.util.Arrays.copyOf(edgeNodes, 2 * numEdges);
+			inForest = java.util.Arrays.copyOf(inForest, 2 * numEdges);
+		}
+		int edge = numEdges++;
+		this.from[edge] = from;
+		this.to[edge] = to;
+		edgeNodes[edge] = newNode(cost, edge);
+		offer(edge);
+		return edge;
+	}
+
+	/**
+	 * Lowers the cost of an edge, which then replaces the heaviest edge of the cycle it closes if it is cheaper.
+	 * @param edge: the number of the edge returned by addEdge
+	 * @param cost: the new distance, at most the current one
+	 * @throws IllegalArgumentException if the edge does not exist or the cost is higher
+	 */
+	@TimeComplexityAmortized("O(lg n)")
+	public void decreaseCost(int edge, int cost) {
+		if(edge < 0 || edge >= numEdges) throw new IllegalArgumentException("Invalid Edge");
+		int x = edgeNodes[edge];
+		if(cost > costs[x]) throw new IllegalArgumentException("Cost can only decrease");
+		//x becomes the root of its splay tree, so no other subtree holds its cost
+		access(x);
+		if(inForest[edge]) this.cost -= costs[x] - cost;
+		costs[x] = cost;
+		update(x);
+		if(!inForest[edge]) offer(edge);
+	}
+
+	/**
+	 * @return the cost of the minimum spanning tree, of the minimum spanning forest if the islands are not connected
+	 */
+	@TimeComplexity("O(1)")
+	public long cost() {
+		return cost;
+	}
+
+	/**
+	 * @return the number of trees of the forest, 1 if the islands are connected
+	 */
+	@TimeComplexity("O(1)")
+	public int components() {
+		return components;
+	}
+
+	/**
+	 * @return the number of islands
+	 */
+	@TimeComplexity("O(1)")
+	public int numIslands() {
+		return numIslands;
+	}
+
+	/**
+	 * @return the number of edges added
+	 */
+	@TimeComplexity("O(1)")
+	public int numEdges() {
+		return numEdges;
+	}
+
+	/**
+	 * @return the island at one end of an edge
+	 */
+	@TimeComplexity("O(1)")
+	public int from(int edge) {
+		if(edge < 0 || edge >= numEdges) throw new IllegalArgumentException("Invalid Edge");
+		return from[edge];
+	}
+
+	/**
+	 * @return the island at the other end of an edge
+	 */
+	@TimeComplexity("O(1)")
+	public int to(int edge) {
+		if(edge < 0 || edge >= numEdges) throw new IllegalArgumentException("Invalid Edge");
+		return to[edge];
+	}
+
+	/**
+	 * @return the current cost of an edge
+	 */
+	@TimeComplexity("O(1)")
+	public int cost(int edge) {
+		if(edge < 0 || edge >= numEdges) throw new IllegalArgumentException("Invalid Edge");
+		return costs[edgeNodes[edge]];
+	}
+
+	/**
+	 * @return whether an edge is in the minimum spanning forest
+	 */
+	@TimeComplexity("O(1)")
+	public boolean inForest(int edge) {
+		if(edge < 0 || edge >= numEdges) throw new IllegalArgumentException("Invalid Edge");
+		return inForest[edge];
+	}
+
+	/**
+	 * @return whether two islands are connected by the edges added so far
+	 */
+	@TimeComplexityAmortized("O(lg n)")
+	public boolean connected(int a, int b) {
+		if(a < 0 || a >= numIslands || b < 0 || b >= numIslands) throw new IllegalArgumentException("Invalid Vertex");
+		return findRoot(islandNodes[a]) == findRoot(islandNodes[b]);
+	}
+
+	//puts an edge out of the forest into it, if it joins two trees or is cheaper than the heaviest edge of its cycle
+	private void offer(int edge) {
+		int x = edgeNodes[edge];
+		int u = islandNodes[from[edge]];
+		int v = islandNodes[to[edge]];
+		if(u == v) return;
+		if(findRoot(u) != findRoot(v)) {
+			components--;
+		}
+		else {
+			//the heaviest node of the path from u to v
+			makeRoot(u);
+			access(v);
+			int y = heaviest[v];
+			if(costs[y] <= costs[x]) return;
+			int replaced = edges[y];
+			cut(islandNodes[from[replaced]], y);
+			cut(y, islandNodes[to[replaced]]);
+			inForest[replaced] = false;
+			cost -= costs[y];
+		}
+		link(u, x);
+		link(x, v);
+		inForest[edge] = true;
+		cost += costs[x];
+	}
+
+	private int newNode(int cost, int edge) {
+		if(numNodes == left.length) {
+			int capacity = 2 * numNodes;
+			left = java.util.Arrays.copyOf(left, capacity);
+			right = java.util.Arrays.copyOf(right, capacity);
+			parent = java.util.Arrays.copyOf(parent, capacity);
+			reversed = java.util.Arrays.copyOf(reversed, capacity);
+			costs = java.util.Arrays.copyOf(costs, capacity);
+			heaviest = java.util.Arrays.copyOf(heaviest, capacity);
+			edges = java.util.Arrays.copyOf(edges, capacity);
+			stack = java.util.Arrays.copyOf(stack, capacity);
+		}
+		int x = numNodes++;
+		left[x] = -1;
+		right[x] = -1;
+		parent[x] = -1;
+		costs[x] = cost;
+		heaviest[x] = x;
+		edges[x] = edge;
+		return x;
+	}
+
+	//whether x is the root of its splay tree
+	private boolean isRoot(int x) {
+		int p = parent[x];
+		return p < 0 || (left[p] != x && right[p] != x);
+	}
+
+	//pushes the reversal flag of x down to its children
+	private void push(int x) {
+		if(!reversed[x]) return;
+		int swap = left[x];
+		left[x] = right[x];
+		right[x] = swap;
+		if(left[x] >= 0) reversed[left[x]] ^= true;
+		if(right[x] >= 0) reversed[right[x]] ^= true;
+		reversed[x] = false;
+	}
+
+	private void update(int x) {
+		int best = x;
+		if(left[x] >= 0 && costs[heaviest[left[x]]] > costs[best]) best = heaviest[left[x]];
+		if(right[x] >= 0 && costs[heaviest[right[x]]] > costs[best]) best = heaviest[right[x]];
+		heaviest[x] = best;
+	}
+
+	private void rotate(int x) {
+		int p = parent[x];
+		int g = parent[p];
+		if(!isRoot(p)) {
+			if(left[g] == p) left[g] = x;
+			else right[g] = x;
+		}
+		parent[x] = g;
+		if(left[p] == x) {
+			left[p] = right[x];
+			if(right[x] >= 0) parent[right[x]] = p;
+			right[x] = p;
+		}
+		else {
+			right[p] = left[x];
+			if(left[x] >= 0) parent[left[x]] = p;
+			left[x] = p;
+		}
+		parent[p] = x;
+		update(p);
+		update(x);
+	}
+
+	//moves x to the root of its splay tree
+	private void splay(int x) {
+		int top = 0;
+		stack[top++] = x;
+		for(int y = x; !isRoot(y); y = parent[y]) stack[top++] = parent[y];
+		while(top > 0) push(stack[--top]);
+		while(!isRoot(x)) {
+			int p = parent[x];
+			if(!isRoot(p)) {
+				int g = parent[p];
+				rotate((left[g] == p) == (left[p] == x) ? p : x);
+			}
+			rotate(x);
+		}
+	}
+
+	//makes the path from the root of its tree to x preferred, x ends up the last node of its splay tree
+	private void access(int x) {
+		int last = -1;
+		for(int y = x; y >= 0; y = parent[y]) {
+			splay(y);
+			right[y] = last;
+			update(y);
+			last = y;
+		}
+		splay(x);
+	}
+
+	private void makeRoot(int x) {
+		access(x);
+		reversed[x] ^= true;
+	}
+
+	private int findRoot(int x) {
+		access(x);
+		int y = x;
+		while(true) {
+			push(y);
+			if(left[y] < 0) break;
+			y = left[y];
+		}
+		splay(y);
+		return y;
+	}
+
+	//x and y are in different trees
+	private void link(int x, int y) {
+		makeRoot(x);
+		parent[x] = y;
+	}
+
+	//x and y are adjacent
+	private void cut(int x, int y) {
+		makeRoot(x);
+		access(y);
+		left[y] = -1;
+		parent[x] = -1;
+		update(y);
+	}
+}
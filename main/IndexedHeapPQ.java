@@ -0,0 +1,190 @@
+package main;
+
+/**
+ * An adaptable priority queue of dense int ids keyed by primitive longs, based on a binary heap.
+ * Every id between 0 and capacity-1 can be in the queue at most once. The position of every id in
+ * the heap is tracked, so replaceKey and remove are O(lg n) instead of the O(n) search done by HeapPQ,
+ * and no Entry or boxed key is allocated.
+ */
+public class IndexedHeapPQ {
+
+	private int[] heap;
+	private int[] position; //index of every id in heap, -1 if the id is not in the queue
+	private long[] keys;
+	private int size;
+
+	/**
+	 * Creates an empty queue for the ids 0 .. capacity-1
+	 * @param capacity the number of distinct ids
+	 */
+	@TimeComplexity("O(n)")
+	public IndexedHeapPQ(int capacity) {
+		heap = new int[capacity];
+		position = new int[capacity];
+		keys = new long[capacity];
+		java.util.Arrays.fill(position, -1);
+	}
+
+	@TimeComplexity("O(1)")
+	public int size() {
+		return size;
+	}
+
+	@TimeComplexity("O(1)")
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of distinct ids the queue can hold
+	 */
+	@TimeComplexity("O(1)")
+	public int capacity() {
+		return position.length;
+	}
+
+	/**
+	 * Grows the queue so it can hold the ids 0 .. capacity-1, the ids already in the queue are kept
+	 * @param capacity the new number of distinct ids, ignored if it is not larger than the current one
+	 */
+	@TimeComplexity("O(n)")
+	public void ensureCapacity(int capacity) {
+		int old = position.length;
+		if(capacity <= old) return;
+		heap = java.util.Arrays.copyOf(heap, capacity);
+		keys = java.util.Arrays.copyOf(keys, capacity);
+		position = java.util.Arrays.copyOf(position, capacity);
+		java.util.Arrays.fill(position, old, capacity, -1);
+	}
+
+	@TimeComplexity("O(1)")
+	public boolean contains(int id) {
+		return position[id] >= 0;
+	}
+
+	/**
+	 * @return the current key of an id in the queue
+	 */
+	@TimeComplexity("O(1)")
+	public long key(int id) {
+		return keys[id];
+	}
+
+	/**
+	 * Adds an id that is not in the queue yet
+	 * @throws IllegalArgumentException if the id is already in the queue
+	 */
+	@TimeComplexity("O(lg n)")
+	public void insert(int id, long key) throws IllegalArgumentException {
+		if(position[id] >= 0) throw new IllegalArgumentException("Id already in Queue");
+		keys[id] = key;
+		heap[size] = id;
+		position[id] = size;
+		size++;
+		upheap(size - 1);
+	}
+
+	/**
+	 * @return the id with the smallest key, without removing it
+	 */
+	@TimeComplexity("O(1)")
+	public int min() {
+		return heap[0];
+	}
+
+	/**
+	 * @return the smallest key in the queue
+	 */
+	@TimeComplexity("O(1)")
+	public long minKey() {
+		return keys[heap[0]];
+	}
+
+	/**
+	 * Removes the id with the smallest key
+	 * @return the removed id
+	 */
+	@TimeComplexity("O(lg n)")
+	public int removeMin() {
+		int id = heap[0];
+		remove(id);
+		return id;
+	}
+
+	/**
+	 * Removes an id from the queue
+	 * @throws IllegalArgumentException if the id is not in the queue
+	 */
+	@TimeComplexity("O(lg n)")
+	public void remove(int id) throws IllegalArgumentException {
+		int j = position[id];
+		if(j < 0) throw new IllegalArgumentException("Id Not in Queue");
+		size--;
+		position[id] = -1;
+		if(j == size) return;
+		//moves the last id into the hole and restores the heap order around it
+		int moved = heap[size];
+		heap[j] = moved;
+		position[moved] = j;
+		upheap(j);
+		if(position[moved] == j) downheap(j);
+	}
+
+	/**
+	 * Changes the key of an id in the queue, in either direction
+	 * @throws IllegalArgumentException if the id is not in the queue
+	 */
+	@TimeComplexity("O(lg n)")
+	public void replaceKey(int id, long key) throws IllegalArgumentException {
+		int j = position[id];
+		if(j < 0) throw new IllegalArgumentException("Id Not in Queue");
+		long old = keys[id];
+		keys[id] = key;
+		if(key < old) upheap(j);
+		else downheap(j);
+	}
+
+	/**
+	 * Removes every id, the time is proportional to the number of ids still in the queue
+	 */
+	@TimeComplexity("O(n)")
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	//moves the id at index j up until its parent has a smaller or equal key
+	@TimeComplexity("O(lg n)")
+	private void upheap(int j) {
+		int id = heap[j];
+		long key = keys[id];
+		while(j > 0) {
+			int parent = (j - 1) / 2;
+			if(keys[heap[parent]] <= key) break;
+			heap[j] = heap[parent];
+			position[heap[j]] = j;
+			j = parent;
+		}
+		heap[j] = id;
+		position[id] = j;
+	}
+
+	//moves the id at index j down until both children have a larger or equal key
+	@TimeComplexity("O(lg n)")
+	private void downheap(int j) {
+		int id = heap[j];
+		long key = keys[id];
+		while(2 * j + 1 < size) {
+			int child = 2 * j + 1;
+			if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+			if(key <= keys[heap[child]]) break;
+			heap[j] = heap[child];
+			position[heap[j]] = j;
+			j = child;
+		}
+		heap[j] = id;
+		position[id] = j;
+	}
+}
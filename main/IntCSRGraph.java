@@ -0,0 +1,42 @@
+package main;
+
+import net.datastructures.*;
+
+/*
+ * CSR snapshot of an Integer weighted graph that keeps the weights in a primitive int column.
+ * The Integer elements of the source graph are unboxed once while the snapshot is built;
+ * afterwards weight(e) reads the column directly and only getElement() boxes.
+ */
+public class IntCSRGraph<V> extends CSRGraph<V, Integer> implements IntWeightedGraph<V> {
+
+	private final int[] weights;
+
+	/**
+	 * Compiles the given graph, see CSRGraph for the numbering of vertices and edges.
+	 * @param source the graph to copy, every edge element must be non-null
+	 * @param directed whether the source graph is directed or not
+	 */
+	@TimeComplexity("O(n+m)")
+	@TimeComplexityExpected("O(n+m)")
+	public IntCSRGraph(Graph<V, Integer> source, boolean directed) {
+		super(source, directed, false);
+		//the edge ids follow the order of source.edges(), so the weights are unboxed straight into their column
+		weights = new int[source.numEdges()];
+		int count = 0;
+		for(Edge<Integer> e : source.edges()) {
+			weights[count++] = e.getElement();
+		}
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int weight(int e) {
+		return weights[e];
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	protected Integer element(int e) {
+		return weights[e];
+	}
+}
@@ -1,6 +1,5 @@
 package main;
 
-import net.datastructures.Edge;
 import net.datastructures.Vertex;
 
 /**
@@ -10,67 +9,292 @@ import net.datastructures.Vertex;
  */
 public class Islands  {
 
-	private AdjListGraph<Integer,Integer> graph;
+	private IntCSRGraph<Integer> graph;
 	private HashMap<Integer,Vertex<Integer>> map;
+	//the average number of edges per island above which Prim beats Kruskal, see minimumSpanningCost
+	private static final int DENSE_DEGREE = 8;
 	/**
 	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
 	 * @param distance: distance[i][j] represents the distance between island[i] and island[j]. 
 	 * 					-1 means there is no edge between island[i] and island[j]. 
 	 */
 	public Islands(int numOfIslands, int distance[][]) {
-		graph = new AdjListGraph<Integer,Integer>();
-		map = new HashMap<Integer,Vertex<Integer>>();
+		//first pass over the matrix counts the edges, the second fills the parallel edge arrays
+		Integer[] islands = new Integer[numOfIslands];
 		for(int i = 0; i< numOfIslands; i++) {
-			map.put(i, graph.insertVertex(i));
+			islands[i] = i;
 		}
+		int count = 0;
 		for(int i = 0; i<distance.length; i++) {
 			for(int j = 0; j<distance[i].length; j++) {
-				if(distance[i][j]!= -1) graph.insertEdge(map.get(i), map.get(j), distance[i][j]);
+				if(distance[i][j]!= -1) count++;
 			}
 		}
-		
+		int[] from = new int[count];
+		int[] to = new int[count];
+		Integer[] costs = new Integer[count];
+		count = 0;
+		for(int i = 0; i<distance.length; i++) {
+			for(int j = 0; j<distance[i].length; j++) {
+				if(distance[i][j]!= -1) {
+					from[count] = i;
+					to[count] = j;
+					costs[count++] = distance[i][j];
+				}
+			}
+		}
+		build(islands, from, to, costs);
+	}
+
+	/**
+	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
+	 * @param from: from[i] and to[i] are the islands at both ends of edge i
+	 * @param to: see from
+	 * @param costs: costs[i] is the distance between island[from[i]] and island[to[i]]
+	 */
+	public Islands(int numOfIslands, int[] from, int[] to, int[] costs) {
+		Integer[] islands = new Integer[numOfIslands];
+		for(int i = 0; i < numOfIslands; i++) {
+			islands[i] = i;
+		}
+		Integer[] boxed = new Integer[costs.length];
+		for(int i = 0; i < costs.length; i++) {
+			boxed[i] = costs[i];
+		}
+		build(islands, from, to, boxed);
+	}
+
+	private void build(Integer[] islands, int[] from, int[] to, Integer[] costs) {
+		int numOfIslands = islands.length;
+		AdjListGraph<Integer,Integer> builder = AdjListGraph.load(false, islands, from, to, costs, false);
+		map = new HashMap<Integer,Vertex<Integer>>(4 * numOfIslands / 3 + 1);
+		//Kruskal only reads the graph, so it runs on a CSR snapshot
+		graph = new IntCSRGraph<Integer>(builder, false);
+		for(Vertex<Integer> v : graph.vertices()) {
+			map.put(v.getElement(), v);
+		}
 	}
 
 
 	/**
 	 * @return the cost of minimum spanning tree using Kruskal's algorithm. 
 	 */
+	@TimeComplexity("O(m lg m)")
 	public int Kruskal() {
-		int numOfEdges = graph.numVertices()-1;
-		HeapPQ<Integer,Edge<Integer>> sortedEdges = new HeapPQ<Integer,Edge<Integer>>();
-		HashMap<Vertex<Integer>, Integer> clouds = new HashMap<Vertex<Integer>, Integer>();
-		HashMap<Integer,Integer> cloudSpan = new HashMap<Integer,Integer>();
-		int count = 0;
-		for(Vertex<Integer> v : graph.vertices()) {
-			clouds.put(v, count);
-			cloudSpan.put(count, 0);
-			count++;
+		int n = graph.numVertices();
+		int m = graph.numEdges();
+		//sorts the edge ids by weight: the weight goes in the high half of a long and the id in the low half,
+		//so a primitive sort orders the edges without boxing a single weight
+		long[] sortedEdges = new long[m];
+		for(int e = 0; e < m; e++) {
+			sortedEdges[e] = ((long)graph.weight(e) << 32) | e;
 		}
-		for(Edge<Integer> e : graph.edges()) {
-			sortedEdges.insert(e.getElement(), e);
+		java.util.Arrays.sort(sortedEdges);
+		//every vertex starts in its own cloud, merging two clouds is a union of their sets
+		UnionFind clouds = new UnionFind(n);
+		long output = 0;
+		for(int i = 0; i < m && clouds.count() > 1; i++) {
+			int e = (int)sortedEdges[i];
+			if(clouds.union(graph.edgeSource(e), graph.edgeTarget(e))) {
+				output += graph.weight(e);
+			}
 		}
-		for(int i = 0; i<numOfEdges; i++) {
-			Edge<Integer> e = sortedEdges.removeMin().getValue();
-			Vertex<Integer>[] vertices = graph.endVertices(e);
-			if(clouds.get(vertices[0]) != clouds.get(vertices[1])){
-				cloudSpan.put(clouds.get(vertices[0]), cloudSpan.get(clouds.get(vertices[0]))+e.getElement()+ cloudSpan.get(clouds.get(vertices[1])));
-				cloudSpan.put(clouds.get(vertices[1]), 0);
-				int oldCloud = clouds.get(vertices[1]);
-				for(Vertex<Integer> v: clouds.keySet()) {
-					if(clouds.get(v) == oldCloud) {
-						clouds.put(v, clouds.get(vertices[0]));
-					}
+		return (int)output;
+		
+	}
+
+	/**
+	 * @return the cost of minimum spanning tree using the Prim-Jarnik algorithm, growing the tree from one
+	 *         island at a time with the cheapest edge leaving it, the edges being kept in an indexed heap
+	 *         keyed by the cheapest known cost of every island outside the tree
+	 */
+	@TimeComplexity("O(m lg n)")
+	public int Prim() {
+		int n = graph.numVertices();
+		boolean[] inTree = new boolean[n];
+		IndexedHeapPQ queue = new IndexedHeapPQ(n);
+		long output = 0;
+		//a new root for every part of the graph the trees so far do not reach, as Kruskal spans a forest
+		for(int root = 0; root < n; root++) {
+			if(inTree[root]) continue;
+			queue.insert(root, 0);
+			while(!queue.isEmpty()) {
+				output += queue.minKey();
+				int v = queue.removeMin();
+				inTree[v] = true;
+				int end = graph.outEnd(v);
+				for(int slot = graph.outStart(v); slot < end; slot++) {
+					int w = graph.outTarget(slot);
+					if(inTree[w]) continue;
+					int cost = graph.weight(graph.outEdge(slot));
+					if(!queue.contains(w)) queue.insert(w, cost);
+					else if(cost < queue.key(w)) queue.replaceKey(w, cost);
 				}
 			}
-			else {
-				i--;
+		}
+		return (int)output;
+	}
+
+	/**
+	 * @return the cost of minimum spanning tree using the Prim-Jarnik algorithm with plain arrays, every
+	 *         step scanning all the islands for the cheapest one, which beats a heap when almost every pair
+	 *         of islands has an edge
+	 */
+	@TimeComplexity("O(n^2 + m)")
+	public int DensePrim() {
+		int n = graph.numVertices();
+		boolean[] inTree = new boolean[n];
+		//the cheapest known edge from the tree to every island outside it
+		long[] best = new long[n];
+		java.util.Arrays.fill(best, Long.MAX_VALUE);
+		long output = 0;
+		for(int step = 0; step < n; step++) {
+			int v = -1;
+			for(int w = 0; w < n; w++) {
+				if(!inTree[w] && (v < 0 || best[w] < best[v])) v = w;
+			}
+			//an island no tree edge reaches starts a new tree
+			if(best[v] != Long.MAX_VALUE) output += best[v];
+			inTree[v] = true;
+			int end = graph.outEnd(v);
+			for(int slot = graph.outStart(v); slot < end; slot++) {
+				int w = graph.outTarget(slot);
+				if(inTree[w]) continue;
+				int cost = graph.weight(graph.outEdge(slot));
+				if(cost < best[w]) best[w] = cost;
 			}
 		}
-		int output = 0;
-		for(Integer i : cloudSpan.values()) {
-			output+= i;
+		return (int)output;
+	}
+
+	/**
+	 * @return the cost of minimum spanning tree, using the fastest algorithm for the density of the graph:
+	 *         DensePrim when at least half the pairs of islands have an edge, Prim when there are at
+	 *         least DENSE_DEGREE edges per island, otherwise Kruskal, whose sort is the cheapest on sparse
+	 *         graphs
+	 */
+	@TimeComplexity("O(min(n^2, m lg m))")
+	public int minimumSpanningCost() {
+		long n = graph.numVertices();
+		long m = graph.numEdges();
+		if(m >= n * (n - 1) / 4) return DensePrim();
+		if(m >= DENSE_DEGREE * n) return Prim();
+		return Kruskal();
+	}
+
+	/**
+	 * @return the cost of minimum spanning tree using Boruvka's algorithm on the common ForkJoinPool
+	 */
+	@TimeComplexity("O(m lg n)")
+	public int Boruvka() {
+		return Boruvka(java.util.concurrent.ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Boruvka's algorithm in parallel rounds: every component picks its cheapest edge to another component,
+	 * all the picked edges join the tree, and their components are merged in a ConcurrentUnionFind. Each
+	 * round at least halves the number of components. The edges are ordered by cost and then by edge id,
+	 * so the picked edges never close a cycle and two components picking the same edge add it once.
+	 * @param pool the threads that run the rounds
+	 * @return the cost of minimum spanning tree
+	 */
+	@TimeComplexity("O(m lg n)")
+	public int Boruvka(java.util.concurrent.ForkJoinPool pool) {
+		int n = graph.numVertices();
+		ConcurrentUnionFind clouds = new ConcurrentUnionFind(n);
+		//the cheapest edge leaving every cloud, as (cost, edge id) packed in a long
+		java.util.concurrent.atomic.AtomicLongArray cheapest = new java.util.concurrent.atomic.AtomicLongArray(n);
+		java.util.concurrent.atomic.LongAdder output = new java.util.concurrent.atomic.LongAdder();
+		//the root of the cloud of every vertex, refreshed at the start of every round
+		int[] labels = new int[n];
+		int[] edges = java.util.stream.IntStream.range(0, graph.numEdges()).toArray();
+		while(true) {
+			pool.submit(() -> java.util.stream.IntStream.range(0, n).parallel().forEach(v -> {
+				labels[v] = clouds.find(v);
+				cheapest.set(v, Long.MAX_VALUE);
+			})).join();
+			//the edges inside a cloud can never be picked again
+			int[] last = edges;
+			edges = pool.submit(() -> java.util.stream.IntStream.of(last).parallel()
+					.filter(e -> labels[graph.edgeSource(e)] != labels[graph.edgeTarget(e)]).toArray()).join();
+			if(edges.length == 0) break;
+			int[] live = edges;
+			pool.submit(() -> java.util.stream.IntStream.of(live).parallel().forEach(e -> {
+				long key = ((long)graph.weight(e) << 32) | e;
+				lower(cheapest, labels[graph.edgeSource(e)], key);
+				lower(cheapest, labels[graph.edgeTarget(e)], key);
+			})).join();
+			//the clouds are only merged once every cloud has picked its edge
+			pool.submit(() -> java.util.stream.IntStream.range(0, n).parallel().forEach(v -> {
+				long key = cheapest.get(v);
+				if(key == Long.MAX_VALUE) return;
+				int e = (int)key;
+				if(clouds.union(graph.edgeSource(e), graph.edgeTarget(e))) output.add(graph.weight(e));
+			})).join();
 		}
-		return output;
-		
+		return (int)output.sum();
+	}
+
+	//lowers the cheapest edge of a cloud to key if key is cheaper
+	private static void lower(java.util.concurrent.atomic.AtomicLongArray cheapest, int cloud, long key) {
+		long current = cheapest.get(cloud);
+		while(key < current && !cheapest.compareAndSet(cloud, current, key)) current = cheapest.get(cloud);
+	}
+
+	/**
+	 * Computes the cost of minimum spanning tree straight from a distance matrix, without building the graph
+	 * of the constructor: the array Prim of DensePrim reads the matrix in place, so apart from the input only
+	 * two arrays of n entries are allocated, where the graph took an edge object per matrix entry.
+	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
+	 * @param distance: distance[i][j] represents the distance between island[i] and island[j], as for the
+	 *                  constructor. -1, or a missing row or entry, means there is no edge. The matrix does not
+	 *                  need to be symmetric, the cheaper of distance[i][j] and distance[j][i] is used.
+	 * @return the cost of minimum spanning tree, of the minimum spanning forest if the islands are not connected
+	 */
+	@TimeComplexity("O(n^2)")
+	@SpaceComplexity("O(n)")
+	public static int minimumSpanningCost(int numOfIslands, int distance[][]) {
+		return matrixPrim(numOfIslands, (i, j) -> i < distance.length && j < distance[i].length ? distance[i][j] : -1);
+	}
+
+	/**
+	 * Computes the cost of minimum spanning tree straight from a distance matrix stored row after row in
+	 * one array, see minimumSpanningCost(int, int[][]).
+	 * @param numOfIslands: total number of islands. It will be numbered as 0,1,2,...
+	 * @param distance: distance[i*numOfIslands + j] represents the distance between island[i] and island[j],
+	 *                  -1 means there is no edge
+	 * @return the cost of minimum spanning tree, of the minimum spanning forest if the islands are not connected
+	 * @throws IllegalArgumentException if the array does not hold numOfIslands rows of numOfIslands entries
+	 */
+	@TimeComplexity("O(n^2)")
+	@SpaceComplexity("O(n)")
+	public static int minimumSpanningCost(int numOfIslands, int distance[]) {
+		if((long)numOfIslands * numOfIslands != distance.length) throw new IllegalArgumentException("Invalid matrix");
+		return matrixPrim(numOfIslands, (i, j) -> distance[i * numOfIslands + j]);
+	}
+
+	//array Prim over the entries of a matrix, each pair of islands is read once from both sides
+	private static int matrixPrim(int n, java.util.function.IntBinaryOperator entry) {
+		boolean[] inTree = new boolean[n];
+		long[] best = new long[n];
+		java.util.Arrays.fill(best, Long.MAX_VALUE);
+		long output = 0;
+		for(int step = 0; step < n; step++) {
+			int v = -1;
+			for(int w = 0; w < n; w++) {
+				if(!inTree[w] && (v < 0 || best[w] < best[v])) v = w;
+			}
+			//best is unset when v starts another part of a forest
+			if(best[v] != Long.MAX_VALUE) output += best[v];
+			inTree[v] = true;
+			for(int w = 0; w < n; w++) {
+				if(inTree[w]) continue;
+				int forward = entry.applyAsInt(v, w);
+				int backward = entry.applyAsInt(w, v);
+				int cost = forward == -1 ? backward : backward == -1 ? forward : Math.min(forward, backward);
+				if(cost != -1 && cost < best[w]) best[w] = cost;
+			}
+		}
+		return (int)output;
 	}
 }
@@ -0,0 +1,205 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import net.datastructures.IntWeightedGraph;
+
+/*
+ * ALT heuristic (A*, landmarks, triangle inequality). The distances from every landmark L to every vertex,
+ * and for directed graphs from every vertex to L, are computed once. By the triangle inequality
+ * d(L,t) - d(L,v) and d(v,L) - d(t,L) are lower bounds of d(v,t), and the estimate is the largest of them
+ * over all landmarks. The tables can be saved and loaded so the preprocessing is done only once per graph.
+ *
+ * The distances of a vertex to all the landmarks are stored next to each other, so an estimate reads two
+ * contiguous rows. Unreachable pairs are stored as Long.MAX_VALUE and give no bound.
+ */
+public class Landmarks implements AStarSearch.Heuristic {
+
+	private static final int MAGIC = 0x4c4d524b; //"LMRK"
+	private static final int FORMAT = 2;
+	private static final long UNREACHABLE = Long.MAX_VALUE;
+
+	final IntWeightedGraph<?> graph;
+	private final int[] landmarks;
+	private final long[] from; //from[v*k+i] = d(landmark i, v)
+	private final long[] to;   //to[v*k+i] = d(v, landmark i), the same table for undirected graphs
+
+	private Landmarks(IntWeightedGraph<?> graph, int[] landmarks, long[] from, long[] to) {
+		this.graph = graph;
+		this.landmarks = landmarks;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Computes the tables for the given landmarks.
+	 * @param graph a graph with non-negative weights
+	 * @param landmarks the ids of the landmark vertices
+	 */
+	@TimeComplexity("O(k (n+m) lg n)")
+	public Landmarks(IntWeightedGraph<?> graph, int[] landmarks) {
+		this.graph = graph;
+		this.landmarks = landmarks.clone();
+		int n = graph.numVertices();
+		int k = landmarks.length;
+		from = new long[n * k];
+		to = graph.isDirected() ? new long[n * k] : from;
+		long[] dist = new long[n];
+		IndexedHeapPQ queue = new IndexedHeapPQ(n);
+		for(int i = 0; i < k; i++) {
+			distances(graph, landmarks[i], true, dist, queue);
+			for(int v = 0; v < n; v++) from[v * k + i] = dist[v];
+			if(graph.isDirected()) {
+				distances(graph, landmarks[i], false, dist, queue);
+				for(int v = 0; v < n; v++) to[v * k + i] = dist[v];
+			}
+		}
+	}
+
+	/**
+	 * Chooses count landmarks by farthest selection, each new landmark being the vertex farthest from
+	 * the ones already chosen, which spreads them around the border of the graph.
+	 * @param graph a graph with non-negative weights
+	 * @param count the number of landmarks, at most the number of vertices
+	 */
+	@TimeComplexity("O(k (n+m) lg n)")
+	public static Landmarks select(IntWeightedGraph<?> graph, int count) {
+		int n = graph.numVertices();
+		count = Math.min(count, n);
+		int[] chosen = new int[count];
+		long[] nearest = new long[n];
+		long[] dist = new long[n];
+		IndexedHeapPQ queue = new IndexedHeapPQ(n);
+		java.util.Arrays.fill(nearest, UNREACHABLE);
+		//the first landmark is the vertex farthest from vertex 0
+		if(count > 0) distances(graph, 0, true, nearest, queue);
+		for(int i = 0; i < count; i++) {
+			int best = 0;
+			for(int v = 1; v < n; v++) {
+				if(nearest[v] > nearest[best]) best = v;
+			}
+			chosen[i] = best;
+			if(i == 0) java.util.Arrays.fill(nearest, UNREACHABLE);
+			distances(graph, best, true, dist, queue);
+			for(int v = 0; v < n; v++) nearest[v] = Math.min(nearest[v], dist[v]);
+		}
+		return new Landmarks(graph, chosen);
+	}
+
+	/**
+	 * @return the ids of the landmarks
+	 */
+	@TimeComplexity("O(k)")
+	public int[] landmarks() {
+		return landmarks.clone();
+	}
+
+	@TimeComplexity("O(k)")
+	@Override
+	public long estimate(int v, int target) {
+		int k = landmarks.length;
+		long best = 0;
+		for(int i = 0; i < k; i++) {
+			long landmarkToTarget = from[target * k + i];
+			long landmarkToV = from[v * k + i];
+			if(landmarkToTarget != UNREACHABLE && landmarkToV != UNREACHABLE) best = Math.max(best, landmarkToTarget - landmarkToV);
+			long vToLandmark = to[v * k + i];
+			long targetToLandmark = to[target * k + i];
+			if(vToLandmark != UNREACHABLE && targetToLandmark != UNREACHABLE) best = Math.max(best, vToLandmark - targetToLandmark);
+		}
+		return best;
+	}
+
+	/**
+	 * Saves the tables, they can only be loaded back for the same graph. A checksum of the edges and their
+	 * weights is saved with them, so tables of another graph with the same shape are not accepted.
+	 * @param path the file to create or overwrite
+	 */
+	@TimeComplexity("O(k n + m)")
+	public void save(Path path) throws IOException {
+		int n = graph.numVertices();
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT);
+			out.writeInt(graph.isDirected() ? 1 : 0);
+			out.writeInt(n);
+			out.writeInt(graph.numEdges());
+			out.writeLong(checksum(graph));
+			out.writeInt(landmarks.length);
+			for(int l : landmarks) out.writeInt(l);
+			for(long d : from) out.writeLong(d);
+			if(graph.isDirected()) {
+				for(long d : to) out.writeLong(d);
+			}
+		}
+	}
+
+	/**
+	 * Loads tables saved by save.
+	 * @param path the saved tables
+	 * @param graph the graph the tables were computed for
+	 * @throws IOException if the file cannot be read or was not saved for the same edges and weights
+	 */
+	@TimeComplexity("O(k n + m)")
+	public static Landmarks load(Path path, IntWeightedGraph<?> graph) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+			if(in.readInt() != MAGIC) throw new IOException("Not a landmark file");
+			if(in.readInt() != FORMAT) throw new IOException("Unsupported landmark file version");
+			boolean directed = in.readInt() != 0;
+			int n = in.readInt();
+			int m = in.readInt();
+			long checksum = in.readLong();
+			if(directed != graph.isDirected() || n != graph.numVertices() || m != graph.numEdges() || checksum != checksum(graph)) {
+				throw new IOException("Landmark file was saved for another graph");
+			}
+			int[] landmarks = new int[in.readInt()];
+			for(int i = 0; i < landmarks.length; i++) landmarks[i] = in.readInt();
+			long[] from = new long[n * landmarks.length];
+			for(int i = 0; i < from.length; i++) from[i] = in.readLong();
+			long[] to = from;
+			if(directed) {
+				to = new long[from.length];
+				for(int i = 0; i < to.length; i++) to[i] = in.readLong();
+			}
+			return new Landmarks(graph, landmarks, from, to);
+		}
+	}
+
+	//hash of the ends and the weight of every edge in id order, the ids are the same in a saved graph file
+	private static long checksum(IntWeightedGraph<?> graph) {
+		long hash = 0;
+		for(int e = 0; e < graph.numEdges(); e++) {
+			hash = (hash + graph.edgeSource(e)) * 0x9e3779b97f4a7c15L;
+			hash = (hash + graph.edgeTarget(e)) * 0x9e3779b97f4a7c15L;
+			hash = (hash + graph.weight(e)) * 0x9e3779b97f4a7c15L;
+		}
+		return hash;
+	}
+
+	//single source distances over the outgoing slots, or to a single target over the incoming slots
+	private static void distances(IntWeightedGraph<?> graph, int root, boolean outgoing, long[] dist, IndexedHeapPQ queue) {
+		java.util.Arrays.fill(dist, UNREACHABLE);
+		dist[root] = 0;
+		queue.insert(root, 0);
+		while(!queue.isEmpty()) {
+			int v = queue.removeMin();
+			int start = outgoing ? graph.outStart(v) : graph.inStart(v);
+			int end = outgoing ? graph.outEnd(v) : graph.inEnd(v);
+			for(int slot = start; slot < end; slot++) {
+				int w = outgoing ? graph.outTarget(slot) : graph.inSource(slot);
+				long newDistance = dist[v] + graph.weight(outgoing ? graph.outEdge(slot) : graph.inEdge(slot));
+				if(newDistance < dist[w]) {
+					if(dist[w] == UNREACHABLE) queue.insert(w, newDistance);
+					else queue.replaceKey(w, newDistance);
+					dist[w] = newDistance;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,617 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.datastructures.*;
+
+/*
+ * Read-only graph backed by a memory-mapped binary file. The file holds the CSR form of a graph with
+ * String vertex labels and int weights, so opening it only maps the file and reads the header: no vertex,
+ * edge or label object is created until a query asks for one, and the pages are loaded by the OS on demand.
+ *
+ * File layout, all ints big-endian:
+ *   header       magic, format version, flags (bit 0: directed, bit 1: label ordered), n, m, number of out slots,
+ *                size of the label table, number of label bytes
+ *   labelOffsets n+1 ints, the label of vertex v is the UTF-8 bytes labelOffsets[v] .. labelOffsets[v+1]-1
+ *   labelTable   open addressing table of vertex ids (-1 for a free slot) keyed by String.hashCode of the label
+ *   edgeSources, edgeTargets, weights   m ints each
+ *   outOffsets   n+1 ints, then outTargets and outEdges. When the file is label ordered every row is ordered
+ *                by the label of the opposite vertex, then by edge id
+ *   inOffsets    n+1 ints, then inSources and inEdges (directed graphs only)
+ *   labels       the UTF-8 bytes of all labels
+ *
+ * The vertex and edge ids are the ones of the CSR snapshot the file was written from. A single mapping is
+ * used, so a file is limited to 2GB.
+ */
+public class MappedGraph implements IntWeightedGraph<String> {
+
+	private static final int MAGIC = 0x47524146; //"GRAF"
+	private static final int FORMAT = 1;
+	private static final int HEADER = 8;
+
+	private final ByteBuffer buffer;
+	private final IntBuffer ints;
+	private final boolean directed;
+	private final boolean labelOrdered;
+	private final int n;
+	private final int m;
+	private final int tableMask;
+
+	//int index of every section in the file
+	private final int labelOffsets;
+	private final int labelTable;
+	private final int edgeSources;
+	private final int edgeTargets;
+	private final int weights;
+	private final int outOffsets;
+	private final int outTargets;
+	private final int outEdges;
+	private final int inOffsets;
+	private final int inSources;
+	private final int inEdges;
+	private final int labels; //byte index
+
+	private MappedGraph(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if(buffer.limit() < 4 * HEADER || buffer.getInt(0) != MAGIC) throw new IOException("Not a graph file");
+		if(buffer.getInt(4) != FORMAT) throw new IOException("Unsupported graph file version " + buffer.getInt(4));
+		directed = (buffer.getInt(8) & 1) != 0;
+		labelOrdered = (buffer.getInt(8) & 2) != 0;
+		n = buffer.getInt(12);
+		m = buffer.getInt(16);
+		int slots = buffer.getInt(20);
+		int tableSize = buffer.getInt(24);
+		int labelBytes = buffer.getInt(28);
+		//a corrupt header must not wrap the section offsets around, so they are computed in long and
+		//checked against the file size before any section is read
+		if(n < 0 || m < 0 || labelBytes < 0) throw new IOException("Corrupt graph file header");
+		if(slots != (directed ? m : 2L * m)) throw new IOException("Corrupt graph file header");
+		if(tableSize < n || Integer.bitCount(tableSize) != 1) throw new IOException("Corrupt graph file header");
+		long labelTable = HEADER + n + 1L;
+		long edgeSources = labelTable + tableSize;
+		long outOffsets = edgeSources + 3L * m;
+		long outEdges = outOffsets + n + 1L + slots;
+		long inOffsets = outEdges + slots;
+		long labels = 4 * (directed ? inOffsets + n + 1L + 2L * m : inOffsets);
+		if(labels + labelBytes != buffer.limit()) throw new IOException("Truncated graph file");
+		//every offset is now below the size of the mapping, which fits in an int
+		this.ints = buffer.asIntBuffer();
+		tableMask = tableSize - 1;
+		labelOffsets = HEADER;
+		this.labelTable = (int)labelTable;
+		this.edgeSources = (int)edgeSources;
+		edgeTargets = this.edgeSources + m;
+		weights = edgeTargets + m;
+		this.outOffsets = (int)outOffsets;
+		outTargets = this.outOffsets + n + 1;
+		this.outEdges = (int)outEdges;
+		if(directed) {
+			this.inOffsets = (int)inOffsets;
+			inSources = this.inOffsets + n + 1;
+			inEdges = inSources + m;
+		}
+		else {
+			this.inOffsets = this.outOffsets;
+			inSources = outTargets;
+			inEdges = this.outEdges;
+		}
+		this.labels = (int)labels;
+	}
+
+	/**
+	 * Maps a graph file written by write. The file stays mapped as long as the graph is reachable.
+	 * @param path the graph file
+	 * @return a read-only graph over the mapped file
+	 * @throws IOException if the file cannot be mapped or is not a graph file
+	 */
+	@TimeComplexity("O(1)")
+	public static MappedGraph open(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new MappedGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Writes any Integer weighted graph as a graph file, the labels are the String.valueOf of the vertex elements.
+	 * @param graph the graph to write, every edge element must be non-null
+	 * @param directed whether the graph is directed or not
+	 * @param path the file to create or overwrite
+	 */
+	@TimeComplexity("O(n lg n + m lg m)")
+	@TimeComplexityExpected("O(n lg n + m lg m)")
+	public static <V> void write(Graph<V, Integer> graph, boolean directed, Path path) throws IOException {
+		if(graph instanceof IntWeightedGraph) write((IntWeightedGraph<V>)graph, path);
+		else write(new IntCSRGraph<V>(graph, directed), path);
+	}
+
+	/**
+	 * Writes a graph that already has dense ids, the ids are kept in the file. The outgoing rows are written
+	 * ordered by the label of the opposite vertex, so a reader wanting them in that order needs no labels.
+	 * @param graph the graph to write
+	 * @param path the file to create or overwrite
+	 */
+	@TimeComplexity("O(n lg n + m lg m)")
+	public static <V> void write(IntWeightedGraph<V> graph, Path path) throws IOException {
+		int n = graph.numVertices();
+		int m = graph.numEdges();
+		boolean directed = graph.isDirected();
+		int slots = n == 0 ? 0 : graph.outEnd(n - 1);
+
+		//encodes the labels and fills the label table, sized to at most half full
+		byte[][] encoded = new byte[n][];
+		int tableSize = 1;
+		while(tableSize < 2 * n) tableSize <<= 1;
+		int[] table = new int[tableSize];
+		java.util.Arrays.fill(table, -1);
+		int labelBytes = 0;
+		for(int v = 0; v < n; v++) {
+			String label = String.valueOf(graph.vertex(v).getElement());
+			encoded[v] = label.getBytes(StandardCharsets.UTF_8);
+			labelBytes += encoded[v].length;
+			int slot = label.hashCode() & (tableSize - 1);
+			while(table[slot] != -1) slot = (slot + 1) & (tableSize - 1);
+			table[slot] = v;
+		}
+		int[] rowEdges = labelOrder(graph, encoded);
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT);
+			out.writeInt((directed ? 1 : 0) | 2);
+			out.writeInt(n);
+			out.writeInt(m);
+			out.writeInt(slots);
+			out.writeInt(tableSize);
+			out.writeInt(labelBytes);
+			int offset = 0;
+			out.writeInt(offset);
+			for(int v = 0; v < n; v++) {
+				offset += encoded[v].length;
+				out.writeInt(offset);
+			}
+			for(int i = 0; i < tableSize; i++) out.writeInt(table[i]);
+			for(int e = 0; e < m; e++) out.writeInt(graph.edgeSource(e));
+			for(int e = 0; e < m; e++) out.writeInt(graph.edgeTarget(e));
+			for(int e = 0; e < m; e++) out.writeInt(graph.weight(e));
+			out.writeInt(0);
+			for(int v = 0; v < n; v++) out.writeInt(graph.outEnd(v));
+			for(int v = 0; v < n; v++) {
+				for(int s = graph.outStart(v); s < graph.outEnd(v); s++) {
+					int e = rowEdges[s];
+					out.writeInt(graph.edgeSource(e) == v ? graph.edgeTarget(e) : graph.edgeSource(e));
+				}
+			}
+			for(int s = 0; s < slots; s++) out.writeInt(rowEdges[s]);
+			if(directed) {
+				out.writeInt(0);
+				for(int v = 0; v < n; v++) out.writeInt(graph.inEnd(v));
+				for(int s = 0; s < m; s++) out.writeInt(graph.inSource(s));
+				for(int s = 0; s < m; s++) out.writeInt(graph.inEdge(s));
+			}
+			for(int v = 0; v < n; v++) out.write(encoded[v]);
+		}
+	}
+
+	//the edge of every outgoing slot once each row is ordered by the label of the opposite vertex, labels are
+	//ranked once and every row is sorted on (rank, edge id) packed in a long
+	private static int[] labelOrder(IntWeightedGraph<?> graph, byte[][] encoded) {
+		int n = graph.numVertices();
+		String[] names = new String[n];
+		for(int v = 0; v < n; v++) names[v] = new String(encoded[v], StandardCharsets.UTF_8);
+		String[] order = names.clone();
+		java.util.Arrays.sort(order);
+		int[] ranks = new int[n];
+		for(int v = 0; v < n; v++) ranks[v] = java.util.Arrays.binarySearch(order, names[v]);
+		int[] edges = new int[n == 0 ? 0 : graph.outEnd(n - 1)];
+		long[] row = new long[16];
+		for(int v = 0; v < n; v++) {
+			int start = graph.outStart(v);
+			int degree = graph.outEnd(v) - start;
+			if(degree > row.length) row = new long[Math.max(degree, 2 * row.length)];
+			for(int i = 0; i < degree; i++) row[i] = ((long)ranks[graph.outTarget(start + i)] << 32) | graph.outEdge(start + i);
+			java.util.Arrays.sort(row, 0, degree);
+			for(int i = 0; i < degree; i++) edges[start + i] = (int)row[i];
+		}
+		return edges;
+	}
+
+	/**
+	 * @return whether every outgoing row of the file is ordered by the label of the opposite vertex, then by
+	 *         edge id. Files written before the order was kept are not
+	 */
+	@TimeComplexity("O(1)")
+	public boolean isLabelOrdered() {
+		return labelOrdered;
+	}
+
+	/**
+	 * Finds a vertex by its label through the label table of the file.
+	 * @param label the label of the vertex
+	 * @return the vertex, or null if no vertex has the label
+	 */
+	@TimeComplexityExpected("O(1)")
+	public Vertex<String> vertex(String label) {
+		int id = find(label);
+		return id < 0 ? null : new MappedVertex(id);
+	}
+
+	/**
+	 * @return the id of the vertex with the given label, or -1
+	 */
+	@TimeComplexityExpected("O(1)")
+	public int find(String label) {
+		if(n == 0) return -1;
+		byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+		for(int slot = label.hashCode() & tableMask; ; slot = (slot + 1) & tableMask) {
+			int v = ints.get(labelTable + slot);
+			if(v < 0) return -1;
+			if(labelEquals(v, bytes)) return v;
+		}
+	}
+
+	/**
+	 * Decodes the label of a vertex from the mapped file.
+	 * @param v a dense vertex id
+	 * @return the label of the vertex
+	 */
+	@TimeComplexity("O(1)")
+	public String label(int v) {
+		int start = ints.get(labelOffsets + v);
+		byte[] bytes = new byte[ints.get(labelOffsets + v + 1) - start];
+		buffer.get(labels + start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	//compares the label of v with the given bytes without decoding it
+	private boolean labelEquals(int v, byte[] bytes) {
+		int start = ints.get(labelOffsets + v);
+		if(ints.get(labelOffsets + v + 1) - start != bytes.length) return false;
+		for(int i = 0; i < bytes.length; i++) {
+			if(buffer.get(labels + start + i) != bytes[i]) return false;
+		}
+		return true;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public boolean isDirected() {
+		return directed;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int vertexId(Vertex<String> v) throws IllegalArgumentException {
+		if(!(v instanceof MappedVertex)) throw new IllegalArgumentException("Invalid Vertex");
+		MappedVertex vertex = (MappedVertex)v;
+		if(vertex.owner() != this) throw new IllegalArgumentException("Vertex not in graph");
+		return vertex.id;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Vertex<String> vertex(int id) {
+		if(id < 0 || id >= n) throw new IndexOutOfBoundsException("Invalid vertex id " + id);
+		return new MappedVertex(id);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int edgeId(Edge<Integer> e) throws IllegalArgumentException {
+		if(!(e instanceof MappedEdge)) throw new IllegalArgumentException("Invalid Edge");
+		MappedEdge edge = (MappedEdge)e;
+		if(edge.owner() != this) throw new IllegalArgumentException("Edge not in graph");
+		return edge.id;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Edge<Integer> edge(int id) {
+		if(id < 0 || id >= m) throw new IndexOutOfBoundsException("Invalid edge id " + id);
+		return new MappedEdge(id);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int weight(int e) {
+		return ints.get(weights + e);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int edgeSource(int e) {
+		return ints.get(edgeSources + e);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int edgeTarget(int e) {
+		return ints.get(edgeTargets + e);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outStart(int v) {
+		return ints.get(outOffsets + v);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outEnd(int v) {
+		return ints.get(outOffsets + v + 1);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outTarget(int slot) {
+		return ints.get(outTargets + slot);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outEdge(int slot) {
+		return ints.get(outEdges + slot);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inStart(int v) {
+		return ints.get(inOffsets + v);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inEnd(int v) {
+		return ints.get(inOffsets + v + 1);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inSource(int slot) {
+		return ints.get(inSources + slot);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inEdge(int slot) {
+		return ints.get(inEdges + slot);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int numVertices() {
+		return n;
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int numEdges() {
+		return m;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a read-only view creating the vertices as they are iterated
+	 * @see net.datastructures.Graph#vertices()
+	 */
+	public Iterable<Vertex<String>> vertices() {
+		return new RangeView<Vertex<String>>(n, MappedVertex::new);
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * returns a read-only view creating the edges as they are iterated
+	 * @see net.datastructures.Graph#edges()
+	 */
+	public Iterable<Edge<Integer>> edges() {
+		return new RangeView<Edge<Integer>>(m, MappedEdge::new);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int outDegree(Vertex<String> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return outEnd(id) - outStart(id);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public int inDegree(Vertex<String> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return inEnd(id) - inStart(id);
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterable<Edge<Integer>> outgoingEdges(Vertex<String> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return new RowView(outEdges, outStart(id), outEnd(id));
+	}
+
+	@TimeComplexity("O(1)")
+	@Override
+	public Iterable<Edge<Integer>> incomingEdges(Vertex<String> v) throws IllegalArgumentException {
+		int id = vertexId(v);
+		return new RowView(inEdges, inStart(id), inEnd(id));
+	}
+
+	@TimeComplexity("O(m)")
+	@Override
+	public Edge<Integer> getEdge(Vertex<String> u, Vertex<String> v) throws IllegalArgumentException {
+		int from = vertexId(u);
+		int to = vertexId(v);
+		//scans the row of u for the slot pointing at v
+		for(int slot = outStart(from); slot < outEnd(from); slot++) {
+			if(outTarget(slot) == to) return new MappedEdge(outEdge(slot));
+		}
+		return null;
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#endVertices(net.datastructures.Edge)
+	 */
+	public Vertex<String>[] endVertices(Edge<Integer> e) throws IllegalArgumentException {
+		int id = edgeId(e);
+		return new MappedVertex[] {new MappedVertex(edgeSource(id)), new MappedVertex(edgeTarget(id))};
+	}
+
+	@TimeComplexity("O(1)")
+	/* (non-Javadoc)
+	 * @see net.datastructures.Graph#opposite(net.datastructures.Vertex, net.datastructures.Edge)
+	 */
+	public Vertex<String> opposite(Vertex<String> v, Edge<Integer> e) throws IllegalArgumentException {
+		int id = edgeId(e);
+		int vertex = vertexId(v);
+		//check which side of the edge is the vertex and returns the other
+		if(edgeSource(id) == vertex) return new MappedVertex(edgeTarget(id));
+		else if(edgeTarget(id) == vertex) return new MappedVertex(edgeSource(id));
+		return null;
+	}
+
+	@Override
+	public Vertex<String> insertVertex(String element) {
+		throw new UnsupportedOperationException("Mapped graph is read-only");
+	}
+
+	@Override
+	public Edge<Integer> insertEdge(Vertex<String> u, Vertex<String> v, Integer element) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Mapped graph is read-only");
+	}
+
+	@Override
+	public void removeVertex(Vertex<String> v) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Mapped graph is read-only");
+	}
+
+	@Override
+	public void removeEdge(Edge<Integer> e) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Mapped graph is read-only");
+	}
+
+	//vertex handle created on demand, equal to every other handle of the same id in the same graph
+	private class MappedVertex implements Vertex<String> {
+		final int id;
+
+		MappedVertex(int id) {
+			this.id = id;
+		}
+
+		MappedGraph owner() {
+			return MappedGraph.this;
+		}
+
+		@Override
+		public String getElement() {
+			return label(id);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof MappedVertex && ((MappedVertex)o).id == id && ((MappedVertex)o).owner() == MappedGraph.this;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+	}
+
+	//edge handle created on demand, the element is the weight read from the file
+	private class MappedEdge implements Edge<Integer> {
+		final int id;
+
+		MappedEdge(int id) {
+			this.id = id;
+		}
+
+		MappedGraph owner() {
+			return MappedGraph.this;
+		}
+
+		@Override
+		public Integer getElement() {
+			return weight(id);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof MappedEdge && ((MappedEdge)o).id == id && ((MappedEdge)o).owner() == MappedGraph.this;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+	}
+
+	//read-only iterable over the ids 0 .. size-1 as vertices or edges
+	private class RangeView<T> implements Iterable<T> {
+		private final int size;
+		private final java.util.function.IntFunction<T> item;
+
+		RangeView(int size, java.util.function.IntFunction<T> item) {
+			this.size = size;
+			this.item = item;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+				private int id = 0;
+
+				@Override
+				public boolean hasNext() {
+					return id < size;
+				}
+
+				@Override
+				public T next() {
+					if(id >= size) throw new NoSuchElementException();
+					return item.apply(id++);
+				}
+			};
+		}
+	}
+
+	//read-only iterable over the edges stored in the slots start .. end-1 of a row section
+	private class RowView implements Iterable<Edge<Integer>> {
+		private final int section;
+		private final int start;
+		private final int end;
+
+		RowView(int section, int start, int end) {
+			this.section = section;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public Iterator<Edge<Integer>> iterator() {
+			return new Iterator<Edge<Integer>>() {
+				private int slot = start;
+
+				@Override
+				public boolean hasNext() {
+					return slot < end;
+				}
+
+				@Override
+				public Edge<Integer> next() {
+					if(slot >= end) throw new NoSuchElementException();
+					return new MappedEdge(ints.get(section + slot++));
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,372 @@
+package main;
+
+import net.datastructures.Position;
+
+/*
+ * Bounded cache of Travel query results, keyed on (algorithm, departure, destination), with W-TinyLFU
+ * eviction. New routes enter a small LRU window of 1% of the capacity. A route pushed out of the window is
+ * only admitted to the main LRU area if it has been asked for more often than the route main would evict,
+ * the frequencies being estimated by a count-min sketch of 4 bit counters that are halved every 10 times
+ * the capacity queries, so old popularity fades. A burst of one-off queries therefore cannot flush the
+ * few hundred hot pairs out of the cache.
+ *
+ * Departure cities that keep missing get their whole shortest path tree cached, in a separate LRU of trees,
+ * so every destination from a hot origin is answered by walking the tree.
+ *
+ * The cache belongs to one graph: a lookup with another graph, after the routes have changed, clears it,
+ * and results computed on an older graph are not stored. All methods are synchronized.
+ */
+public class RouteCache {
+
+	//a departure with this many estimated misses gets its shortest path tree cached
+	private static final int TREE_THRESHOLD = 4;
+	private static final int MAX_COUNT = 15;
+
+	private final int capacity;
+	private final int windowCapacity;
+	private final int treeCapacity;
+
+	private Object graph;
+	private HashMap<Key,Node> entries;
+	private DoublyLinkedList<Node> window;
+	private DoublyLinkedList<Node> main;
+	private HashMap<Integer,TreeNode> trees;
+	private DoublyLinkedList<TreeNode> treeOrder;
+
+	//count-min sketch, 4 rows of width counters, one byte per counter
+	private final byte[] counts;
+	private final int width;
+	private int additions;
+
+	private long hits;
+	private long treeHits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * @param capacity the number of routes kept, at least 1
+	 * @param trees the number of shortest path trees kept, each takes O(n) memory, 0 to cache no tree
+	 */
+	public RouteCache(int capacity, int trees) {
+		if(capacity < 1 || trees < 0) throw new IllegalArgumentException("Invalid cache capacity");
+		this.capacity = capacity;
+		windowCapacity = Math.max(1, capacity / 100);
+		treeCapacity = trees;
+		int w = 16;
+		while(w < 2 * capacity && w < (1 << 26)) w <<= 1;
+		width = w;
+		counts = new byte[4 * width];
+		reset();
+	}
+
+	/**
+	 * @return the number of lookups answered by a cached route
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups answered by a cached shortest path tree
+	 */
+	public synchronized long treeHits() {
+		return treeHits;
+	}
+
+	/**
+	 * @return the number of lookups that had to search the graph, each stored its route or tree
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of routes dropped to keep the cache within its capacity
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of times the cache was cleared because the routes changed
+	 */
+	public synchronized long invalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * @return the fraction of lookups answered from the cache, 0 before the first lookup
+	 */
+	public synchronized double hitRate() {
+		long lookups = hits + treeHits + misses;
+		return lookups == 0 ? 0 : (double)(hits + treeHits) / lookups;
+	}
+
+	/**
+	 * @return the number of cached routes
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of cached shortest path trees
+	 */
+	public synchronized int numTrees() {
+		return trees.size();
+	}
+
+	/**
+	 * Drops every cached route and tree, the statistics are kept.
+	 */
+	@TimeComplexity("O(c)")
+	public synchronized void clear() {
+		reset();
+	}
+
+	/**
+	 * Looks up a route and counts the query in the frequency sketch.
+	 * @return the cached route, or null
+	 */
+	@TimeComplexityExpected("O(1)")
+	synchronized Route get(Object graph, String algorithm, String departure, String destination) {
+		bind(graph);
+		Key key = new Key(algorithm, departure, destination);
+		increment(key.hash);
+		Node node = entries.get(key);
+		if(node == null) return null;
+		hits++;
+		touch(node);
+		return node.route;
+	}
+
+	/**
+	 * Counts a miss and stores the route that was searched for, unless the graph has changed since.
+	 */
+	@TimeComplexityExpected("O(1)")
+	synchronized void put(Object graph, String algorithm, String departure, String destination, Route route) {
+		misses++;
+		if(graph != this.graph) return;
+		Key key = new Key(algorithm, departure, destination);
+		if(entries.get(key) != null) return;
+		Node node = new Node(key, route);
+		node.position = window.addLast(node);
+		entries.put(key, node);
+		if(window.size() > windowCapacity) admit(window.first().getElement());
+	}
+
+	/**
+	 * Looks up the shortest path tree of a departure.
+	 * @return the cached tree, or null
+	 */
+	@TimeComplexityExpected("O(1)")
+	synchronized Tree tree(Object graph, int source) {
+		bind(graph);
+		TreeNode node = trees.get(source);
+		if(node == null) return null;
+		treeHits++;
+		treeOrder.remove(node.position);
+		node.position = treeOrder.addLast(node);
+		return node.tree;
+	}
+
+	/**
+	 * @return whether the departure has missed often enough for its shortest path tree to be worth caching
+	 */
+	@TimeComplexity("O(1)")
+	synchronized boolean hot(int source) {
+		//departures are counted apart from the routes, though they share the sketch
+		int hash = Key.spread(~source) & 0x7fffffff;
+		increment(hash);
+		return treeCapacity > 0 && frequency(hash) >= TREE_THRESHOLD;
+	}
+
+	/**
+	 * Counts a miss and stores the shortest path tree that was computed, unless the graph has changed since.
+	 */
+	@TimeComplexityExpected("O(1)")
+	synchronized void putTree(Object graph, int source, Tree tree) {
+		misses++;
+		if(graph != this.graph || treeCapacity == 0 || trees.get(source) != null) return;
+		if(trees.size() == treeCapacity) {
+			TreeNode oldest = treeOrder.removeFirst();
+			trees.remove(oldest.source);
+			evictions++;
+		}
+		TreeNode node = new TreeNode(source, tree);
+		node.position = treeOrder.addLast(node);
+		trees.put(source, node);
+	}
+
+	//clears the cache when it is used with another graph than the one it was filled for
+	private void bind(Object graph) {
+		if(graph == this.graph) return;
+		if(this.graph != null) invalidations++;
+		reset();
+		this.graph = graph;
+	}
+
+	private void reset() {
+		entries = new HashMap<Key,Node>(4 * capacity / 3 + 1);
+		window = new DoublyLinkedList<Node>();
+		main = new DoublyLinkedList<Node>();
+		trees = new HashMap<Integer,TreeNode>();
+		treeOrder = new DoublyLinkedList<TreeNode>();
+		java.util.Arrays.fill(counts, (byte)0);
+		additions = 0;
+	}
+
+	//moves a route to the most recently used end of its area
+	private void touch(Node node) {
+		DoublyLinkedList<Node> list = node.inWindow ? window : main;
+		list.remove(node.position);
+		node.position = list.addLast(node);
+	}
+
+	//moves the oldest route of the window to main, if main has room or the route is asked for more often
+	//than the oldest route of main, and evicts the loser
+	private void admit(Node candidate) {
+		window.remove(candidate.position);
+		int limit = capacity - windowCapacity;
+		if(main.size() < limit) {
+			enter(candidate);
+			return;
+		}
+		Node victim = main.isEmpty() ? null : main.first().getElement();
+		if(victim != null && frequency(candidate.key.hash) > frequency(victim.key.hash)) {
+			main.remove(victim.position);
+			entries.remove(victim.key);
+			enter(candidate);
+		}
+		else entries.remove(candidate.key);
+		evictions++;
+	}
+
+	private void enter(Node node) {
+		node.inWindow = false;
+		node.position = main.addLast(node);
+	}
+
+	//adds one to the counters of a hash, halving every counter once enough queries have been counted
+	private void increment(int hash) {
+		for(int row = 0; row < 4; row++) {
+			int i = index(hash, row);
+			if(counts[i] < MAX_COUNT) counts[i]++;
+		}
+		if(++additions == 10 * capacity) {
+			for(int i = 0; i < counts.length; i++) counts[i] >>= 1;
+			additions /= 2;
+		}
+	}
+
+	//the estimated frequency of a hash, the smallest of its counters
+	private int frequency(int hash) {
+		int min = MAX_COUNT;
+		for(int row = 0; row < 4; row++) min = Math.min(min, counts[index(hash, row)]);
+		return min;
+	}
+
+	private int index(int hash, int row) {
+		int h = (hash + row) * 0x9E3779B9;
+		h ^= h >>> 15;
+		return row * width + (h & (width - 1));
+	}
+
+	/*
+	 * The answer of one query: the cost and the city names of the route. The cost is unused for the
+	 * searches that do not compute one.
+	 */
+	static final class Route {
+		final int cost;
+		final String[] cities;
+
+		Route(int cost, String[] cities) {
+			this.cost = cost;
+			this.cities = cities;
+		}
+	}
+
+	/*
+	 * The shortest path tree of one departure, the distance and the previous vertex of every vertex id,
+	 * -1 for the departure itself and for the vertices it cannot reach.
+	 */
+	static final class Tree {
+		final long[] dist;
+		final int[] previous;
+
+		Tree(long[] dist, int[] previous) {
+			this.dist = dist;
+			this.previous = previous;
+		}
+
+		/**
+		 * @return the vertex ids of the route from the departure to the target, empty if there is none
+		 */
+		@TimeComplexity("O(p)")
+		int[] path(int target) {
+			if(dist[target] < 0) return new int[0];
+			int length = 1;
+			for(int v = target; previous[v] >= 0; v = previous[v]) length++;
+			int[] output = new int[length];
+			for(int v = target; v >= 0; v = previous[v]) output[--length] = v;
+			return output;
+		}
+	}
+
+	private static final class Key {
+		final String algorithm;
+		final String departure;
+		final String destination;
+		final int hash;
+
+		Key(String algorithm, String departure, String destination) {
+			this.algorithm = algorithm;
+			this.departure = departure;
+			this.destination = destination;
+			//non-negative, HashMap takes the absolute value of the hash code
+			hash = spread((algorithm.hashCode() * 31 + departure.hashCode()) * 31 + destination.hashCode()) & 0x7fffffff;
+		}
+
+		static int spread(int h) {
+			h *= 0x85EBCA6B;
+			return h ^ (h >>> 13);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return false;
+			Key other = (Key)o;
+			return hash == other.hash && algorithm.equals(other.algorithm) && departure.equals(other.departure)
+					&& destination.equals(other.destination);
+		}
+	}
+
+	private static final class Node {
+		final Key key;
+		final Route route;
+		boolean inWindow = true;
+		Position<Node> position;
+
+		Node(Key key, Route route) {
+			this.key = key;
+			this.route = route;
+		}
+	}
+
+	private static final class TreeNode {
+		final int source;
+		final Tree tree;
+		Position<TreeNode> position;
+
+		TreeNode(int source, Tree tree) {
+			this.source = source;
+			this.tree = tree;
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Streaming parser for route tables in CSV or TSV form: one route per line, with the two city names and the
+ * integer cost separated by ',' or '\t'. A field may be quoted with '"', and "" inside quotes is a quote.
+ * The bytes are parsed as they are read from the channel through a fixed buffer. City names are
+ * deduplicated on their UTF-8 bytes, so a String is only created for the first occurrence of every city,
+ * and the routes are collected in primitive arrays. Blank lines are skipped, and so is a first line whose
+ * cost is not a number (a header).
+ */
+final class RouteReader {
+
+	private static final int BUFFER = 1 << 16;
+	private static final int FNV_OFFSET = 0x811c9dc5;
+	private static final int FNV_PRIME = 0x01000193;
+
+	//distinct cities in order of appearance, their UTF-8 bytes are kept in pool for the comparisons
+	private String[] cities = new String[16];
+	private int[] cityHashes = new int[16];
+	private int[] poolOffsets = new int[17];
+	private byte[] pool = new byte[256];
+	private int numCities;
+	//open addressing table of city ids, -1 for a free slot, at most half full
+	private int[] table = new int[32];
+
+	//routes as parallel columns
+	private int[] from = new int[16];
+	private int[] to = new int[16];
+	private int[] costs = new int[16];
+	private int numRoutes;
+
+	//the current line: the unquoted bytes of its fields and where every field ends
+	private byte[] lineBytes = new byte[64];
+	private int lineLength;
+	private final int[] fieldEnds = new int[3];
+	private int fields;
+	private boolean quoted;
+	private boolean quoteEnd;
+	private boolean blank = true;
+	private boolean first = true;
+	private int line = 1;
+
+	RouteReader() {
+		java.util.Arrays.fill(table, -1);
+	}
+
+	/**
+	 * Parses the whole channel, the channel is not closed.
+	 * @throws IllegalArgumentException if a line is not a route
+	 */
+	@TimeComplexityExpected("O(b)")
+	void read(ReadableByteChannel channel) throws IOException, IllegalArgumentException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+		byte[] bytes = buffer.array();
+		while(channel.read(buffer) >= 0) {
+			for(int i = 0; i < buffer.position(); i++) {
+				accept(bytes[i]);
+			}
+			buffer.clear();
+		}
+		if(!blank) endLine();
+	}
+
+	String[] cities() {
+		return java.util.Arrays.copyOf(cities, numCities);
+	}
+
+	int[] from() {
+		return java.util.Arrays.copyOf(from, numRoutes);
+	}
+
+	int[] to() {
+		return java.util.Arrays.copyOf(to, numRoutes);
+	}
+
+	int[] costs() {
+		return java.util.Arrays.copyOf(costs, numRoutes);
+	}
+
+	private void accept(byte b) {
+		if(quoted) {
+			if(b == '"') {
+				quoted = false;
+				quoteEnd = true;
+			}
+			else append(b);
+			return;
+		}
+		if(quoteEnd) {
+			quoteEnd = false;
+			//a doubled quote inside a quoted field
+			if(b == '"') {
+				append(b);
+				quoted = true;
+				return;
+			}
+		}
+		switch(b) {
+		case '\n':
+			if(!blank) endLine();
+			line++;
+			break;
+		case '\r':
+			break;
+		case ',':
+		case '\t':
+			blank = false;
+			endField();
+			break;
+		case '"':
+			blank = false;
+			quoted = true;
+			break;
+		default:
+			blank = false;
+			append(b);
+		}
+	}
+
+	private void append(byte b) {
+		if(lineLength == lineBytes.length) lineBytes = java.util.Arrays.copyOf(lineBytes, 2 * lineLength);
+		lineBytes[lineLength++] = b;
+	}
+
+	private void endField() {
+		if(fields == 3) throw new IllegalArgumentException("Invalid route on line " + line);
+		fieldEnds[fields++] = lineLength;
+	}
+
+	private void endLine() {
+		endField();
+		if(fields != 3 || quoted) throw new IllegalArgumentException("Invalid route on line " + line);
+		int fromEnd = fieldEnds[0];
+		int toEnd = fieldEnds[1];
+		long cost = parseCost(toEnd, fieldEnds[2]);
+		if(cost == Long.MIN_VALUE) {
+			if(!first) throw new IllegalArgumentException("Invalid cost on line " + line);
+		}
+		else {
+			if(numRoutes == from.length) {
+				from = java.util.Arrays.copyOf(from, 2 * numRoutes);
+				to = java.util.Arrays.copyOf(to, 2 * numRoutes);
+				costs = java.util.Arrays.copyOf(costs, 2 * numRoutes);
+			}
+			from[numRoutes] = intern(0, fromEnd);
+			to[numRoutes] = intern(fromEnd, toEnd);
+			costs[numRoutes] = (int)cost;
+			numRoutes++;
+		}
+		lineLength = 0;
+		fields = 0;
+		blank = true;
+		first = false;
+	}
+
+	//the cost in the bytes start .. end-1 ignoring surrounding spaces, Long.MIN_VALUE if it is not an int
+	private long parseCost(int start, int end) {
+		while(start < end && lineBytes[start] == ' ') start++;
+		while(end > start && lineBytes[end - 1] == ' ') end--;
+		boolean negative = start < end && lineBytes[start] == '-';
+		if(negative || (start < end && lineBytes[start] == '+')) start++;
+		if(start == end) return Long.MIN_VALUE;
+		long value = 0;
+		for(int i = start; i < end; i++) {
+			int digit = lineBytes[i] - '0';
+			if(digit < 0 || digit > 9) return Long.MIN_VALUE;
+			value = 10 * value + digit;
+			if(value > (long)Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+		}
+		value = negative ? -value : value;
+		return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+	}
+
+	//the id of the city named by the bytes start .. end-1, a new city is added on its first occurrence
+	private int intern(int start, int end) {
+		int hash = FNV_OFFSET;
+		for(int i = start; i < end; i++) {
+			hash = (hash ^ (lineBytes[i] & 0xff)) * FNV_PRIME;
+		}
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		for(int id = table[slot]; id >= 0; id = table[slot]) {
+			if(cityHashes[id] == hash && sameName(id, start, end)) return id;
+			slot = (slot + 1) & mask;
+		}
+		int id = numCities++;
+		if(id == cities.length) {
+			cities = java.util.Arrays.copyOf(cities, 2 * id);
+			cityHashes = java.util.Arrays.copyOf(cityHashes, 2 * id);
+			poolOffsets = java.util.Arrays.copyOf(poolOffsets, 2 * id + 1);
+		}
+		int length = end - start;
+		int offset = poolOffsets[id];
+		if(offset + length > pool.length) pool = java.util.Arrays.copyOf(pool, Math.max(2 * pool.length, offset + length));
+		System.arraycopy(lineBytes, start, pool, offset, length);
+		poolOffsets[id + 1] = offset + length;
+		cities[id] = new String(lineBytes, start, length, StandardCharsets.UTF_8);
+		cityHashes[id] = hash;
+		table[slot] = id;
+		if(2 * numCities > table.length) rehash();
+		return id;
+	}
+
+	private boolean sameName(int id, int start, int end) {
+		int offset = poolOffsets[id];
+		if(poolOffsets[id + 1] - offset != end - start) return false;
+		for(int i = start; i < end; i++) {
+			if(pool[offset++] != lineBytes[i]) return false;
+		}
+		return true;
+	}
+
+	private void rehash() {
+		table = new int[2 * table.length];
+		java.util.Arrays.fill(table, -1);
+		int mask = table.length - 1;
+		for(int id = 0; id < numCities; id++) {
+			int slot = cityHashes[id] & mask;
+			while(table[slot] >= 0) slot = (slot + 1) & mask;
+			table[slot] = id;
+		}
+	}
+}
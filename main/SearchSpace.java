@@ -0,0 +1,163 @@
+package main;
+
+/*
+ * The state of one shortest path search, kept for the explored region only. Every reached vertex gets a
+ * local id from an open addressing table, and its distance, the edge it was reached by and its place in
+ * the priority queue are indexed by local id. The columns and the queue grow with the region, and reset
+ * frees only the table slots the last search used, so a space can be reused for many searches.
+ */
+final class SearchSpace {
+
+	private static final int INITIAL = 16;
+
+	//vertex id to local id, -1 for a free slot, at most half full
+	private int[] table = new int[2 * INITIAL];
+	//per local id: the vertex, its table slot, its distance and the edge it was reached by (-1 for a root)
+	private int[] vertices = new int[INITIAL];
+	private int[] slots = new int[INITIAL];
+	private long[] dist = new long[INITIAL];
+	private int[] parents = new int[INITIAL];
+	private int size;
+	//the local ids that have been reached but not settled
+	final IndexedHeapPQ queue = new IndexedHeapPQ(INITIAL);
+
+	SearchSpace() {
+		java.util.Arrays.fill(table, -1);
+	}
+
+	@TimeComplexity("O(1)")
+	int size() {
+		return size;
+	}
+
+	@TimeComplexity("O(1)")
+	int vertex(int local) {
+		return vertices[local];
+	}
+
+	@TimeComplexity("O(1)")
+	long dist(int local) {
+		return dist[local];
+	}
+
+	@TimeComplexity("O(1)")
+	int parent(int local) {
+		return parents[local];
+	}
+
+	/**
+	 * @return whether the vertex with the local id has been removed from the queue
+	 */
+	@TimeComplexity("O(1)")
+	boolean settled(int local) {
+		return !queue.contains(local);
+	}
+
+	/**
+	 * @return the local id of a vertex, or -1 if it has not been reached
+	 */
+	@TimeComplexityExpected("O(1)")
+	int find(int v) {
+		int mask = table.length - 1;
+		for(int slot = hash(v) & mask; ; slot = (slot + 1) & mask) {
+			int local = table[slot];
+			if(local < 0 || vertices[local] == v) return local;
+		}
+	}
+
+	/**
+	 * Reaches a new vertex and puts it in the queue with its distance as key
+	 * @return the local id of the vertex
+	 */
+	@TimeComplexityExpected("O(lg n)")
+	@TimeComplexityAmortized("O(lg n)")
+	int add(int v, long distance, int edge) {
+		return add(v, distance, edge, distance);
+	}
+
+	/**
+	 * Reaches a new vertex and puts it in the queue with the given key
+	 * @return the local id of the vertex
+	 */
+	@TimeComplexityExpected("O(lg n)")
+	@TimeComplexityAmortized("O(lg n)")
+	int add(int v, long distance, int edge, long key) {
+		if(size == vertices.length) grow();
+		int mask = table.length - 1;
+		int slot = hash(v) & mask;
+		while(table[slot] >= 0) slot = (slot + 1) & mask;
+		int local = size++;
+		table[slot] = local;
+		vertices[local] = v;
+		slots[local] = slot;
+		dist[local] = distance;
+		parents[local] = edge;
+		queue.insert(local, key);
+		return local;
+	}
+
+	/**
+	 * Lowers the distance of a vertex in the queue, the key becomes the new distance
+	 */
+	@TimeComplexity("O(lg n)")
+	void decrease(int local, long distance, int edge) {
+		decrease(local, distance, edge, distance);
+	}
+
+	/**
+	 * Lowers the distance of a vertex in the queue and replaces its key
+	 */
+	@TimeComplexity("O(lg n)")
+	void decrease(int local, long distance, int edge, long key) {
+		dist[local] = distance;
+		parents[local] = edge;
+		queue.replaceKey(local, key);
+	}
+
+	/**
+	 * Lowers the distance of a reached vertex and puts it back in the queue if it was settled
+	 */
+	@TimeComplexity("O(lg n)")
+	void reopen(int local, long distance, int edge, long key) {
+		dist[local] = distance;
+		parents[local] = edge;
+		if(queue.contains(local)) queue.replaceKey(local, key);
+		else queue.insert(local, key);
+	}
+
+	/**
+	 * Frees the table slots used by the last search
+	 */
+	@TimeComplexity("O(n)")
+	void reset() {
+		for(int local = 0; local < size; local++) {
+			table[slots[local]] = -1;
+		}
+		size = 0;
+		queue.clear();
+	}
+
+	//doubles the per local id columns and the table
+	private void grow() {
+		int capacity = 2 * vertices.length;
+		vertices = java.util.Arrays.copyOf(vertices, capacity);
+		dist = java.util.Arrays.copyOf(dist, capacity);
+		parents = java.util.Arrays.copyOf(parents, capacity);
+		slots = java.util.Arrays.copyOf(slots, capacity);
+		queue.ensureCapacity(capacity);
+		table = new int[2 * capacity];
+		java.util.Arrays.fill(table, -1);
+		int mask = table.length - 1;
+		for(int local = 0; local < size; local++) {
+			int slot = hash(vertices[local]) & mask;
+			while(table[slot] >= 0) slot = (slot + 1) & mask;
+			table[slot] = local;
+			slots[local] = slot;
+		}
+	}
+
+	private static int hash(int v) {
+		int h = v * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
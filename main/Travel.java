@@ -1,14 +1,31 @@
 package main;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 import net.datastructures.Edge;
-import net.datastructures.Entry;
+import net.datastructures.IntWeightedGraph;
 import net.datastructures.Vertex;
 
 
 public class Travel {
 	
-	private AdjListGraph<String,Integer> graph;
+	private IntWeightedGraph<String> graph;
 	private HashMap<String,Vertex<String>> map;
+	//set instead of map when the routes are read from a graph file, cities are then found through its label table
+	private MappedGraph mapped;
+	//outgoing slots of every vertex ordered by opposite city name, built for one graph and replaced with it
+	private volatile SortedAdjacency sorted;
+	//landmark tables for ALTRoute, only used while they belong to the current graph
+	private volatile Landmarks landmarks;
+	private static final int DEFAULT_LANDMARKS = 8;
+	//contraction hierarchy for CHRoute, only used while it belongs to the current graph
+	private volatile ContractionHierarchy hierarchy;
+	//opt-in cache of DFSRoute, BFSRoute and DijkstraRoute results, cleared when it is used with another graph
+	private volatile RouteCache cache;
 	/**
 	 * @param routes: Array of routes between cities. 
 	 *                routes[i][0] and routes[i][1] represent the city names on both ends of the route. 
@@ -16,21 +33,156 @@ public class Travel {
 	 *                Hint: In Java, use Integer.valueOf to convert string to integer. 
 	 */
 	public Travel(String [][] routes) {
-		graph = new AdjListGraph<String,Integer>();
-		map = new HashMap<String,Vertex<String>>();
+		//numbers the cities in order of appearance, the table is sized so it never has to rehash
+		HashMap<String,Integer> ids = new HashMap<String,Integer>(4 * routes.length / 3 + 1);
+		String[] cities = new String[2 * routes.length];
+		int[] from = new int[routes.length];
+		int[] to = new int[routes.length];
+		int[] costs = new int[routes.length];
+		int count = 0;
 		for(int i = 0; i<routes.length; i++) {
-			if(map.get(routes[i][0]) == null ) {
-				map.put(routes[i][0], graph.insertVertex(routes[i][0]));
-			}
-			if(map.get(routes[i][1]) == null ) {
-				map.put(routes[i][1], graph.insertVertex(routes[i][1]));
+			for(int j = 0; j<2; j++) {
+				Integer id = ids.get(routes[i][j]);
+				if(id == null) {
+					id = count;
+					ids.put(routes[i][j], id);
+					cities[count++] = routes[i][j];
+				}
+				if(j == 0) from[i] = id;
+				else to[i] = id;
 			}
-			graph.insertEdge(map.get(routes[i][0]), map.get(routes[i][1]), Integer.valueOf(routes[i][2]));
+			costs[i] = Integer.parseInt(routes[i][2]);
 		}
+		build(java.util.Arrays.copyOf(cities, count), from, to, costs);
 	}
-	
-	
-	
+
+	private Travel(RouteReader reader) {
+		build(reader.cities(), reader.from(), reader.to(), reader.costs());
+	}
+
+	//builds the graph from numbered cities and parallel route columns
+	private void build(String[] cities, int[] from, int[] to, int[] costs) {
+		AdjListGraph<String,Integer> builder = AdjListGraph.load(false, cities, from, to, costs, false);
+		//every change of the routes rebuilds them, so the queries run on a CSR snapshot
+		graph = new IntCSRGraph<String>(builder, false);
+		map = new HashMap<String,Vertex<String>>(4 * cities.length / 3 + 1);
+		for(Vertex<String> v : graph.vertices()) {
+			map.put(v.getElement(), v);
+		}
+	}
+
+	/**
+	 * Reads a route table in CSV or TSV form, one route "departure,destination,cost" per line.
+	 * The names and costs are parsed straight from the bytes of the file, see RouteReader.
+	 * @param path the route table
+	 * @throws IllegalArgumentException if a line is not a route
+	 */
+	@TimeComplexityExpected("O(b)")
+	public static Travel read(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Reads a route table in CSV or TSV form from a channel, the channel is not closed.
+	 * @param channel the route table
+	 * @throws IllegalArgumentException if a line is not a route
+	 */
+	@TimeComplexityExpected("O(b)")
+	public static Travel read(ReadableByteChannel channel) throws IOException {
+		RouteReader reader = new RouteReader();
+		reader.read(channel);
+		return new Travel(reader);
+	}
+
+	private Travel(MappedGraph graph) {
+		this.graph = graph;
+		this.mapped = graph;
+	}
+
+	/**
+	 * Opens a route table saved by save. The file is memory-mapped, so the routes can be queried at once
+	 * without parsing them or building the graph.
+	 * @param path the graph file
+	 */
+	@TimeComplexity("O(1)")
+	public static Travel open(Path path) throws IOException {
+		return new Travel(MappedGraph.open(path));
+	}
+
+	/**
+	 * Saves the routes as a graph file, see MappedGraph for the format.
+	 * @param path the file to create or overwrite
+	 */
+	@TimeComplexity("O(n+m)")
+	public void save(Path path) throws IOException {
+		MappedGraph.write(graph, path);
+	}
+
+	/**
+	 * Adds a route between two cities, which may be new ones. The graph is rebuilt with the route, and the
+	 * indexes and cached results of the old graph are no longer used.
+	 * @param departure: a city name at one end of the route
+	 * @param destination: the city name at the other end
+	 * @param cost: the cost of the route
+	 */
+	@TimeComplexity("O(n+m)")
+	public void addRoute(String departure, String destination, int cost) {
+		int n = graph.numVertices();
+		int m = graph.numEdges();
+		String[] cities = new String[n + 2];
+		for(int v = 0; v < n; v++) cities[v] = graph.vertex(v).getElement();
+		int[] from = new int[m + 1];
+		int[] to = new int[m + 1];
+		int[] costs = new int[m + 1];
+		for(int e = 0; e < m; e++) {
+			from[e] = graph.edgeSource(e);
+			to[e] = graph.edgeTarget(e);
+			costs[e] = graph.weight(e);
+		}
+		int count = n;
+		Vertex<String> v = city(departure);
+		if(v != null) from[m] = graph.vertexId(v);
+		else {
+			from[m] = count;
+			cities[count++] = departure;
+		}
+		v = city(destination);
+		if(departure.equals(destination)) to[m] = from[m];
+		else if(v != null) to[m] = graph.vertexId(v);
+		else {
+			to[m] = count;
+			cities[count++] = destination;
+		}
+		costs[m] = cost;
+		build(java.util.Arrays.copyOf(cities, count), from, to, costs);
+		mapped = null;
+	}
+
+	/**
+	 * Turns on caching of the results of DFSRoute, BFSRoute and DijkstraRoute, or off with a capacity of 0.
+	 * Departure cities that keep missing get their whole shortest path tree cached, so DijkstraRoute to any
+	 * destination from them only walks the tree, see RouteCache.
+	 * @param capacity the number of routes kept
+	 * @param trees the number of shortest path trees kept, each takes O(n) memory
+	 */
+	public void useRouteCache(int capacity, int trees) {
+		cache = capacity == 0 ? null : new RouteCache(capacity, trees);
+	}
+
+	/**
+	 * @return the route cache with its hit and miss counts, or null if caching is off
+	 */
+	public RouteCache routeCache() {
+		return cache;
+	}
+
+	//the vertex of a city, or null if there is no route to or from it
+	private Vertex<String> city(String name) {
+		return mapped != null ? mapped.vertex(name) : map.get(name);
+	}
+
 	/**
 	 * @param departure: the departure city name 
 	 * @param destination: the destination city name
@@ -51,28 +203,16 @@ public class Travel {
 	 *              See the method sortedOutgoingEdges below. 
 	 */
 	public Iterable<String> DFSRoute(String departure, String destination ) {
-		HashMap<String,Vertex<String>> visited = new HashMap<String, Vertex<String>>();
-		return DFSRouteHelper(visited, departure,destination).iterable();
-	}
-	
-	private ArrayList<String> DFSRouteHelper(HashMap<String,Vertex<String>> visited, String current, String destination) {
-		ArrayList<String> list = new ArrayList<String>();
-		Vertex<String> v = map.get(current);
-		visited.put(current, v);
-		if(graph.outDegree(v)==0 && current != destination) return list;
-		list.addLast(current);
-		if(current.equals(destination)) return list;
-		for(Edge<Integer> e : sortedOutgoingEdges(v)) {
-			if(visited.get(graph.opposite(v, e).getElement()) == null ) {
-				ArrayList<String> append = DFSRouteHelper(visited,graph.opposite(v, e).getElement(),destination);
-				if(append.get(append.size()-1).equals(destination))
-				for(String s : append) {
-					list.addLast(s);
-				}
-			}
-		}
-		
-		return list;
+		return cachedRoute("DFS", departure, destination, () -> {
+			//the search keeps an explicit stack instead of recursing once per city, so long routes cannot
+			//overflow the thread stack, and the route is rebuilt once from the parents of the cities
+			int source = graph.vertexId(city(departure));
+			Vertex<String> end = city(destination);
+			DepthFirstSearch search = sortedAdjacency().depthFirst.get();
+			//without a route only the departure is listed
+			if(end == null || !search.run(source, graph.vertexId(end))) return java.util.Collections.singletonList(departure);
+			return names(search.path());
+		});
 	}
 	
 	
@@ -98,35 +238,26 @@ public class Travel {
 	 */
 	
 	public Iterable<String> BFSRoute(String departure, String destination ) {
-		ArrayList<String> list = new ArrayList<String>();
-		HashMap<String,Vertex<String>> visited = new HashMap<String, Vertex<String>>();
-		HashMap<String,String> childParent = new HashMap<String,String>();
-		CircularArrayQueue<Vertex<String>> queue = new CircularArrayQueue<Vertex<String>>(64);
-		Vertex<String> v = map.get(departure);
-		queue.enqueue(v);
-		visited.put(v.getElement(), v);
-		Vertex<String> parent = null;
-		while(!queue.isEmpty() && !v.getElement().equals(destination)) {
-			parent = v;
-			v = queue.dequeue();
-			list.addLast(v.getElement());
-			for(Edge<Integer> e : sortedOutgoingEdges(v)) {
-				Vertex<String> nextVertex = graph.opposite(v,e);
-				if(visited.get(nextVertex.getElement()) == null) {
-					visited.put(nextVertex.getElement(), nextVertex);
-					if(childParent.get(nextVertex.getElement()) == null) childParent.put(nextVertex.getElement(), v.getElement());
-					queue.enqueue(nextVertex);
-				}
-			}
-		}
-		ArrayList<String> output = new ArrayList<String>();
-		String current = v.getElement();
-		while(childParent.get(current) != null) {
-			output.addFirst(current);
-			current = childParent.get(current);
-		}
-		output.addFirst(current);
-		return output.iterable();
+		return BFSRoute(departure, destination, false);
+	}
+
+	/**
+	 * Finds the same route as BFSRoute, the route with the fewest cities that comes first in the order of the
+	 * city names, with a direction-optimizing search over bitsets of the cities, see BreadthFirstSearch.
+	 * @param departure: the departure city name
+	 * @param destination: the destination city name
+	 * @param parallel: whether every level of the search is split across the cores
+	 * @return the city names of the route in order, only the departure if there is none
+	 */
+	public Iterable<String> BFSRoute(String departure, String destination, boolean parallel) {
+		return cachedRoute("BFS", departure, destination, () -> {
+			int source = graph.vertexId(city(departure));
+			Vertex<String> end = city(destination);
+			SortedAdjacency adjacency = sortedAdjacency();
+			BreadthFirstSearch search = (parallel ? adjacency.parallelBreadthFirst : adjacency.breadthFirst).get();
+			if(end == null || search.run(source, graph.vertexId(end)) < 0) return java.util.Collections.singletonList(departure);
+			return names(search.path());
+		});
 	}
 	
 	/**
@@ -150,43 +281,279 @@ public class Travel {
 	 */
 
 	public int DijkstraRoute(String departure, String destination, DoublyLinkedList<String> itinerary ) {
-		HeapPQ<Integer,Vertex<String>> heap = new HeapPQ<Integer,Vertex<String>>();
-		HashMap<Vertex<String>,Integer> distMap = new HashMap<Vertex<String>,Integer>();
-		HashMap<Vertex<String>,Entry<Integer,Vertex<String>>> pqEntryMap = new HashMap<Vertex<String>,Entry<Integer,Vertex<String>>>();
-		HashMap<Vertex<String>, Edge<Integer>> forest = new HashMap<Vertex<String>, Edge<Integer>>();
-		for(Vertex<String> v : graph.vertices()) {
-			if(v.equals(map.get(departure))) {
-				pqEntryMap.put(v, heap.insert(0, v));
-				distMap.put(v, 0);
-			}
-			else {
-				pqEntryMap.put(v, heap.insert(Integer.MAX_VALUE, v));
-				distMap.put(v, Integer.MAX_VALUE);
-			}
+		//the vertices enter the queue when they are first reached and the search stops at the destination,
+		//so a query only allocates and touches the region it explores
+		IntWeightedGraph<String> current = graph;
+		int source = current.vertexId(city(departure));
+		int target = current.vertexId(city(destination));
+		SortedAdjacency adjacency = sortedAdjacency();
+		DijkstraSearch search = new DijkstraSearch(current, adjacency.targets, adjacency.edges);
+		RouteCache routes = cache;
+		if(routes == null) return route(search.run(source, target), search.path(), itinerary);
+		RouteCache.Route hit = routes.get(current, "Dijkstra", departure, destination);
+		if(hit != null) {
+			for(String s : hit.cities) itinerary.addLast(s);
+			return hit.cost;
+		}
+		//a full search relaxes the slots in the same order as a search stopping at the destination, so
+		//the tree holds the same route
+		RouteCache.Tree tree = routes.tree(current, source);
+		if(tree == null && routes.hot(source)) {
+			search.run(source, -1);
+			tree = new RouteCache.Tree(new long[current.numVertices()], new int[current.numVertices()]);
+			search.tree(tree.dist, tree.previous);
+			routes.putTree(current, source, tree);
+		}
+		if(tree != null) return route(tree.dist[target], tree.path(target), itinerary);
+		DoublyLinkedList<String> found = new DoublyLinkedList<String>();
+		int cost = route(search.run(source, target), search.path(), found);
+		String[] cities = new String[found.size()];
+		int i = 0;
+		for(String s : found) {
+			cities[i++] = s;
+			itinerary.addLast(s);
 		}
-		while(!heap.isEmpty()) {
-			Entry<Integer,Vertex<String>> entry = heap.removeMin();
-			Vertex<String> v = entry.getValue();
-			for(Edge<Integer> e : sortedOutgoingEdges(v)) {
-				Vertex w = graph.opposite(v, e);
-				int newDistance = e.getElement() + entry.getKey();
-				if(newDistance<distMap.get(w)) {
-					distMap.put(w, newDistance);
-					heap.replaceKey(pqEntryMap.get(w), newDistance);
-					forest.put(w, e);
+		routes.put(current, "Dijkstra", departure, destination, new RouteCache.Route(cost, cities));
+		return cost;
+	}
+
+	/**
+	 * Answers a batch of DijkstraRoute queries. The queries are grouped by departure, and one search from
+	 * every departure runs until all the destinations of its group are settled. The groups are searched in
+	 * parallel on the common ForkJoinPool when asked, every worker thread reusing its own search state.
+	 * The routes are the ones DijkstraRoute finds, the route cache is not used.
+	 * @param pairs: pairs[i][0] and pairs[i][1] are the departure and destination city names of query i
+	 * @param itineraries: null, or an array of empty DoublylinkedList objects, the city names of the route
+	 *        of query i are added to itineraries[i] in order
+	 * @param parallel: whether the groups are searched in parallel
+	 * @return the cost of the shortest path of every query in input order, Integer.MAX_VALUE if there is none
+	 * @throws IllegalArgumentException if a city has no route
+	 */
+	@TimeComplexity("O(s (n+m) lg n)")
+	public int[] DijkstraRoutes(String[][] pairs, DoublyLinkedList<String>[] itineraries, boolean parallel) {
+		IntWeightedGraph<String> current = graph;
+		SortedAdjacency adjacency = sortedAdjacency();
+		int k = pairs.length;
+		int[] sources = new int[k];
+		int[] targets = new int[k];
+		//query indexes sorted by departure id, so every group is a run of the order
+		long[] order = new long[k];
+		for(int i = 0; i < k; i++) {
+			sources[i] = batchCity(pairs[i][0]);
+			targets[i] = batchCity(pairs[i][1]);
+			order[i] = ((long)sources[i] << 32) | i;
+		}
+		if(parallel) java.util.Arrays.parallelSort(order);
+		else java.util.Arrays.sort(order);
+		int[] starts = new int[k + 1];
+		int groups = 0;
+		for(int i = 0; i < k; i++) {
+			if(i == 0 || order[i] >>> 32 != order[i - 1] >>> 32) starts[groups++] = i;
+		}
+		starts[groups] = k;
+		int[] costs = new int[k];
+		ThreadLocal<BatchWorker> workers = ThreadLocal.withInitial(() -> new BatchWorker(current, adjacency));
+		java.util.stream.IntStream range = java.util.stream.IntStream.range(0, groups);
+		(parallel ? range.parallel() : range).forEach(g -> {
+			BatchWorker worker = workers.get();
+			DijkstraSearch search = worker.search;
+			int source = (int)(order[starts[g]] >>> 32);
+			if(starts[g + 1] - starts[g] == 1) {
+				int i = (int)order[starts[g]];
+				costs[i] = batchRoute(search.run(source, targets[i]), itineraries == null ? null : search.path(), itineraries, i);
+				return;
+			}
+			int stamp = ++worker.stamp;
+			int count = 0;
+			for(int j = starts[g]; j < starts[g + 1]; j++) {
+				int t = targets[(int)order[j]];
+				if(worker.marks[t] != stamp) {
+					worker.marks[t] = stamp;
+					count++;
 				}
 			}
+			search.run(source, worker.marks, stamp, count);
+			for(int j = starts[g]; j < starts[g + 1]; j++) {
+				int i = (int)order[j];
+				costs[i] = batchRoute(search.dist(targets[i]), itineraries == null ? null : search.path(targets[i]), itineraries, i);
+			}
+		});
+		return costs;
+	}
+
+	//the id of a city of a batch query
+	private int batchCity(String name) {
+		Vertex<String> v = city(name);
+		if(v == null) throw new IllegalArgumentException("Invalid Vertex");
+		return graph.vertexId(v);
+	}
+
+	//the cost of a batch query, adding the city names of its path to its itinerary if there are itineraries
+	private int batchRoute(long distance, int[] path, DoublyLinkedList<String>[] itineraries, int i) {
+		if(distance < 0) return Integer.MAX_VALUE;
+		if(itineraries != null) route(distance, path, itineraries[i]);
+		return (int)distance;
+	}
+
+	//the search state of one thread answering batch queries, the marks flag the destinations of a group
+	private static final class BatchWorker {
+		final DijkstraSearch search;
+		final int[] marks;
+		int stamp;
+
+		BatchWorker(IntWeightedGraph<String> graph, SortedAdjacency adjacency) {
+			search = new DijkstraSearch(graph, adjacency.targets, adjacency.edges);
+			marks = new int[graph.numVertices()];
+		}
+	}
+
+	/**
+	 * Finds the same shortest route as DijkstraRoute with a bidirectional search, one search from the
+	 * departure and one from the destination, which meet in the middle. Among routes of equal cost the
+	 * itinerary may differ from the one of DijkstraRoute.
+	 * @param departure: the departure city name
+	 * @param destination: the destination city name
+	 * @param itinerary: an empty DoublylinkedList object, the city names of the route are added to it in order
+	 * @return the cost of the shortest path from departure to destination, Integer.MAX_VALUE if there is none
+	 */
+	public int BidirectionalDijkstraRoute(String departure, String destination, DoublyLinkedList<String> itinerary) {
+		int source = graph.vertexId(city(departure));
+		int target = graph.vertexId(city(destination));
+		SortedAdjacency adjacency = sortedAdjacency();
+		//the graph is undirected, so the incoming slots are the outgoing ones
+		BidirectionalDijkstra search = new BidirectionalDijkstra(graph, adjacency.targets, adjacency.edges, adjacency.targets, adjacency.edges);
+		return route(search.run(source, target), search.path(), itinerary);
+	}
+
+	/**
+	 * Finds the same shortest route as DijkstraRoute with an A* search, which explores the cities towards
+	 * the destination first. Among routes of equal cost the itinerary may differ from the one of DijkstraRoute.
+	 * @param departure: the departure city name
+	 * @param destination: the destination city name
+	 * @param itinerary: an empty DoublylinkedList object, the city names of the route are added to it in order
+	 * @param heuristic: a lower bound of the cost from a city to the destination, it must never overestimate
+	 * @return the cost of the shortest path from departure to destination, Integer.MAX_VALUE if there is none
+	 */
+	public int AStarRoute(String departure, String destination, DoublyLinkedList<String> itinerary,
+			java.util.function.ToLongBiFunction<String,String> heuristic) {
+		int source = graph.vertexId(city(departure));
+		int target = graph.vertexId(city(destination));
+		SortedAdjacency adjacency = sortedAdjacency();
+		AStarSearch.Heuristic estimate = (v, t) -> heuristic.applyAsLong(graph.vertex(v).getElement(), destination);
+		AStarSearch search = new AStarSearch(graph, estimate, adjacency.targets, adjacency.edges);
+		return route(search.run(source, target), search.path(), itinerary);
+	}
+
+	/**
+	 * Finds the same shortest route as DijkstraRoute with an A* search guided by landmark distances (ALT).
+	 * The landmarks set by useLandmarks or loadLandmarks are used, otherwise 8 landmarks are chosen on the
+	 * first call. Among routes of equal cost the itinerary may differ from the one of DijkstraRoute.
+	 * @param departure: the departure city name
+	 * @param destination: the destination city name
+	 * @param itinerary: an empty DoublylinkedList object, the city names of the route are added to it in order
+	 * @return the cost of the shortest path from departure to destination, Integer.MAX_VALUE if there is none
+	 */
+	public int ALTRoute(String departure, String destination, DoublyLinkedList<String> itinerary) {
+		int source = graph.vertexId(city(departure));
+		int target = graph.vertexId(city(destination));
+		Landmarks tables = landmarks;
+		if(tables == null || tables.graph != graph) {
+			tables = Landmarks.select(graph, DEFAULT_LANDMARKS);
+			landmarks = tables;
+		}
+		SortedAdjacency adjacency = sortedAdjacency();
+		AStarSearch search = new AStarSearch(graph, tables, adjacency.targets, adjacency.edges);
+		return route(search.run(source, target), search.path(), itinerary);
+	}
+
+	/**
+	 * Chooses the landmarks used by ALTRoute and computes their distance tables.
+	 * @param count the number of landmarks, more landmarks give tighter bounds but take k*n longs
+	 */
+	@TimeComplexity("O(k (n+m) lg n)")
+	public void useLandmarks(int count) {
+		landmarks = Landmarks.select(graph, count);
+	}
+
+	/**
+	 * Saves the landmark tables used by ALTRoute, choosing the default landmarks if none are set.
+	 * @param path the file to create or overwrite
+	 */
+	public void saveLandmarks(Path path) throws IOException {
+		Landmarks tables = landmarks;
+		if(tables == null || tables.graph != graph) useLandmarks(DEFAULT_LANDMARKS);
+		landmarks.save(path);
+	}
+
+	/**
+	 * Loads landmark tables saved by saveLandmarks for the same routes, instead of computing them again.
+	 * @param path the saved tables
+	 * @throws IOException if the file cannot be read or the routes or their costs have changed since it was saved
+	 */
+	public void loadLandmarks(Path path) throws IOException {
+		landmarks = Landmarks.load(path, graph);
+	}
+
+	/**
+	 * Finds the same shortest route as DijkstraRoute on a contraction hierarchy of the routes. The hierarchy
+	 * set up by prepareContractionHierarchy is used, otherwise it is built on the first call. Among routes of
+	 * equal cost the itinerary may differ from the one of DijkstraRoute.
+	 * @param departure: the departure city name
+	 * @param destination: the destination city name
+	 * @param itinerary: an empty DoublylinkedList object, the city names of the route are added to it in order
+	 * @return the cost of the shortest path from departure to destination, Integer.MAX_VALUE if there is none
+	 */
+	public int CHRoute(String departure, String destination, DoublyLinkedList<String> itinerary) {
+		int source = graph.vertexId(city(departure));
+		int target = graph.vertexId(city(destination));
+		ContractionHierarchy current = hierarchy;
+		if(current == null || current.graph != graph) {
+			current = new ContractionHierarchy(graph, false);
+			hierarchy = current;
 		}
-		Vertex<String> v = map.get(destination);
-		while(!v.equals(map.get(departure))) {
-			itinerary.addFirst(v.getElement());
-			v= graph.opposite(v, forest.get(v));
+		ContractionHierarchy.Query query = current.query();
+		return route(query.run(source, target), query.path(), itinerary);
+	}
+
+	/**
+	 * Builds the contraction hierarchy used by CHRoute.
+	 * @param parallel whether the preprocessing runs on the common ForkJoinPool
+	 */
+	public void prepareContractionHierarchy(boolean parallel) {
+		hierarchy = new ContractionHierarchy(graph, parallel);
+	}
+
+	//answers a DFSRoute or BFSRoute query from the route cache when it is on, else runs the search
+	private Iterable<String> cachedRoute(String algorithm, String departure, String destination,
+			java.util.function.Supplier<Iterable<String>> search) {
+		RouteCache routes = cache;
+		if(routes == null) return search.get();
+		IntWeightedGraph<String> current = graph;
+		RouteCache.Route hit = routes.get(current, algorithm, departure, destination);
+		if(hit == null) {
+			java.util.ArrayList<String> found = new java.util.ArrayList<String>();
+			for(String s : search.get()) found.add(s);
+			hit = new RouteCache.Route(0, found.toArray(new String[found.size()]));
+			routes.put(current, algorithm, departure, destination, hit);
 		}
-		itinerary.addFirst(v.getElement());
+		//the cached names are shared, so the caller gets a read-only view
+		return java.util.Collections.unmodifiableList(java.util.Arrays.asList(hit.cities));
+	}
 
-		
-		return distMap.get(map.get(destination));
-		
+	//the city names of a path, as a read-only list
+	private Iterable<String> names(int[] path) {
+		String[] names = new String[path.length];
+		for(int i = 0; i < path.length; i++) names[i] = graph.vertex(path[i]).getElement();
+		return java.util.Collections.unmodifiableList(java.util.Arrays.asList(names));
+	}
+
+	//adds the city names of a path to the itinerary and returns its cost, Integer.MAX_VALUE if there is no path
+	private int route(long distance, int[] path, DoublyLinkedList<String> itinerary) {
+		if(distance < 0) return Integer.MAX_VALUE;
+		for(int v : path) {
+			itinerary.addLast(graph.vertex(v).getElement());
+		}
+		return (int)distance;
 	}
 	
 	
@@ -195,19 +562,117 @@ public class Travel {
 	 * I strongly recommend you to implement this method to return sorted outgoing edges for vertex V
 	 * You may use any sorting algorithms, such as insert sort, selection sort, etc.
 	 * 
+	 * Returns a read-only view over the row of v in the sorted adjacency index, the index is built by the
+	 * first call after the graph is created and shared by every later query.
+	 * 
 	 * @param v: vertex v
 	 * @return a list of edges ordered by edge's name
 	 */
-	
+	@TimeComplexity("O(1)")
 	public Iterable<Edge<Integer>> sortedOutgoingEdges(Vertex<String> v)  {
-		
-		HeapPQ<String,Edge<Integer>> heap = new HeapPQ<String,Edge<Integer>>();
-		for(Edge<Integer> e : graph.outgoingEdges(v)) {
-			heap.insert(graph.opposite(v, e).getElement(), e);
+		int id = graph.vertexId(v);
+		return new SortedView(sortedAdjacency(), graph.outStart(id), graph.outEnd(id));
+	}
+
+	//the sorted adjacency index of the current graph, rebuilt only when the graph has been replaced. A graph
+	//file keeps its rows in that order, so its index is the graph itself and no label is decoded
+	private SortedAdjacency sortedAdjacency() {
+		SortedAdjacency adjacency = sorted;
+		if(adjacency == null || adjacency.graph != graph) {
+			IntWeightedGraph<String> current = graph;
+			adjacency = current == mapped && mapped.isLabelOrdered() ? new SortedAdjacency(current, null, null) : SortedAdjacency.sort(current);
+			sorted = adjacency;
 		}
-		ArrayList<Edge<Integer>> list = new ArrayList<Edge<Integer>>();
-		while(!heap.isEmpty())list.addLast(heap.removeMin().getValue());
-		return list.iterable();
+		return adjacency;
 	}
-	
+
+	/*
+	 * The outgoing slots of a graph with every row ordered by the name of the opposite city, as the parallel
+	 * columns targets and edges indexed like the slots of the graph. The cities are ranked by name once, and
+	 * every row is sorted on (rank, edge id) packed in a long, so parallel routes keep their edge order.
+	 * The columns are null when the rows of the graph are already in that order. The depth and breadth first
+	 * searches over the index are kept with it, one per thread, so their vertex arrays are only allocated by
+	 * the first query of every thread and each query only clears what the previous one reached.
+	 */
+	private static final class SortedAdjacency {
+		final IntWeightedGraph<String> graph;
+		final int[] targets;
+		final int[] edges;
+		final ThreadLocal<DepthFirstSearch> depthFirst;
+		final ThreadLocal<BreadthFirstSearch> breadthFirst;
+		final ThreadLocal<BreadthFirstSearch> parallelBreadthFirst;
+
+		SortedAdjacency(IntWeightedGraph<String> graph, int[] targets, int[] edges) {
+			this.graph = graph;
+			this.targets = targets;
+			this.edges = edges;
+			depthFirst = ThreadLocal.withInitial(() -> new DepthFirstSearch(graph, targets));
+			breadthFirst = ThreadLocal.withInitial(() -> new BreadthFirstSearch(graph, targets, false));
+			parallelBreadthFirst = ThreadLocal.withInitial(() -> new BreadthFirstSearch(graph, targets, true));
+		}
+
+		//sorts every row of the graph by the name of the opposite city
+		@TimeComplexity("O(n lg n + m lg m)")
+		static SortedAdjacency sort(IntWeightedGraph<String> graph) {
+			int n = graph.numVertices();
+			String[] names = new String[n];
+			for(int v = 0; v < n; v++) names[v] = graph.vertex(v).getElement();
+			String[] order = names.clone();
+			java.util.Arrays.sort(order);
+			int slots = n == 0 ? 0 : graph.outEnd(n - 1);
+			int[] targets = new int[slots];
+			int[] edges = new int[slots];
+			long[] row = new long[16];
+			for(int v = 0; v < n; v++) {
+				int start = graph.outStart(v);
+				int degree = graph.outEnd(v) - start;
+				if(degree > row.length) row = new long[Math.max(degree, 2 * row.length)];
+				for(int i = 0; i < degree; i++) {
+					int rank = java.util.Arrays.binarySearch(order, names[graph.outTarget(start + i)]);
+					row[i] = ((long)rank << 32) | graph.outEdge(start + i);
+				}
+				java.util.Arrays.sort(row, 0, degree);
+				for(int i = 0; i < degree; i++) {
+					int e = (int)row[i];
+					edges[start + i] = e;
+					targets[start + i] = graph.edgeSource(e) == v ? graph.edgeTarget(e) : graph.edgeSource(e);
+				}
+			}
+			return new SortedAdjacency(graph, targets, edges);
+		}
+	}
+
+	//read-only iterable over the slots start .. end-1 of the sorted adjacency index
+	private static final class SortedView implements Iterable<Edge<Integer>> {
+		private final SortedAdjacency adjacency;
+		private final int start;
+		private final int end;
+
+		SortedView(SortedAdjacency adjacency, int start, int end) {
+			this.adjacency = adjacency;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public java.util.Iterator<Edge<Integer>> iterator() {
+			return new java.util.Iterator<Edge<Integer>>() {
+				private int slot = start;
+
+				@Override
+				public boolean hasNext() {
+					return slot < end;
+				}
+
+				@Override
+				public Edge<Integer> next() {
+					if(slot >= end) throw new java.util.NoSuchElementException();
+					int e = adjacency.edges == null ? adjacency.graph.outEdge(slot) : adjacency.edges[slot];
+					slot++;
+					return adjacency.graph.edge(e);
+				}
+			};
+		}
+	}
+
 }
@@ -0,0 +1,87 @@
+package main;
+
+/*
+ * Disjoint sets over the dense ids 0 .. n-1, as a forest stored in one parent array. find halves the path
+ * it walks, pointing every other vertex to its grandparent, and union hangs the root of the smaller set
+ * below the root of the larger one, so a sequence of m operations takes O(m a(n)) time, a being the
+ * inverse Ackermann function, at most 4 for any practical n.
+ */
+public class UnionFind {
+
+	//the parent of every id, roots are their own parent
+	private final int[] parents;
+	//the number of ids in the set of every root
+	private final int[] sizes;
+	private int count;
+
+	/**
+	 * Puts every id 0 .. n-1 in a set of its own.
+	 * @param n the number of ids
+	 */
+	@TimeComplexity("O(n)")
+	public UnionFind(int n) {
+		parents = new int[n];
+		sizes = new int[n];
+		for(int i = 0; i < n; i++) {
+			parents[i] = i;
+			sizes[i] = 1;
+		}
+		count = n;
+	}
+
+	/**
+	 * @return the root of the set holding id
+	 */
+	@TimeComplexityAmortized("O(a(n))")
+	public int find(int id) {
+		while(parents[id] != id) {
+			parents[id] = parents[parents[id]];
+			id = parents[id];
+		}
+		return id;
+	}
+
+	/**
+	 * Merges the sets holding a and b.
+	 * @return false if they were already the same set
+	 */
+	@TimeComplexityAmortized("O(a(n))")
+	public boolean union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		if(a == b) return false;
+		if(sizes[a] < sizes[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		parents[b] = a;
+		sizes[a] += sizes[b];
+		count--;
+		return true;
+	}
+
+	/**
+	 * @return whether a and b are in the same set
+	 */
+	@TimeComplexityAmortized("O(a(n))")
+	public boolean connected(int a, int b) {
+		return find(a) == find(b);
+	}
+
+	/**
+	 * @return the number of ids in the set holding id
+	 */
+	@TimeComplexityAmortized("O(a(n))")
+	public int size(int id) {
+		return sizes[find(id)];
+	}
+
+	/**
+	 * @return the number of sets
+	 */
+	@TimeComplexity("O(1)")
+	public int count() {
+		return count;
+	}
+}
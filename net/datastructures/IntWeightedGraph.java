@@ -0,0 +1,67 @@
+package net.datastructures;
+
+/**
+ * A variant of the graph interface whose edges carry primitive int weights.
+ * Vertices and edges are numbered with dense ids, so algorithms can keep their
+ * state in primitive arrays and read the weights without unboxing Integer objects.
+ *
+ * The outgoing edges of vertex v are stored in the slots outStart(v) .. outEnd(v)-1,
+ * and the incoming edges in the slots inStart(v) .. inEnd(v)-1. In the case of an
+ * undirected graph the outgoing and incoming slots are the same.
+ */
+public interface IntWeightedGraph<V> extends Graph<V,Integer> {
+
+  /** Returns true if the graph is directed */
+  boolean isDirected();
+
+  /**
+   * Returns the dense id of vertex v, between 0 and numVertices()-1.
+   * @throws IllegalArgumentException if v is not a valid vertex
+   */
+  int vertexId(Vertex<V> v) throws IllegalArgumentException;
+
+  /** Returns the vertex with the given id */
+  Vertex<V> vertex(int id);
+
+  /**
+   * Returns the dense id of edge e, between 0 and numEdges()-1.
+   * @throws IllegalArgumentException if e is not a valid edge
+   */
+  int edgeId(Edge<Integer> e) throws IllegalArgumentException;
+
+  /** Returns the edge with the given id */
+  Edge<Integer> edge(int id);
+
+  /** Returns the weight of the edge with the given id */
+  int weight(int e);
+
+  /** Returns the id of the origin of edge e (an arbitrary end for undirected graphs) */
+  int edgeSource(int e);
+
+  /** Returns the id of the destination of edge e (the other end for undirected graphs) */
+  int edgeTarget(int e);
+
+  /** Returns the first outgoing slot of vertex v */
+  int outStart(int v);
+
+  /** Returns one past the last outgoing slot of vertex v */
+  int outEnd(int v);
+
+  /** Returns the id of the vertex at the other end of the outgoing slot */
+  int outTarget(int slot);
+
+  /** Returns the id of the edge stored in the outgoing slot */
+  int outEdge(int slot);
+
+  /** Returns the first incoming slot of vertex v */
+  int inStart(int v);
+
+  /** Returns one past the last incoming slot of vertex v */
+  int inEnd(int v);
+
+  /** Returns the id of the vertex at the other end of the incoming slot */
+  int inSource(int slot);
+
+  /** Returns the id of the edge stored in the incoming slot */
+  int inEdge(int slot);
+}
@@ -0,0 +1,74 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import main.AStarSearch;
+import main.IntCSRGraph;
+import main.Landmarks;
+import org.junit.Test;
+
+public class AStarSearchTest {
+
+	@Test
+	public void testLandmarksMatchDijkstra() {
+		for(int seed = 0; seed < 6; seed++) {
+			boolean directed = seed % 2 == 0;
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 200, 500, directed);
+			AStarSearch search = new AStarSearch(graph, Landmarks.select(graph, 4));
+			long[] expected = DijkstraSearchTest.reference(graph, seed);
+			for(int target = 0; target < 200; target++) {
+				assertEquals(expected[target], search.run(seed, target));
+				int[] path = search.path();
+				if(expected[target] >= 0) assertEquals(target, path[path.length - 1]);
+			}
+		}
+	}
+
+	@Test
+	public void testInconsistentHeuristic() {
+		//a random fraction of the true distance never overestimates but is not consistent
+		IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(7, 200, 600, false);
+		for(int target = 0; target < 200; target += 7) {
+			final long[] toTarget = DijkstraSearchTest.reference(graph, target);
+			final java.util.Random random = new java.util.Random(target);
+			final long[] bound = new long[200];
+			for(int v = 0; v < 200; v++) bound[v] = toTarget[v] < 0 ? 0 : (long)(toTarget[v] * random.nextDouble());
+			AStarSearch search = new AStarSearch(graph, (v, t) -> bound[v]);
+			long[] expected = DijkstraSearchTest.reference(graph, 3);
+			assertEquals(expected[target], search.run(3, target));
+		}
+	}
+
+	@Test
+	public void testSavedLandmarks() throws Exception {
+		IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(3, 100, 300, true);
+		Landmarks landmarks = Landmarks.select(graph, 3);
+		Path file = Files.createTempFile("landmarks", ".bin");
+		file.toFile().deleteOnExit();
+		landmarks.save(file);
+		Landmarks loaded = Landmarks.load(file, graph);
+		assertArrayEquals(landmarks.landmarks(), loaded.landmarks());
+		for(int v = 0; v < 100; v++) {
+			for(int t = 0; t < 100; t += 9) assertEquals(landmarks.estimate(v, t), loaded.estimate(v, t));
+		}
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void testLandmarksOfAnotherGraph() throws Exception {
+		Path file = Files.createTempFile("landmarks", ".bin");
+		file.toFile().deleteOnExit();
+		Landmarks.select(DijkstraSearchTest.randomGraph(3, 100, 300, true), 3).save(file);
+		Landmarks.load(file, DijkstraSearchTest.randomGraph(3, 100, 301, true));
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void testLandmarksOfAnotherGraphOfTheSameShape() throws Exception {
+		Path file = Files.createTempFile("landmarks", ".bin");
+		file.toFile().deleteOnExit();
+		Landmarks.select(DijkstraSearchTest.randomGraph(3, 100, 300, true), 3).save(file);
+		Landmarks.load(file, DijkstraSearchTest.randomGraph(4, 100, 300, true));
+	}
+}
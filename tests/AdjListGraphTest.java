@@ -0,0 +1,233 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.AdjListGraph;
+import net.datastructures.Edge;
+import net.datastructures.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdjListGraphTest {
+	AdjListGraph<String,Integer> G;
+	Vertex<String> A, B, C, D;
+	Edge<Integer> AB, AD, BC, CD;
+
+	@Before
+	public void setUp() throws Exception {
+		/*
+		 *    A------1-----
+		 *    |             \
+		 *    8              \
+		 *    |               \
+		 *    B --11-- C --1-- D
+		 */
+		G = new AdjListGraph<String,Integer>();
+		A = G.insertVertex("A");
+		B = G.insertVertex("B");
+		C = G.insertVertex("C");
+		D = G.insertVertex("D");
+		AB = G.insertEdge(A, B, 8);
+		AD = G.insertEdge(A, D, 1);
+		BC = G.insertEdge(B, C, 11);
+		CD = G.insertEdge(C, D, 1);
+	}
+
+	@Test
+	public void testRemoveEdge() {
+		G.removeEdge(AB);
+		assertEquals(3, G.numEdges());
+		assertEquals(1, G.outDegree(A));
+		assertEquals(1, G.outDegree(B));
+		assertNull(G.getEdge(A, B));
+		assertNull(G.getEdge(B, A));
+	}
+
+	@Test
+	public void testRemoveEdgeThroughInteriorHalf() {
+		//the edge returned for (D, C) is the half stored in D's incidence list
+		G.removeEdge(G.getEdge(D, C));
+		assertEquals(3, G.numEdges());
+		assertEquals(1, G.outDegree(C));
+		assertEquals(1, G.outDegree(D));
+		assertNull(G.getEdge(C, D));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRemoveEdgeTwice() {
+		G.removeEdge(BC);
+		G.removeEdge(BC);
+	}
+
+	@Test
+	public void testRemoveVertex() {
+		G.removeVertex(A);
+		assertEquals(3, G.numVertices());
+		assertEquals(2, G.numEdges());
+		assertEquals(1, G.outDegree(B));
+		assertEquals(1, G.outDegree(D));
+		for(Vertex<String> v : G.vertices()) {
+			assertFalse(v.getElement().equals("A"));
+		}
+	}
+
+	@Test
+	public void testRemoveVertexDirected() {
+		AdjListGraph<String,Integer> directed = new AdjListGraph<String,Integer>(true);
+		Vertex<String> x = directed.insertVertex("X");
+		Vertex<String> y = directed.insertVertex("Y");
+		Vertex<String> z = directed.insertVertex("Z");
+		directed.insertEdge(x, y, 1);
+		directed.insertEdge(y, z, 2);
+		directed.insertEdge(z, y, 3);
+		directed.removeVertex(y);
+		assertEquals(2, directed.numVertices());
+		assertEquals(0, directed.numEdges());
+		assertEquals(0, directed.outDegree(x));
+		assertEquals(0, directed.inDegree(z));
+	}
+
+	@Test
+	public void testReplaceUpdatesBothHalves() {
+		G.replace(AD, 5);
+		assertEquals(Integer.valueOf(5), G.getEdge(D, A).getElement());
+	}
+
+	@Test
+	public void testGetEdgeOnHighDegreeVertex() {
+		//enough neighbours for the hub to switch to its hash index
+		Vertex<String> hub = G.insertVertex("hub");
+		java.util.ArrayList<Vertex<String>> spokes = new java.util.ArrayList<Vertex<String>>();
+		for(int i = 0; i < 100; i++) {
+			Vertex<String> spoke = G.insertVertex("s" + i);
+			spokes.add(spoke);
+			G.insertEdge(hub, spoke, i);
+		}
+		Edge<Integer> parallel = G.insertEdge(hub, spokes.get(7), 1000);
+		for(int i = 0; i < 100; i++) {
+			assertNotNull(G.getEdge(hub, spokes.get(i)));
+			assertEquals(hub, G.opposite(spokes.get(i), G.getEdge(hub, spokes.get(i))));
+		}
+		assertNull(G.getEdge(hub, A));
+
+		//removing one of two parallel edges keeps the other one reachable
+		G.removeEdge(parallel);
+		assertEquals(Integer.valueOf(7), G.getEdge(hub, spokes.get(7)).getElement());
+		G.removeEdge(G.getEdge(spokes.get(7), hub));
+		assertNull(G.getEdge(hub, spokes.get(7)));
+
+		//dropping below the threshold falls back to scanning the incidence list
+		for(int i = 0; i < 95; i++) {
+			if(i != 7) G.removeVertex(spokes.get(i));
+		}
+		assertEquals(5, G.outDegree(hub));
+		assertNotNull(G.getEdge(hub, spokes.get(99)));
+		assertNull(G.getEdge(hub, spokes.get(3)));
+	}
+
+	@Test
+	public void testGetEdgeReturnsOldestParallelEdge() {
+		//the same edge is returned below the threshold, above it, and after dropping back below it
+		Vertex<String> hub = G.insertVertex("hub");
+		Edge<Integer> first = G.insertEdge(hub, A, 1);
+		Edge<Integer> second = G.insertEdge(hub, A, 2);
+		assertEquals(first, G.getEdge(hub, A));
+		java.util.ArrayList<Vertex<String>> spokes = new java.util.ArrayList<Vertex<String>>();
+		for(int i = 0; i < 30; i++) {
+			Vertex<String> spoke = G.insertVertex("s" + i);
+			spokes.add(spoke);
+			G.insertEdge(hub, spoke, i);
+		}
+		Edge<Integer> third = G.insertEdge(hub, A, 3);
+		assertEquals(first, G.getEdge(hub, A));
+		G.removeEdge(first);
+		assertEquals(second, G.getEdge(hub, A));
+		for(Vertex<String> spoke : spokes) G.removeVertex(spoke);
+		assertEquals(second, G.getEdge(hub, A));
+		G.removeEdge(second);
+		assertEquals(third, G.getEdge(hub, A));
+	}
+
+	@Test
+	public void testViewsAreLive() {
+		Iterable<Edge<Integer>> outgoing = G.outgoingEdges(A);
+		Iterable<Vertex<String>> vertices = G.vertices();
+		Vertex<String> E = G.insertVertex("E");
+		G.insertEdge(A, E, 3);
+		int degree = 0;
+		for(Edge<Integer> e : outgoing) degree++;
+		assertEquals(3, degree);
+		int count = 0;
+		for(Vertex<String> v : vertices) count++;
+		assertEquals(5, count);
+		//views keep insertion order
+		java.util.ArrayList<Integer> weights = new java.util.ArrayList<Integer>();
+		for(Edge<Integer> e : G.edges()) weights.add(e.getElement());
+		assertArrayEquals(new Integer[] {8, 1, 11, 1, 3}, weights.toArray());
+	}
+
+	@Test(expected = java.util.ConcurrentModificationException.class)
+	public void testViewFailsFastOnModification() {
+		for(Edge<Integer> e : G.edges()) {
+			G.removeEdge(e);
+		}
+	}
+
+	@Test
+	public void testBulkLoadMatchesIncrementalInsertion() {
+		java.util.Random random = new java.util.Random(7);
+		int n = 200, m = 3000;
+		Integer[] elements = new Integer[n];
+		for(int i = 0; i < n; i++) elements[i] = i;
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		Integer[] weights = new Integer[m];
+		for(int i = 0; i < m; i++) {
+			//vertex 0 is a hub so that its neighbour index is built
+			sources[i] = i % 3 == 0 ? 0 : random.nextInt(n);
+			targets[i] = random.nextInt(n);
+			weights[i] = i;
+		}
+		for(boolean directed : new boolean[] {false, true}) {
+			AdjListGraph<Integer,Integer> loaded = AdjListGraph.load(directed, elements, sources, targets, weights, true);
+			//the int column gives the same edges, boxed as they are created
+			int[] column = new int[m];
+			for(int i = 0; i < m; i++) column[i] = weights[i];
+			java.util.Iterator<Edge<Integer>> boxed = loaded.edges().iterator();
+			for(Edge<Integer> e : AdjListGraph.load(directed, elements, sources, targets, column, false).edges()) {
+				assertEquals(boxed.next().getElement(), e.getElement());
+			}
+			AdjListGraph<Integer,Integer> inserted = new AdjListGraph<Integer,Integer>(directed);
+			java.util.ArrayList<Vertex<Integer>> vertices = new java.util.ArrayList<Vertex<Integer>>();
+			for(int i = 0; i < n; i++) vertices.add(inserted.insertVertex(i));
+			for(int i = 0; i < m; i++) inserted.insertEdge(vertices.get(sources[i]), vertices.get(targets[i]), i);
+
+			assertEquals(n, loaded.numVertices());
+			assertEquals(m, loaded.numEdges());
+			java.util.Iterator<Vertex<Integer>> other = inserted.vertices().iterator();
+			for(Vertex<Integer> v : loaded.vertices()) {
+				Vertex<Integer> w = other.next();
+				assertEquals(w.getElement(), v.getElement());
+				assertEquals(inserted.outDegree(w), loaded.outDegree(v));
+				assertEquals(inserted.inDegree(w), loaded.inDegree(v));
+				//incidence lists keep the same order
+				java.util.Iterator<Edge<Integer>> edges = inserted.outgoingEdges(w).iterator();
+				for(Edge<Integer> e : loaded.outgoingEdges(v)) {
+					assertEquals(edges.next().getElement(), e.getElement());
+				}
+			}
+			Vertex<Integer> hub = loaded.vertices().iterator().next();
+			for(int i = 0; i < m; i += 3) {
+				Vertex<Integer> target = loaded.opposite(hub, loaded.getEdge(hub, findVertex(loaded, targets[i])));
+				assertEquals(Integer.valueOf(targets[i]), target.getElement());
+			}
+		}
+	}
+
+	private static Vertex<Integer> findVertex(AdjListGraph<Integer,Integer> graph, int element) {
+		for(Vertex<Integer> v : graph.vertices()) {
+			if(v.getElement() == element) return v;
+		}
+		return null;
+	}
+}
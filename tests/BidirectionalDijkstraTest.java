@@ -0,0 +1,70 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.BidirectionalDijkstra;
+import main.DijkstraSearch;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class BidirectionalDijkstraTest {
+
+	@Test
+	public void testMatchesDijkstra() {
+		for(int seed = 0; seed < 10; seed++) {
+			boolean directed = seed % 2 == 0;
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 200, 400, directed);
+			BidirectionalDijkstra search = new BidirectionalDijkstra(graph);
+			long[] expected = DijkstraSearchTest.reference(graph, seed);
+			for(int target = 0; target < 200; target++) {
+				long distance = search.run(seed, target);
+				assertEquals(expected[target], distance);
+				int[] path = search.path();
+				if(distance < 0) {
+					assertEquals(0, path.length);
+					continue;
+				}
+				assertEquals(seed, path[0]);
+				assertEquals(target, path[path.length - 1]);
+				long length = 0;
+				for(int i = 1; i < path.length; i++) {
+					long best = Long.MAX_VALUE;
+					for(int slot = graph.outStart(path[i - 1]); slot < graph.outEnd(path[i - 1]); slot++) {
+						if(graph.outTarget(slot) == path[i]) best = Math.min(best, graph.weight(graph.outEdge(slot)));
+					}
+					assertTrue(best != Long.MAX_VALUE);
+					length += best;
+				}
+				assertEquals(distance, length);
+			}
+		}
+	}
+
+	@Test
+	public void testExploresLessOnGrid() {
+		//a 100x100 grid with unit weights, corner to corner queries explore about half as much
+		int side = 100;
+		int n = side * side;
+		Integer[] vertices = new Integer[n];
+		for(int i = 0; i < n; i++) vertices[i] = i;
+		int m = 2 * side * (side - 1);
+		int[] from = new int[m];
+		int[] to = new int[m];
+		Integer[] weights = new Integer[m];
+		int e = 0;
+		for(int r = 0; r < side; r++) {
+			for(int c = 0; c < side; c++) {
+				if(c + 1 < side) { from[e] = r * side + c; to[e] = r * side + c + 1; weights[e++] = 1; }
+				if(r + 1 < side) { from[e] = r * side + c; to[e] = (r + 1) * side + c; weights[e++] = 1; }
+			}
+		}
+		IntCSRGraph<Integer> graph = new IntCSRGraph<Integer>(main.AdjListGraph.load(false, vertices, from, to, weights, false), false);
+		DijkstraSearch one = new DijkstraSearch(graph);
+		BidirectionalDijkstra two = new BidirectionalDijkstra(graph);
+		int source = 50 * side + 20;
+		int target = 50 * side + 80;
+		assertEquals(60, one.run(source, target));
+		assertEquals(60, two.run(source, target));
+		assertTrue(two.explored() < one.explored());
+	}
+}
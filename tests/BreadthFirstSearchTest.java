@@ -0,0 +1,75 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.BreadthFirstSearch;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class BreadthFirstSearchTest {
+
+	//the route of a queue-based search visiting the slots in order, every vertex keeping its first parent
+	private static int[] reference(IntCSRGraph<Integer> graph, int source, int target) {
+		int[] parents = new int[graph.numVertices()];
+		java.util.Arrays.fill(parents, -2);
+		java.util.ArrayDeque<Integer> queue = new java.util.ArrayDeque<Integer>();
+		parents[source] = -1;
+		queue.add(source);
+		while(!queue.isEmpty() && parents[target] == -2) {
+			int v = queue.poll();
+			for(int slot = graph.outStart(v); slot < graph.outEnd(v); slot++) {
+				int w = graph.outTarget(slot);
+				if(parents[w] == -2) {
+					parents[w] = v;
+					queue.add(w);
+				}
+			}
+		}
+		if(parents[target] == -2) return new int[0];
+		java.util.ArrayList<Integer> route = new java.util.ArrayList<Integer>();
+		for(int v = target; v != -1; v = parents[v]) route.add(0, v);
+		int[] output = new int[route.size()];
+		for(int i = 0; i < output.length; i++) output[i] = route.get(i);
+		return output;
+	}
+
+	private static void check(IntCSRGraph<Integer> graph, int source, boolean parallel) {
+		BreadthFirstSearch search = new BreadthFirstSearch(graph, parallel);
+		for(int target = 0; target < graph.numVertices(); target += 7) {
+			int[] expected = reference(graph, source, target);
+			assertEquals(expected.length - 1, search.run(source, target));
+			assertArrayEquals(expected, search.path());
+		}
+	}
+
+	@Test
+	public void testSparseGraphs() {
+		for(int seed = 0; seed < 6; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 500, 700, seed % 2 == 0);
+			check(graph, seed, false);
+			check(graph, seed, true);
+		}
+	}
+
+	@Test
+	public void testLowDiameterGraphs() {
+		//dense enough for the middle levels to be searched bottom-up
+		for(int seed = 0; seed < 2; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 5000, 60000, seed % 2 == 0);
+			check(graph, 3, false);
+			check(graph, 3, true);
+		}
+	}
+
+	@Test
+	public void testSelfAndUnreachable() {
+		IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(1, 100, 20, true);
+		BreadthFirstSearch search = new BreadthFirstSearch(graph);
+		assertEquals(0, search.run(4, 4));
+		assertArrayEquals(new int[] {4}, search.path());
+		int isolated = 0;
+		while(graph.outEnd(isolated) > graph.outStart(isolated) || graph.inEnd(isolated) > graph.inStart(isolated)) isolated++;
+		assertEquals(-1, search.run(isolated, (isolated + 1) % 100));
+		assertEquals(0, search.path().length);
+	}
+}
@@ -0,0 +1,272 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.ConcurrentAdjListGraph;
+import net.datastructures.Edge;
+import net.datastructures.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentAdjListGraphTest {
+	ConcurrentAdjListGraph<String,Integer> G;
+	Vertex<String> A, B, C, D;
+
+	@Before
+	public void setUp() throws Exception {
+		G = new ConcurrentAdjListGraph<String,Integer>();
+		A = G.insertVertex("A");
+		B = G.insertVertex("B");
+		C = G.insertVertex("C");
+		D = G.insertVertex("D");
+		G.insertEdge(A, B, 8);
+		G.insertEdge(A, D, 1);
+		G.insertEdge(B, C, 11);
+		G.insertEdge(C, D, 1);
+	}
+
+	@Test
+	public void testReadMethods() {
+		assertEquals(4, G.numVertices());
+		assertEquals(4, G.numEdges());
+		assertEquals(2, G.outDegree(A));
+		assertEquals(2, G.inDegree(C));
+		assertEquals(Integer.valueOf(11), G.getEdge(C, B).getElement());
+		assertEquals(B, G.opposite(C, G.getEdge(B, C)));
+		assertNull(G.getEdge(A, C));
+	}
+
+	@Test
+	public void testRemove() {
+		G.removeEdge(G.getEdge(A, B));
+		assertEquals(3, G.numEdges());
+		assertNull(G.getEdge(B, A));
+		G.removeVertex(D);
+		assertEquals(3, G.numVertices());
+		assertEquals(1, G.numEdges());
+		assertEquals(0, G.outDegree(A));
+		assertEquals(1, G.outDegree(C));
+	}
+
+	@Test
+	public void testSelfLoopCountsTwice() {
+		//the same degrees as AdjListGraph, where both halves of the loop are outgoing edges of the vertex
+		main.AdjListGraph<String,Integer> reference = new main.AdjListGraph<String,Integer>();
+		Vertex<String> a = reference.insertVertex("A");
+		reference.insertEdge(a, a, 3);
+		Edge<Integer> loop = G.insertEdge(A, A, 3);
+		assertEquals(reference.outDegree(a) + 2, G.outDegree(A));
+		assertEquals(reference.inDegree(a) + 2, G.inDegree(A));
+		int count = 0;
+		for(Edge<Integer> e : G.outgoingEdges(A)) if(e == loop) count++;
+		assertEquals(2, count);
+		try(ConcurrentAdjListGraph<String,Integer>.Snapshot S = G.snapshot()) {
+			G.removeEdge(loop);
+			assertEquals(2, G.outDegree(A));
+			assertEquals(4, S.outDegree(find(S, "A")));
+		}
+		G.insertEdge(A, A, 4);
+		G.removeVertex(A);
+		assertEquals(2, G.numEdges());
+		assertEquals(1, G.outDegree(B));
+	}
+
+	//the vertex of a snapshot with the given element
+	private static Vertex<String> find(ConcurrentAdjListGraph<String,Integer>.Snapshot S, String element) {
+		for(Vertex<String> v : S.vertices()) if(v.getElement().equals(element)) return v;
+		return null;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInsertEdgeOnRemovedVertex() {
+		G.removeVertex(D);
+		G.insertEdge(A, D, 2);
+	}
+
+	@Test
+	public void testConcurrentWritersAndReaders() throws Exception {
+		final int n = 64;
+		final ConcurrentAdjListGraph<Integer,Integer> graph = new ConcurrentAdjListGraph<Integer,Integer>(true);
+		final java.util.ArrayList<Vertex<Integer>> vertices = new java.util.ArrayList<Vertex<Integer>>();
+		for(int i = 0; i < n; i++) vertices.add(graph.insertVertex(i));
+		final java.util.concurrent.atomic.AtomicBoolean failed = new java.util.concurrent.atomic.AtomicBoolean();
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread(() -> {
+				java.util.Random random = new java.util.Random(seed);
+				for(int i = 0; i < 5000; i++) {
+					Vertex<Integer> u = vertices.get(random.nextInt(n));
+					Vertex<Integer> v = vertices.get(random.nextInt(n));
+					if(seed % 2 == 0) {
+						//writers insert an edge and remove it again
+						Edge<Integer> e = graph.insertEdge(u, v, i);
+						graph.removeEdge(e);
+					}
+					else {
+						//readers only ever see complete edges
+						for(Edge<Integer> e : graph.outgoingEdges(u)) {
+							if(graph.endVertices(e)[0] != u) failed.set(true);
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread t : threads) t.join();
+		assertFalse(failed.get());
+		assertEquals(0, graph.numEdges());
+		for(Vertex<Integer> v : vertices) {
+			assertEquals(0, graph.outDegree(v));
+			assertEquals(0, graph.inDegree(v));
+		}
+	}
+
+	@Test
+	public void testSnapshotKeepsItsVersion() {
+		ConcurrentAdjListGraph<String,Integer>.Snapshot S = G.snapshot();
+		G.replace(G.getEdge(A, B), 9);
+		G.removeVertex(D);
+		Vertex<String> E = G.insertVertex("E");
+		G.insertEdge(E, A, 3);
+		G.replace(A, "Z");
+		assertEquals(4, G.numVertices());
+		assertEquals(3, G.numEdges());
+		//the snapshot still reads the graph as set up
+		assertEquals(4, S.numVertices());
+		assertEquals(4, S.numEdges());
+		int vertices = 0, edges = 0, weight = 0;
+		for(Vertex<String> v : S.vertices()) {
+			vertices++;
+			assertFalse(v.getElement().equals("E") || v.getElement().equals("Z"));
+		}
+		for(Edge<Integer> e : S.edges()) {
+			edges++;
+			weight += e.getElement();
+		}
+		assertEquals(4, vertices);
+		assertEquals(4, edges);
+		assertEquals(21, weight);
+		for(Vertex<String> v : S.vertices()) {
+			if(v.getElement().equals("A")) {
+				assertEquals(2, S.outDegree(v));
+				for(Edge<Integer> e : S.outgoingEdges(v)) assertEquals(v, S.opposite(S.opposite(v, e), e));
+			}
+		}
+		S.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosedSnapshot() {
+		ConcurrentAdjListGraph<String,Integer>.Snapshot S = G.snapshot();
+		S.close();
+		S.vertices();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotIsReadOnly() {
+		try(ConcurrentAdjListGraph<String,Integer>.Snapshot S = G.snapshot()) {
+			S.insertVertex("E");
+		}
+	}
+
+	@Test
+	public void testSnapshotsDuringWrites() throws Exception {
+		final ConcurrentAdjListGraph<Integer,Integer> graph = new ConcurrentAdjListGraph<Integer,Integer>();
+		final Vertex<Integer>[] vertices = new Vertex[32];
+		for(int i = 0; i < vertices.length; i++) vertices[i] = graph.insertVertex(i);
+		Thread writer = new Thread(() -> {
+			java.util.Random random = new java.util.Random(1);
+			for(int i = 0; i < 2000; i++) {
+				Edge<Integer> e = graph.insertEdge(vertices[random.nextInt(32)], vertices[random.nextInt(32)], 1);
+				if(i % 2 == 0) graph.removeEdge(e);
+			}
+		});
+		writer.start();
+		//every snapshot is a consistent version, its edges match its size and the degrees of its vertices
+		while(writer.isAlive()) {
+			try(ConcurrentAdjListGraph<Integer,Integer>.Snapshot S = graph.snapshot()) {
+				int edges = 0, degrees = 0;
+				for(Edge<Integer> e : S.edges()) edges++;
+				for(Vertex<Integer> v : S.vertices()) degrees += S.outDegree(v);
+				assertEquals(S.numEdges(), edges);
+				//self loops count twice, so every edge adds 2 to the degrees
+				assertEquals(2 * edges, degrees);
+			}
+		}
+		writer.join();
+		assertEquals(1000, graph.numEdges());
+	}
+
+	@Test
+	public void testSnapshotsDuringConcurrentWriters() throws Exception {
+		//writers on different stripes commit without waiting for each other, the snapshots stay consistent
+		final ConcurrentAdjListGraph<Integer,Integer> graph = new ConcurrentAdjListGraph<Integer,Integer>();
+		final java.util.List<Vertex<Integer>> vertices = new java.util.ArrayList<Vertex<Integer>>();
+		for(int i = 0; i < 64; i++) vertices.add(graph.insertVertex(i));
+		Thread[] writers = new Thread[4];
+		for(int w = 0; w < writers.length; w++) {
+			final int seed = w;
+			writers[w] = new Thread(() -> {
+				java.util.Random random = new java.util.Random(seed);
+				for(int i = 0; i < 2000; i++) {
+					Edge<Integer> e = graph.insertEdge(vertices.get(random.nextInt(64)), vertices.get(random.nextInt(64)), i);
+					if(i % 2 == 0) graph.removeEdge(e);
+					else graph.replace(e, -i);
+				}
+			});
+			writers[w].start();
+		}
+		long last = -1;
+		boolean writing = true;
+		while(writing) {
+			writing = false;
+			for(Thread writer : writers) writing |= writer.isAlive();
+			try(ConcurrentAdjListGraph<Integer,Integer>.Snapshot S = graph.snapshot()) {
+				assertTrue(S.version() >= last);
+				last = S.version();
+				int edges = 0, degrees = 0;
+				for(Edge<Integer> e : S.edges()) {
+					edges++;
+					assertNotNull(e.getElement());
+				}
+				for(Vertex<Integer> v : S.vertices()) degrees += S.outDegree(v);
+				assertEquals(S.numEdges(), edges);
+				assertEquals(2 * edges, degrees);
+			}
+		}
+		for(Thread writer : writers) writer.join();
+		assertEquals(4000, graph.numEdges());
+		try(ConcurrentAdjListGraph<Integer,Integer>.Snapshot S = graph.snapshot()) {
+			for(Edge<Integer> e : S.edges()) assertTrue(e.getElement() <= 0);
+		}
+	}
+
+	@Test
+	public void testLiveReadsSeeWholeWrites() throws Exception {
+		//an undirected edge is published in the arrays of both end vertices, a live reader sees both or neither.
+		//The writer copies the long array of the hub last, so a reader has time to look in between
+		final ConcurrentAdjListGraph<Integer,Integer> graph = new ConcurrentAdjListGraph<Integer,Integer>();
+		final Vertex<Integer> hub = graph.insertVertex(-1);
+		final java.util.List<Vertex<Integer>> leaves = new java.util.ArrayList<Vertex<Integer>>();
+		for(int i = 0; i < 20000; i++) leaves.add(graph.insertVertex(i));
+		final java.util.concurrent.atomic.AtomicInteger current = new java.util.concurrent.atomic.AtomicInteger();
+		Thread writer = new Thread(() -> {
+			for(int i = 0; i < leaves.size(); i++) {
+				current.set(i);
+				graph.insertEdge(leaves.get(i), hub, i);
+			}
+		});
+		writer.start();
+		while(writer.isAlive()) {
+			Vertex<Integer> leaf = leaves.get(current.get());
+			//edges are never removed, so an edge seen from the leaf must be seen from the hub afterwards
+			if(graph.getEdge(leaf, hub) != null) {
+				assertNotNull(graph.getEdge(hub, leaf));
+				assertTrue(graph.outDegree(hub) <= graph.numEdges());
+			}
+		}
+		writer.join();
+		assertEquals(leaves.size(), graph.outDegree(hub));
+	}
+}
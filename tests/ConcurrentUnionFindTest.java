@@ -0,0 +1,46 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.ConcurrentUnionFind;
+import main.UnionFind;
+import org.junit.Test;
+
+public class ConcurrentUnionFindTest {
+
+	@Test
+	public void testConcurrentUnions() throws Exception {
+		int n = 20000;
+		int m = 30000;
+		java.util.Random random = new java.util.Random(3);
+		int[] a = new int[m];
+		int[] b = new int[m];
+		for(int i = 0; i < m; i++) {
+			a[i] = random.nextInt(n);
+			b[i] = random.nextInt(n);
+		}
+		UnionFind expected = new UnionFind(n);
+		for(int i = 0; i < m; i++) expected.union(a[i], b[i]);
+		ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+		java.util.concurrent.atomic.AtomicInteger merges = new java.util.concurrent.atomic.AtomicInteger();
+		//every thread merges all the pairs, in its own order, so the same sets are merged concurrently
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			final int offset = t * m / threads.length;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < m; i++) {
+					int j = (i + offset) % m;
+					if(sets.union(a[j], b[j])) merges.incrementAndGet();
+				}
+			});
+		}
+		for(Thread t : threads) t.start();
+		for(Thread t : threads) t.join();
+		assertEquals(n - expected.count(), merges.get());
+		for(int i = 0; i < 5000; i++) {
+			int u = random.nextInt(n);
+			int v = random.nextInt(n);
+			assertEquals(expected.connected(u, v), sets.connected(u, v));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.AdjListGraph;
+import main.ContractionHierarchy;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class ContractionHierarchyTest {
+
+	//checks every distance from the source against Bellman-Ford and that the unpacked paths have that length
+	private static void check(IntCSRGraph<Integer> graph, ContractionHierarchy hierarchy, int source) {
+		ContractionHierarchy.Query query = hierarchy.query();
+		long[] expected = DijkstraSearchTest.reference(graph, source);
+		for(int target = 0; target < graph.numVertices(); target++) {
+			long distance = query.run(source, target);
+			assertEquals(expected[target], distance);
+			int[] path = query.path();
+			if(distance < 0) {
+				assertEquals(0, path.length);
+				continue;
+			}
+			assertEquals(source, path[0]);
+			assertEquals(target, path[path.length - 1]);
+			long length = 0;
+			for(int i = 1; i < path.length; i++) {
+				long best = Long.MAX_VALUE;
+				for(int slot = graph.outStart(path[i - 1]); slot < graph.outEnd(path[i - 1]); slot++) {
+					if(graph.outTarget(slot) == path[i]) best = Math.min(best, graph.weight(graph.outEdge(slot)));
+				}
+				assertTrue(best != Long.MAX_VALUE);
+				length += best;
+			}
+			assertEquals(distance, length);
+		}
+	}
+
+	//a side x side grid with random weights, shaped like a road network
+	private static IntCSRGraph<Integer> grid(long seed, int side) {
+		java.util.Random random = new java.util.Random(seed);
+		Integer[] vertices = new Integer[side * side];
+		for(int i = 0; i < vertices.length; i++) vertices[i] = i;
+		int m = 2 * side * (side - 1);
+		int[] from = new int[m];
+		int[] to = new int[m];
+		Integer[] weights = new Integer[m];
+		int e = 0;
+		for(int row = 0; row < side; row++) {
+			for(int column = 0; column < side; column++) {
+				int v = row * side + column;
+				if(column + 1 < side) {
+					from[e] = v;
+					to[e] = v + 1;
+					weights[e++] = 1 + random.nextInt(100);
+				}
+				if(row + 1 < side) {
+					from[e] = v;
+					to[e] = v + side;
+					weights[e++] = 1 + random.nextInt(100);
+				}
+			}
+		}
+		return new IntCSRGraph<Integer>(AdjListGraph.load(false, vertices, from, to, weights, false), false);
+	}
+
+	@Test
+	public void testUndirected() {
+		for(int seed = 0; seed < 4; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 300, 700, false);
+			ContractionHierarchy hierarchy = new ContractionHierarchy(graph, false);
+			check(graph, hierarchy, seed);
+			check(graph, hierarchy, 100 + seed);
+		}
+	}
+
+	@Test
+	public void testDirected() {
+		for(int seed = 0; seed < 4; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 300, 900, true);
+			check(graph, new ContractionHierarchy(graph, false), seed);
+		}
+	}
+
+	@Test
+	public void testParallelPreprocessing() {
+		IntCSRGraph<Integer> graph = grid(11, 40);
+		ContractionHierarchy hierarchy = new ContractionHierarchy(graph, true);
+		check(graph, hierarchy, 0);
+		check(graph, hierarchy, 820);
+		//the upward searches stay far smaller than the grid
+		ContractionHierarchy.Query query = hierarchy.query();
+		query.run(0, 1599);
+		assertTrue(query.explored() < 800);
+	}
+}
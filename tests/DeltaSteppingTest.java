@@ -0,0 +1,59 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.DeltaStepping;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class DeltaSteppingTest {
+
+	//checks the distances against Bellman-Ford and that every predecessor is on a shortest path
+	private static void check(IntCSRGraph<Integer> graph, DeltaStepping search, int source) {
+		search.run(source);
+		long[] expected = DijkstraSearchTest.reference(graph, source);
+		long[] dist = search.distances();
+		int[] previous = search.predecessors();
+		for(int v = 0; v < graph.numVertices(); v++) {
+			assertEquals(expected[v], dist[v]);
+			if(v == source || dist[v] < 0) {
+				assertEquals(-1, previous[v]);
+				continue;
+			}
+			long best = Long.MAX_VALUE;
+			for(int slot = graph.outStart(previous[v]); slot < graph.outEnd(previous[v]); slot++) {
+				if(graph.outTarget(slot) == v) best = Math.min(best, graph.weight(graph.outEdge(slot)));
+			}
+			assertEquals(dist[v], dist[previous[v]] + best);
+			int[] path = search.path(v);
+			assertEquals(source, path[0]);
+			assertEquals(v, path[path.length - 1]);
+		}
+	}
+
+	@Test
+	public void testMatchesReference() {
+		for(int seed = 0; seed < 6; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 400, 1200, seed % 2 == 0);
+			check(graph, new DeltaStepping(graph), seed);
+			check(graph, new DeltaStepping(graph, 1, false), seed);
+			check(graph, new DeltaStepping(graph, 1000, false), seed);
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		for(int seed = 0; seed < 4; seed++) {
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 2000, 8000, seed % 2 == 0);
+			DeltaStepping search = new DeltaStepping(graph, DeltaStepping.defaultDelta(graph), true);
+			//the instance is reused for several sources
+			check(graph, search, seed);
+			check(graph, search, 1000 + seed);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDelta() {
+		new DeltaStepping(DijkstraSearchTest.randomGraph(0, 10, 10, false), 0, false);
+	}
+}
@@ -0,0 +1,75 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.AdjListGraph;
+import main.DepthFirstSearch;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class DepthFirstSearchTest {
+
+	//the route of a recursive depth first search visiting the slots in order, null if the target is not reached
+	private static java.util.ArrayList<Integer> reference(IntCSRGraph<Integer> graph, boolean[] reached, int v, int target) {
+		reached[v] = true;
+		java.util.ArrayList<Integer> route = new java.util.ArrayList<Integer>();
+		route.add(v);
+		if(v == target) return route;
+		for(int slot = graph.outStart(v); slot < graph.outEnd(v); slot++) {
+			int w = graph.outTarget(slot);
+			if(reached[w]) continue;
+			java.util.ArrayList<Integer> rest = reference(graph, reached, w, target);
+			if(rest != null) {
+				route.addAll(rest);
+				return route;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testMatchesRecursiveSearch() {
+		for(int seed = 0; seed < 10; seed++) {
+			boolean directed = seed % 2 == 0;
+			IntCSRGraph<Integer> graph = DijkstraSearchTest.randomGraph(seed, 200, 300, directed);
+			DepthFirstSearch search = new DepthFirstSearch(graph);
+			for(int target = 0; target < 200; target++) {
+				java.util.ArrayList<Integer> expected = reference(graph, new boolean[200], seed, target);
+				assertEquals(expected != null, search.run(seed, target));
+				int[] path = search.path();
+				if(expected == null) {
+					assertEquals(0, path.length);
+					continue;
+				}
+				assertEquals(expected.size(), path.length);
+				for(int i = 0; i < path.length; i++) assertEquals((int)expected.get(i), path[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testMillionVertexChain() {
+		int n = 1000000;
+		Integer[] vertices = new Integer[n];
+		int[] from = new int[n - 1];
+		int[] to = new int[n - 1];
+		Integer[] weights = new Integer[n - 1];
+		for(int i = 0; i < n; i++) vertices[i] = i;
+		for(int i = 0; i < n - 1; i++) {
+			from[i] = i;
+			to[i] = i + 1;
+			weights[i] = 1;
+		}
+		IntCSRGraph<Integer> graph = new IntCSRGraph<Integer>(AdjListGraph.load(false, vertices, from, to, weights, false), false);
+		DepthFirstSearch search = new DepthFirstSearch(graph);
+		assertTrue(search.run(0, n - 1));
+		int[] path = search.path();
+		assertEquals(n, path.length);
+		assertEquals(n - 1, path[n - 1]);
+		//the arrays are reused, the next search starts from a clean state
+		assertTrue(search.run(n - 1, 0));
+		assertEquals(n, search.explored());
+		assertTrue(search.run(5, 5));
+		assertEquals(1, search.path().length);
+	}
+}
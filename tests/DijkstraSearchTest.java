@@ -0,0 +1,107 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.AdjListGraph;
+import main.DijkstraSearch;
+import main.IntCSRGraph;
+import org.junit.Test;
+
+public class DijkstraSearchTest {
+
+	//builds a random graph with n vertices and m edges of weight 0 .. 99
+	static IntCSRGraph<Integer> randomGraph(long seed, int n, int m, boolean directed) {
+		java.util.Random random = new java.util.Random(seed);
+		Integer[] vertices = new Integer[n];
+		for(int i = 0; i < n; i++) vertices[i] = i;
+		int[] from = new int[m];
+		int[] to = new int[m];
+		Integer[] weights = new Integer[m];
+		for(int i = 0; i < m; i++) {
+			from[i] = random.nextInt(n);
+			to[i] = random.nextInt(n);
+			weights[i] = random.nextInt(100);
+		}
+		return new IntCSRGraph<Integer>(AdjListGraph.load(directed, vertices, from, to, weights, false), directed);
+	}
+
+	//Bellman-Ford distances from source, -1 for unreachable vertices
+	static long[] reference(IntCSRGraph<Integer> graph, int source) {
+		int n = graph.numVertices();
+		long[] dist = new long[n];
+		java.util.Arrays.fill(dist, Long.MAX_VALUE);
+		dist[source] = 0;
+		for(boolean changed = true; changed; ) {
+			changed = false;
+			for(int v = 0; v < n; v++) {
+				if(dist[v] == Long.MAX_VALUE) continue;
+				for(int slot = graph.outStart(v); slot < graph.outEnd(v); slot++) {
+					int w = graph.outTarget(slot);
+					long d = dist[v] + graph.weight(graph.outEdge(slot));
+					if(d < dist[w]) {
+						dist[w] = d;
+						changed = true;
+					}
+				}
+			}
+		}
+		for(int v = 0; v < n; v++) if(dist[v] == Long.MAX_VALUE) dist[v] = -1;
+		return dist;
+	}
+
+	@Test
+	public void testMatchesReference() {
+		for(int seed = 0; seed < 10; seed++) {
+			boolean directed = seed % 2 == 0;
+			IntCSRGraph<Integer> graph = randomGraph(seed, 200, 500, directed);
+			DijkstraSearch search = new DijkstraSearch(graph);
+			long[] expected = reference(graph, seed);
+			for(int target = 0; target < 200; target++) {
+				long distance = search.run(seed, target);
+				assertEquals(expected[target], distance);
+				int[] path = search.path();
+				if(distance < 0) {
+					assertEquals(0, path.length);
+					continue;
+				}
+				//the path is a walk from source to target of the returned length
+				assertEquals(seed, path[0]);
+				assertEquals(target, path[path.length - 1]);
+				long length = 0;
+				for(int i = 1; i < path.length; i++) {
+					long best = Long.MAX_VALUE;
+					for(int slot = graph.outStart(path[i - 1]); slot < graph.outEnd(path[i - 1]); slot++) {
+						if(graph.outTarget(slot) == path[i]) best = Math.min(best, graph.weight(graph.outEdge(slot)));
+					}
+					assertTrue(best != Long.MAX_VALUE);
+					length += best;
+				}
+				assertEquals(distance, length);
+			}
+		}
+	}
+
+	@Test
+	public void testStopsAtTarget() {
+		//a long path: a query for the second vertex explores only its neighbourhood
+		int n = 100000;
+		Integer[] vertices = new Integer[n];
+		int[] from = new int[n - 1];
+		int[] to = new int[n - 1];
+		Integer[] weights = new Integer[n - 1];
+		for(int i = 0; i < n; i++) vertices[i] = i;
+		for(int i = 0; i < n - 1; i++) {
+			from[i] = i;
+			to[i] = i + 1;
+			weights[i] = 1;
+		}
+		IntCSRGraph<Integer> graph = new IntCSRGraph<Integer>(AdjListGraph.load(false, vertices, from, to, weights, false), false);
+		DijkstraSearch search = new DijkstraSearch(graph);
+		assertEquals(1, search.run(0, 1));
+		assertTrue(search.explored() <= 3);
+		assertEquals(n - 1, search.run(0, n - 1));
+		assertEquals(n, search.path().length);
+		assertEquals(0, search.run(5, 5));
+		assertEquals(1, search.path().length);
+	}
+}
@@ -0,0 +1,99 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.DynamicMST;
+import main.Islands;
+import org.junit.Test;
+
+public class DynamicMSTTest {
+
+	//the cost of the minimum spanning forest of the current edges, computed from scratch
+	private static long recompute(DynamicMST mst) {
+		int m = mst.numEdges();
+		int[] from = new int[m];
+		int[] to = new int[m];
+		int[] costs = new int[m];
+		for(int e = 0; e < m; e++) {
+			from[e] = mst.from(e);
+			to[e] = mst.to(e);
+			costs[e] = mst.cost(e);
+		}
+		return new Islands(mst.numIslands(), from, to, costs).Kruskal();
+	}
+
+	@Test
+	public void testTextBook() {
+		int[] from = {0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 5, 5, 6};
+		int[] to = {1, 2, 3, 4, 5, 6, 7, 2, 3, 4, 5, 6, 7, 3, 4, 5, 6, 7, 4, 5, 6, 7, 5, 6, 7, 6, 7, 7};
+		int[] costs = {240, 210, 340, 280, 200, 345, 120, 265, 175, 215, 180, 185, 155, 260, 115, 350, 435, 195,
+				160, 330, 295, 230, 360, 400, 170, 175, 205, 305};
+		DynamicMST mst = new DynamicMST(8, from, to, costs);
+		assertEquals(1075, mst.cost());
+		assertEquals(1, mst.components());
+		int forest = 0;
+		for(int e = 0; e < mst.numEdges(); e++) if(mst.inForest(e)) forest++;
+		assertEquals(7, forest);
+		//a cheap edge replaces the heaviest edge of the cycle it closes
+		int edge = mst.addEdge(1, 2, 100);
+		assertTrue(mst.inForest(edge));
+		assertEquals(recompute(mst), mst.cost());
+		int island = mst.addIsland();
+		assertEquals(2, mst.components());
+		assertFalse(mst.connected(0, island));
+		mst.addEdge(island, 3, 50);
+		assertEquals(1, mst.components());
+		assertTrue(mst.connected(0, island));
+		assertEquals(recompute(mst), mst.cost());
+	}
+
+	@Test
+	public void testMatchesRecompute() {
+		java.util.Random random = new java.util.Random(3);
+		for(int round = 0; round < 20; round++) {
+			DynamicMST mst = new DynamicMST(1 + random.nextInt(30));
+			for(int step = 0; step < 300; step++) {
+				int choice = random.nextInt(10);
+				if(choice == 0) {
+					mst.addIsland();
+				}
+				else if(choice < 6 || mst.numEdges() == 0) {
+					//self loops and parallel edges included, costs small enough for many ties
+					mst.addEdge(random.nextInt(mst.numIslands()), random.nextInt(mst.numIslands()), random.nextInt(50));
+				}
+				else {
+					int edge = random.nextInt(mst.numEdges());
+					mst.decreaseCost(edge, mst.cost(edge) - random.nextInt(20));
+				}
+				assertEquals(recompute(mst), mst.cost());
+			}
+		}
+	}
+
+	@Test
+	public void testLargeSequence() {
+		//costs below 50000, so the int total of Kruskal cannot overflow
+		int n = 20000;
+		java.util.Random random = new java.util.Random(11);
+		DynamicMST mst = new DynamicMST(n);
+		for(int step = 1; step <= 100000; step++) {
+			if(step % 4 == 0) {
+				int edge = random.nextInt(mst.numEdges());
+				mst.decreaseCost(edge, mst.cost(edge) - random.nextInt(1000));
+			}
+			else mst.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(50000));
+			if(step % 25000 == 0) assertEquals(recompute(mst), mst.cost());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidIsland() {
+		new DynamicMST(3).addEdge(0, 3, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncreaseCost() {
+		DynamicMST mst = new DynamicMST(2);
+		mst.decreaseCost(mst.addEdge(0, 1, 5), 6);
+	}
+}
@@ -66,4 +66,174 @@ public class IslandsTest {
 		assertEquals(1075,T.Kruskal());
 	}
 
+	//a connected random instance: a random spanning path plus m - n + 1 random edges, costs 0 .. 999
+	private static int[][] randomEdges(long seed, int n, int m) {
+		java.util.Random random = new java.util.Random(seed);
+		int[] order = new int[n];
+		for(int i = 0; i < n; i++) order[i] = i;
+		for(int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		int[][] edges = new int[3][m];
+		for(int i = 0; i < m; i++) {
+			edges[0][i] = i < n - 1 ? order[i] : random.nextInt(n);
+			edges[1][i] = i < n - 1 ? order[i + 1] : random.nextInt(n);
+			edges[2][i] = random.nextInt(1000);
+		}
+		return edges;
+	}
+
+	//Prim with a binary heap of (cost, island) pairs
+	private static long prim(int n, int[][] edges) {
+		java.util.List<java.util.List<int[]>> adjacent = new java.util.ArrayList<java.util.List<int[]>>();
+		for(int i = 0; i < n; i++) adjacent.add(new java.util.ArrayList<int[]>());
+		for(int i = 0; i < edges[0].length; i++) {
+			adjacent.get(edges[0][i]).add(new int[] {edges[1][i], edges[2][i]});
+			adjacent.get(edges[1][i]).add(new int[] {edges[0][i], edges[2][i]});
+		}
+		boolean[] inTree = new boolean[n];
+		java.util.PriorityQueue<long[]> queue = new java.util.PriorityQueue<long[]>((a, b) -> Long.compare(a[0], b[0]));
+		queue.add(new long[] {0, 0});
+		long cost = 0;
+		while(!queue.isEmpty()) {
+			long[] top = queue.poll();
+			int v = (int)top[1];
+			if(inTree[v]) continue;
+			inTree[v] = true;
+			cost += top[0];
+			for(int[] edge : adjacent.get(v)) {
+				if(!inTree[edge[0]]) queue.add(new long[] {edge[1], edge[0]});
+			}
+		}
+		return cost;
+	}
+
+	@Test
+	public void testIslandsEdgeList() {
+		for(int seed = 0; seed < 5; seed++) {
+			int[][] edges = randomEdges(seed, 2000, 8000);
+			T = new Islands(2000, edges[0], edges[1], edges[2]);
+			assertEquals(prim(2000, edges), T.Kruskal());
+		}
+	}
+
+	@Test
+	public void testPrimVariants() {
+		int[][] medium = { {-1,  1,  -1,  3, -1, -1},
+						   {-1, -1,   6,  5,  1, -1},
+						   {-1, -1,  -1, -1,  5,  2},
+						   {-1, -1,  -1, -1,  1, -1},
+						   {-1, -1,  -1, -1, -1,  4},
+						   {-1, -1,  -1, -1, -1, -1}};
+		T = new Islands(6, medium);
+		assertEquals(9, T.Prim());
+		assertEquals(9, T.DensePrim());
+		assertEquals(9, T.minimumSpanningCost());
+		//sparse, dense and complete instances, and a forest of two parts
+		int[][] sizes = {{2000, 5000}, {300, 20000}, {200, 19900}};
+		for(int seed = 0; seed < 3; seed++) {
+			for(int[] size : sizes) {
+				int[][] edges = randomEdges(seed, size[0], size[1]);
+				T = new Islands(size[0], edges[0], edges[1], edges[2]);
+				int expected = T.Kruskal();
+				assertEquals(prim(size[0], edges), expected);
+				assertEquals(expected, T.Prim());
+				assertEquals(expected, T.DensePrim());
+				assertEquals(expected, T.minimumSpanningCost());
+			}
+		}
+		T = new Islands(5, new int[] {0, 3}, new int[] {1, 4}, new int[] {7, 2});
+		assertEquals(9, T.Prim());
+		assertEquals(9, T.DensePrim());
+		assertEquals(9, T.minimumSpanningCost());
+	}
+
+	@Test
+	public void testBoruvka() {
+		int[][] textbook = { {-1,  240, 210, 340, 280, 200, 345, 120},
+							 {-1,   -1, 265, 175, 215, 180, 185, 155},
+							 {-1,   -1,  -1, 260, 115, 350, 435, 195},
+							 {-1,   -1,  -1,  -1, 160, 330, 295, 230},
+							 {-1,   -1,  -1,  -1,  -1, 360, 400, 170},
+							 {-1,   -1,  -1,  -1,  -1,  -1, 175, 205},
+							 {-1,   -1,  -1,  -1,  -1,  -1,  -1, 305},
+							 {-1,   -1,  -1,  -1,  -1,  -1,  -1,  -1}};
+		T = new Islands(8, textbook);
+		assertEquals(1075, T.Boruvka());
+		T = new Islands(5, new int[] {0, 3, 2}, new int[] {1, 4, 2}, new int[] {7, 2, 1});
+		assertEquals(9, T.Boruvka());
+		for(int threads = 1; threads <= 4; threads *= 2) {
+			java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
+			for(int seed = 0; seed < 3; seed++) {
+				//costs 0 .. 999 over many edges, so ties between edges are common
+				int[][] edges = randomEdges(seed, 5000, 20000);
+				T = new Islands(5000, edges[0], edges[1], edges[2]);
+				assertEquals(T.Kruskal(), T.Boruvka(pool));
+			}
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testMatrixFastPath() {
+		int[][] textbook = { {-1,  240, 210, 340, 280, 200, 345, 120},
+							 {-1,   -1, 265, 175, 215, 180, 185, 155},
+							 {-1,   -1,  -1, 260, 115, 350, 435, 195},
+							 {-1,   -1,  -1,  -1, 160, 330, 295, 230},
+							 {-1,   -1,  -1,  -1,  -1, 360, 400, 170},
+							 {-1,   -1,  -1,  -1,  -1,  -1, 175, 205},
+							 {-1,   -1,  -1,  -1,  -1,  -1,  -1, 305},
+							 {-1,   -1,  -1,  -1,  -1,  -1,  -1,  -1}};
+		assertEquals(1075, Islands.minimumSpanningCost(8, textbook));
+		//short rows and missing rows have no edges, a forest of 0-1-2 and 3
+		assertEquals(3, Islands.minimumSpanningCost(4, new int[][] {{-1, 1, 2}, {-1, -1, 4}}));
+		assertEquals(0, Islands.minimumSpanningCost(0, new int[0]));
+		java.util.Random random = new java.util.Random(5);
+		for(int seed = 0; seed < 20; seed++) {
+			int n = 1 + random.nextInt(60);
+			//full, asymmetric matrices with parallel edges in both directions, from sparse to complete
+			int percent = random.nextInt(101);
+			int[][] distance = new int[n][n];
+			int[] flat = new int[n * n];
+			for(int i = 0; i < n; i++) {
+				for(int j = 0; j < n; j++) {
+					distance[i][j] = random.nextInt(100) < percent ? random.nextInt(1000) : -1;
+					flat[i * n + j] = distance[i][j];
+				}
+			}
+			int expected = new Islands(n, distance).Kruskal();
+			assertEquals(expected, Islands.minimumSpanningCost(n, distance));
+			assertEquals(expected, Islands.minimumSpanningCost(n, flat));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMatrixFastPathSize() {
+		Islands.minimumSpanningCost(3, new int[8]);
+	}
+
+	@Test
+	public void testMatrixFastPathLarge() {
+		//a complete graph of 3000 islands, 9 million entries that the constructor would turn into edge objects
+		int n = 3000;
+		int[] flat = new int[n * n];
+		java.util.Random random = new java.util.Random(7);
+		for(int i = 0; i < flat.length; i++) flat[i] = 1 + random.nextInt(1000000);
+		//a path of cost 0 makes the answer known
+		for(int i = 0; i + 1 < n; i++) flat[i * n + i + 1] = 0;
+		assertEquals(0, Islands.minimumSpanningCost(n, flat));
+		flat[5 * n + 6] = -1;
+		int bridge = Integer.MAX_VALUE;
+		for(int i = 0; i <= 5; i++) {
+			for(int j = 6; j < n; j++) {
+				if(flat[i * n + j] != -1) bridge = Math.min(bridge, flat[i * n + j]);
+				bridge = Math.min(bridge, flat[j * n + i]);
+			}
+		}
+		assertEquals(bridge, Islands.minimumSpanningCost(n, flat));
+	}
+
 }
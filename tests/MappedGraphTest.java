@@ -0,0 +1,107 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import main.AdjListGraph;
+import main.DoublyLinkedList;
+import main.MappedGraph;
+import main.Travel;
+import net.datastructures.Edge;
+import net.datastructures.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedGraphTest {
+	Path file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = Files.createTempFile("graph", ".bin");
+		file.toFile().deleteOnExit();
+	}
+
+	@Test
+	public void testDirectedRoundTrip() throws Exception {
+		AdjListGraph<String,Integer> G = new AdjListGraph<String,Integer>(true);
+		Vertex<String> A = G.insertVertex("A");
+		Vertex<String> B = G.insertVertex("B\u00e9");
+		Vertex<String> C = G.insertVertex("C");
+		G.insertEdge(A, B, 8);
+		G.insertEdge(A, C, 1);
+		G.insertEdge(C, B, -3);
+		MappedGraph.write(G, true, file);
+		MappedGraph M = MappedGraph.open(file);
+		assertTrue(M.isDirected());
+		assertEquals(3, M.numVertices());
+		assertEquals(3, M.numEdges());
+		Vertex<String> a = M.vertex("A");
+		Vertex<String> b = M.vertex("B\u00e9");
+		assertEquals("B\u00e9", b.getElement());
+		assertNull(M.vertex("D"));
+		assertEquals(2, M.outDegree(a));
+		assertEquals(2, M.inDegree(b));
+		assertEquals(Integer.valueOf(-3), M.getEdge(M.vertex("C"), b).getElement());
+		assertNull(M.getEdge(b, a));
+		Edge<Integer> e = M.getEdge(a, b);
+		assertEquals(b, M.opposite(a, e));
+		assertEquals(a, M.endVertices(e)[0]);
+		int weight = 0;
+		for(Edge<Integer> edge : M.edges()) weight += edge.getElement();
+		assertEquals(6, weight);
+	}
+
+	@Test
+	public void testTravelFromFile() throws Exception {
+		String routes[][] = {{"A","B","8"}, {"A","D","1"}, {"B","C","11"}, {"C","D","1"}};
+		new Travel(routes).save(file);
+		Travel T = Travel.open(file);
+		DoublyLinkedList<String> itinerary = new DoublyLinkedList<String>();
+		assertEquals(2, T.DijkstraRoute("A", "C", itinerary));
+		String[] expected = {"A","D","C"};
+		int i = 0;
+		for(String s : itinerary.elements()) assertEquals(expected[i++], s);
+		assertEquals(3, i);
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for(String s : T.DFSRoute("C", "D")) list.add(s);
+		assertArrayEquals(new String[] {"C","B","A","D"}, list.toArray());
+	}
+
+	@Test
+	public void testLabelOrderedRows() throws Exception {
+		String routes[][] = {{"M","Z","1"}, {"M","A","1"}, {"A","Z","1"}, {"M","A","2"}};
+		new Travel(routes).save(file);
+		MappedGraph M = MappedGraph.open(file);
+		assertTrue(M.isLabelOrdered());
+		int m = M.find("M");
+		String[] expected = {"A","A","Z"};
+		int[] edges = {1, 3, 0};
+		for(int i = 0; i < 3; i++) {
+			assertEquals(expected[i], M.label(M.outTarget(M.outStart(m) + i)));
+			assertEquals(edges[i], M.outEdge(M.outStart(m) + i));
+		}
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for(String s : Travel.open(file).DFSRoute("M", "Z")) list.add(s);
+		assertArrayEquals(new String[] {"M","A","Z"}, list.toArray());
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void testNotAGraphFile() throws Exception {
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		MappedGraph.open(file);
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void testCorruptHeader() throws Exception {
+		AdjListGraph<String,Integer> G = new AdjListGraph<String,Integer>(false);
+		G.insertEdge(G.insertVertex("A"), G.insertVertex("B"), 1);
+		MappedGraph.write(G, false, file);
+		byte[] bytes = Files.readAllBytes(file);
+		//a vertex count whose section offsets overflow an int
+		java.nio.ByteBuffer.wrap(bytes).putInt(12, Integer.MAX_VALUE - 2);
+		Files.write(file, bytes);
+		MappedGraph.open(file);
+	}
+}
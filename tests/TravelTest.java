@@ -121,4 +121,254 @@ public class TravelTest {
 		assertArrayEquals(expected, list.toArray() );
 	}
 
+	@Test
+	public void testReadCSV() throws Exception {
+		String csv = "from,to,cost\r\nA,B,8\r\n\"A\",D, 1\r\n\r\nB,C,11\nC,D,1";
+		Travel R = Travel.read(java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(csv.getBytes("UTF-8"))));
+		String[] expected= {"B","A","D","C"};
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+		assertEquals(10, R.DijkstraRoute("B", "C", path));
+		for (String s: path) {
+			list.add(s);
+		}
+		assertArrayEquals(expected, list.toArray() );
+	}
+
+	@Test
+	public void testReadTSVFile() throws Exception {
+		java.nio.file.Path file = java.nio.file.Files.createTempFile("routes", ".tsv");
+		file.toFile().deleteOnExit();
+		java.nio.file.Files.write(file, "A\tB\t8\nA\tD\t1\nB\tC\t11\nC\tD\t1\n".getBytes("UTF-8"));
+		Travel R = Travel.read(file);
+		String[] expected= {"C","B","A","D"};
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for (String s: R.DFSRoute("C", "D")) {
+			list.add(s);
+		}
+		assertArrayEquals(expected, list.toArray() );
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReadInvalidRoute() throws Exception {
+		String csv = "A,B,8\nA,D\n";
+		Travel.read(java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(csv.getBytes("UTF-8"))));
+	}
+
+	@Test
+	public void testReadLongChain() throws Exception {
+		StringBuilder csv = new StringBuilder();
+		for(int i = 0; i < 5000; i++) {
+			csv.append("city").append(i).append(',').append("city").append(i + 1).append(",2\n");
+		}
+		Travel R = Travel.read(java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(csv.toString().getBytes("UTF-8"))));
+		assertEquals(10000, R.DijkstraRoute("city0", "city5000", new DoublyLinkedList<String>()));
+	}
+
+	@Test
+	public void testBidirectionalDijkstraRoute() {
+		String[] expected= {"B","A","D","C"};
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+		assertEquals(10, T.BidirectionalDijkstraRoute("B", "C", path));
+		for (String s: path) {
+			list.add(s);
+		}
+		assertArrayEquals(expected, list.toArray() );
+		DoublyLinkedList<String> self = new DoublyLinkedList<String>();
+		assertEquals(0, T.BidirectionalDijkstraRoute("A", "A", self));
+		assertEquals(1, self.size());
+	}
+
+	@Test
+	public void testGoalDirectedRoutes() {
+		String[] expected= {"B","A","D","C"};
+		DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+		assertEquals(10, T.ALTRoute("B", "C", path));
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for (String s: path) {
+			list.add(s);
+		}
+		assertArrayEquals(expected, list.toArray() );
+		assertEquals(10, T.AStarRoute("B", "C", new DoublyLinkedList<String>(), (city, destination) -> 0));
+	}
+
+	@Test
+	public void testCHRoute() {
+		String[] expected= {"B","A","D","C"};
+		DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+		assertEquals(10, T.CHRoute("B", "C", path));
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for (String s: path) {
+			list.add(s);
+		}
+		assertArrayEquals(expected, list.toArray() );
+	}
+
+	//a travel between n random cities named c0 .. c(n-1), with m random routes
+	private static Travel randomTravel(long seed, int n, int m) {
+		java.util.Random random = new java.util.Random(seed);
+		String[][] routes = new String[m][];
+		for(int i = 0; i < m; i++) {
+			int from = i < n - 1 ? i + 1 : random.nextInt(n);
+			int to = i < n - 1 ? random.nextInt(i + 1) : random.nextInt(n);
+			routes[i] = new String[] {"c" + from, "c" + to, String.valueOf(1 + random.nextInt(50))};
+		}
+		return new Travel(routes);
+	}
+
+	private static String[] names(Iterable<String> route) {
+		java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+		for(String s : route) list.add(s);
+		return list.toArray(new String[list.size()]);
+	}
+
+	@Test
+	public void testRouteCache() {
+		T.useRouteCache(16, 0);
+		for(int i = 0; i < 2; i++) {
+			DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+			assertEquals(10, T.DijkstraRoute("B", "C", path));
+			assertArrayEquals(new String[] {"B","A","D","C"}, names(path));
+			assertArrayEquals(new String[] {"A","B","C"}, names(T.DFSRoute("A", "C")));
+			assertArrayEquals(new String[] {"A","B","C"}, names(T.BFSRoute("A", "C")));
+		}
+		assertEquals(3, T.routeCache().misses());
+		assertEquals(3, T.routeCache().hits());
+		assertEquals(3, T.routeCache().size());
+		assertEquals(0.5, T.routeCache().hitRate(), 1e-9);
+	}
+
+	@Test
+	public void testRouteCacheInvalidation() {
+		T.useRouteCache(16, 0);
+		assertEquals(10, T.DijkstraRoute("B", "C", new DoublyLinkedList<String>()));
+		T.addRoute("B", "E", 1);
+		T.addRoute("E", "C", 2);
+		DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+		assertEquals(3, T.DijkstraRoute("B", "C", path));
+		assertArrayEquals(new String[] {"B","E","C"}, names(path));
+		assertEquals(1, T.routeCache().invalidations());
+		assertEquals(0, T.routeCache().hits());
+		assertArrayEquals(new String[] {"B","E"}, names(T.BFSRoute("B", "E")));
+	}
+
+	@Test
+	public void testShortestPathTreeCache() {
+		Travel cached = randomTravel(3, 300, 900);
+		Travel plain = randomTravel(3, 300, 900);
+		cached.useRouteCache(1000, 2);
+		for(int target = 0; target < 300; target++) {
+			DoublyLinkedList<String> expected = new DoublyLinkedList<String>();
+			DoublyLinkedList<String> path = new DoublyLinkedList<String>();
+			assertEquals(plain.DijkstraRoute("c7", "c" + target, expected), cached.DijkstraRoute("c7", "c" + target, path));
+			assertArrayEquals(names(expected), names(path));
+		}
+		assertEquals(1, cached.routeCache().numTrees());
+		assertTrue(cached.routeCache().treeHits() > 290);
+		assertTrue(cached.routeCache().misses() < 10);
+	}
+
+	@Test
+	public void testRouteCacheKeepsHotRoutes() {
+		Travel travel = randomTravel(5, 400, 1200);
+		travel.useRouteCache(100, 0);
+		for(int i = 0; i < 20; i++) {
+			for(int hot = 0; hot < 50; hot++) travel.DijkstraRoute("c" + hot, "c" + (hot + 100), new DoublyLinkedList<String>());
+		}
+		//one-off queries outnumber the hot ones 4 to 1, more than LRU would survive, but do not push them out
+		for(int i = 0; i < 2000; i++) {
+			travel.DijkstraRoute("c" + i / 5, "c" + (i / 5 + 1 + i % 5 * 50) % 400, new DoublyLinkedList<String>());
+			int hot = i / 4 % 50;
+			if(i % 4 == 0) travel.DijkstraRoute("c" + hot, "c" + (hot + 100), new DoublyLinkedList<String>());
+		}
+		long hits = travel.routeCache().hits();
+		for(int hot = 0; hot < 50; hot++) travel.DijkstraRoute("c" + hot, "c" + (hot + 100), new DoublyLinkedList<String>());
+		assertTrue(travel.routeCache().hits() - hits >= 45);
+		assertTrue(travel.routeCache().size() <= 100);
+		assertTrue(travel.routeCache().evictions() > 0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDijkstraRoutes() {
+		Travel travel = randomTravel(9, 300, 900);
+		java.util.Random random = new java.util.Random(9);
+		String[][] pairs = new String[1000][];
+		for(int i = 0; i < pairs.length; i++) {
+			//a few hot departures and some one-off ones
+			int from = i % 3 == 0 ? random.nextInt(300) : random.nextInt(10);
+			pairs[i] = new String[] {"c" + from, "c" + random.nextInt(300)};
+		}
+		for(boolean parallel : new boolean[] {false, true}) {
+			DoublyLinkedList<String>[] itineraries = new DoublyLinkedList[pairs.length];
+			for(int i = 0; i < pairs.length; i++) itineraries[i] = new DoublyLinkedList<String>();
+			int[] costs = travel.DijkstraRoutes(pairs, itineraries, parallel);
+			for(int i = 0; i < pairs.length; i++) {
+				DoublyLinkedList<String> expected = new DoublyLinkedList<String>();
+				assertEquals(travel.DijkstraRoute(pairs[i][0], pairs[i][1], expected), costs[i]);
+				assertArrayEquals(names(expected), names(itineraries[i]));
+			}
+			assertArrayEquals(costs, travel.DijkstraRoutes(pairs, null, parallel));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDijkstraRoutesUnknownCity() {
+		T.DijkstraRoutes(new String[][] {{"A", "C"}, {"A", "Z"}}, null, false);
+	}
+
+	@Test
+	public void testDFSRouteLongChain() throws Exception {
+		StringBuilder csv = new StringBuilder();
+		for(int i = 0; i < 200000; i++) {
+			csv.append("city").append(i).append(',').append("city").append(i + 1).append(",2\n");
+		}
+		Travel R = Travel.read(java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(csv.toString().getBytes("UTF-8"))));
+		String[] route = names(R.DFSRoute("city0", "city200000"));
+		assertEquals(200001, route.length);
+		assertEquals("city100000", route[100000]);
+		assertArrayEquals(new String[] {"A"}, names(T.DFSRoute("A", "Z")));
+	}
+
+	@Test
+	public void testDFSRouteRepeatedQueries() {
+		//the search engine is reused between queries, so the routes must not depend on the previous ones
+		Travel forward = randomTravel(5, 1000, 3000);
+		Travel backward = randomTravel(5, 1000, 3000);
+		String[][] routes = new String[40][];
+		for(int i = 0; i < 40; i++) routes[i] = names(forward.DFSRoute("c" + (i * 37 % 1000), "c" + (i * 91 % 1000)));
+		for(int i = 39; i >= 0; i--) assertArrayEquals(routes[i], names(backward.DFSRoute("c" + (i * 37 % 1000), "c" + (i * 91 % 1000))));
+	}
+
+	@Test
+	public void testBFSRouteRepeatedQueries() {
+		//the search engines are reused between queries, so the routes must not depend on the previous ones
+		Travel forward = randomTravel(6, 1000, 3000);
+		Travel backward = randomTravel(6, 1000, 3000);
+		String[][] routes = new String[40][];
+		for(int i = 0; i < 40; i++) routes[i] = names(forward.BFSRoute("c" + (i * 37 % 1000), "c" + (i * 91 % 1000)));
+		for(int i = 39; i >= 0; i--) {
+			assertArrayEquals(routes[i], names(backward.BFSRoute("c" + (i * 37 % 1000), "c" + (i * 91 % 1000))));
+			assertArrayEquals(routes[i], names(backward.BFSRoute("c" + (i * 37 % 1000), "c" + (i * 91 % 1000), true)));
+		}
+	}
+
+	@Test
+	public void testBFSRouteWideFrontier() {
+		//a hub with more neighbours than the old fixed queue could hold
+		String[][] routes = new String[300][];
+		for(int i = 0; i < 299; i++) routes[i] = new String[] {"hub", "spoke" + i, "1"};
+		routes[299] = new String[] {"spoke298", "end", "1"};
+		Travel travel = new Travel(routes);
+		assertArrayEquals(new String[] {"spoke5", "hub", "spoke298", "end"}, names(travel.BFSRoute("spoke5", "end")));
+		Travel random = randomTravel(4, 2000, 8000);
+		for(int i = 0; i < 50; i++) {
+			String from = "c" + (i * 37 % 2000);
+			String to = "c" + (i * 91 % 2000);
+			assertArrayEquals(names(random.BFSRoute(from, to)), names(random.BFSRoute(from, to, true)));
+		}
+		assertArrayEquals(new String[] {"A"}, names(T.BFSRoute("A", "Z")));
+	}
+
 }
@@ -0,0 +1,46 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import main.UnionFind;
+import org.junit.Test;
+
+public class UnionFindTest {
+
+	@Test
+	public void testMatchesRelabelling() {
+		java.util.Random random = new java.util.Random(7);
+		int n = 500;
+		UnionFind sets = new UnionFind(n);
+		//the labels of the sets, relabelled on every merge
+		int[] labels = new int[n];
+		for(int i = 0; i < n; i++) labels[i] = i;
+		int count = n;
+		for(int step = 0; step < 2000; step++) {
+			int a = random.nextInt(n);
+			int b = random.nextInt(n);
+			assertEquals(labels[a] == labels[b], sets.connected(a, b));
+			boolean merged = labels[a] != labels[b];
+			assertEquals(merged, sets.union(a, b));
+			if(merged) {
+				int old = labels[b];
+				for(int i = 0; i < n; i++) if(labels[i] == old) labels[i] = labels[a];
+				count--;
+			}
+			assertEquals(count, sets.count());
+			int size = 0;
+			for(int i = 0; i < n; i++) if(labels[i] == labels[a]) size++;
+			assertEquals(size, sets.size(a));
+		}
+	}
+
+	@Test
+	public void testLongChainOfUnions() {
+		int n = 1000000;
+		UnionFind sets = new UnionFind(n);
+		for(int i = 1; i < n; i++) assertTrue(sets.union(i - 1, i));
+		assertEquals(1, sets.count());
+		assertEquals(n, sets.size(0));
+		assertFalse(sets.union(0, n - 1));
+	}
+}